@@ -41,7 +41,7 @@ public class ActivityInode {
     }
 
     public void writeBack() {
-        this.fileSystem.getDiskInodeMap().get("" + this.inodeNo).saveToDisk(this.inodeNo);
+        this.fileSystem.getDiskInode(this.inodeNo).saveToDisk(this.inodeNo);
     }
 
     public FileSystem getFileSystem() {
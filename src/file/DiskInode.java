@@ -195,7 +195,7 @@ public class DiskInode {
      */
     public void saveToDisk(int inodeNo) {
         // 存储信息设置
-        Page page = new Page();
+        Page page = new Page(0, 0, 0, 0, 0, Page.DATA_POOL.acquire());
         page.setExternalBlockNo(ExternalMem.INODE_AREA_START_BLOCK_NO + inodeNo);
         page.getData()[0] = (byte) this.userId;
         page.getData()[1] = (byte)(this.userId >> 8);
@@ -238,6 +238,8 @@ public class DiskInode {
         page.getData()[31] = (byte)(this.lastUpdateTime >> 24);
         // 写入磁盘inode区
         this.fileSystem.getManager().getDeviceManage().useBuffer(page, BufferHead.WRITE);
+        // 写操作已复制数据快照，可立即归还数据缓冲
+        Page.DATA_POOL.release(page.getData());
     }
 
     /**
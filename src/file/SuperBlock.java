@@ -75,7 +75,7 @@ public class SuperBlock {
         // 超级块存储在 #1
         int blockNo = 1;
         // 存储信息设置
-        Page page = new Page();
+        Page page = new Page(0, 0, 0, 0, 0, Page.DATA_POOL.acquire());
         page.setExternalBlockNo(blockNo);
         page.getData()[0] = (byte) this.inodeAreaBlockNum;
         page.getData()[1] = (byte)(this.inodeAreaBlockNum >> 8);
@@ -113,6 +113,8 @@ public class SuperBlock {
         page.getData()[27] = (byte)(this.lastUpdateTime >> 24);
         // 写入外存超级块
         this.fileSystem.getManager().getDeviceManage().useBuffer(page, BufferHead.WRITE);
+        // 写操作已复制数据快照，可立即归还数据缓冲
+        Page.DATA_POOL.release(page.getData());
     }
 
     /**
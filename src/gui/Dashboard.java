@@ -5,6 +5,7 @@
 package gui;
 
 import hardware.CPU;
+import hardware.Clock;
 import hardware.ExternalMem;
 import hardware.InternalMem;
 import interrupt.InterruptVector;
@@ -12,6 +13,8 @@ import kernel.FileSystem;
 import kernel.JCB;
 import kernel.PCB;
 import kernel.Page;
+import kernel.ProcessSummary;
+import kernel.SchedulerPolicy;
 import os.Manager;
 
 import java.awt.*;
@@ -19,7 +22,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.Iterator;
+import java.util.Vector;
 import javax.swing.*;
 import javax.swing.border.*;
 import javax.swing.table.DefaultTableModel;
@@ -36,6 +39,11 @@ import static kernel.FileSystem.INODE_SIZE;
  * @author ZJC
  */
 public class Dashboard extends JFrame {
+    /**
+     * 运行速度选项
+     */
+    public static final double[] SPEED_OPTIONS = new double[]{0.1, 0.5, 1, 2, 5, 10, 100, 1000, Clock.MAX_SPEED};
+
     private Manager manager;
 
     public InternalMemDisplay internalMemDisplay;
@@ -145,6 +153,10 @@ public class Dashboard extends JFrame {
      */
     public synchronized void enableAllButton() {
         this.startButton.setEnabled(true);
+        this.speedComboBox.setEnabled(true);
+        // 显示启动参数指定的调度策略
+        this.policyComboBox.setSelectedItem(this.manager.getSchedule().getPolicy().getName());
+        this.policyComboBox.setEnabled(true);
         this.addJobButton.setEnabled(true);
         this.inMemButton.setEnabled(true);
         this.exMemButton.setEnabled(true);
@@ -196,8 +208,7 @@ public class Dashboard extends JFrame {
         int pageTableBaseAddress = this.manager.getCpu().getRunningPCB().getPageTableBaseAddress();
         int allocatePageFrameNum = this.manager.getCpu().getRunningPCB().getAllocatePageFrameNum();
         for (int i = 0; i < allocatePageFrameNum; i ++) {
-            this.manager.getAddressLine().setAddress((short)(pageTableBaseAddress + i * InternalMem.PAGE_TABLE_ITEM_SIZE));
-            Page page = this.manager.getInMem().readPageItem(this.manager.getAddressLine());
+            Page page = this.manager.getInMem().readPageItem(pageTableBaseAddress + i * InternalMem.PAGE_TABLE_ITEM_SIZE);
             this.pageTableInfo.addRow(new String[]{
                     Integer.toString(page.getLogicPageNo()),
                     Integer.toString(page.getInternalFrameNo()),
@@ -257,12 +268,15 @@ public class Dashboard extends JFrame {
                     Integer.toString(temp.getInstructionNum()),
                     Integer.toString(temp.getNeedPageNum())});
         }
+        // 刷新调度指标
+        this.metricsLabel.setText(this.manager.getSchedule().getMetricsSummary());
         // 刷新就绪队列
         while (this.readyTableInfo.getRowCount() > 0) {
             this.readyTableInfo.removeRow(0);
         }
-        for (int i = 0; i < this.manager.getSchedule().getReadyQueue().size(); ++i) {
-            PCB temp = this.manager.getSchedule().getReadyQueue().get(i);
+        Vector<PCB> readyPCBs = this.manager.getSchedule().getAllReadyPCBs();
+        for (int i = 0; i < readyPCBs.size(); ++i) {
+            PCB temp = readyPCBs.get(i);
             this.readyTableInfo.addRow(new String[]{
                     Integer.toString(temp.getId()),
                     Integer.toString(temp.getPriority()),
@@ -318,12 +332,31 @@ public class Dashboard extends JFrame {
             this.finishTableInfo.removeRow(0);
         }
         for (int i = 0; i < this.manager.getSchedule().getFinishQueue().size(); ++i) {
-            PCB temp = this.manager.getSchedule().getFinishQueue().get(i);
+            ProcessSummary temp = this.manager.getSchedule().getFinishQueue().get(i);
             this.finishTableInfo.addRow(new String[]{
                     Integer.toString(temp.getId())});
         }
     }
 
+    /**
+     * 按进程 ID 展示进程详情，存活进程由进程表查找，已完成进程展示其摘要
+     * @param id 进程 ID
+     */
+    private void showProcessDetail(int id) {
+        PCB pcb = this.manager.getSchedule().getPCB(id);
+        if (pcb != null) {
+            this.processDetail.setPcb(pcb);
+        } else {
+            ProcessSummary summary = this.manager.getSchedule().getFinishSummary(id);
+            if (summary == null) {
+                return;
+            }
+            this.processDetail.setSummary(summary);
+        }
+        this.processDetail.refreshData();
+        this.processDetail.setVisible(true);
+    }
+
     /**
      * 初始化页框位示图
      */
@@ -458,17 +491,7 @@ public class Dashboard extends JFrame {
                     try {
                         // 获取选中的进程id
                         int id = Integer.parseInt(readyTableInfo.getValueAt(readyTable.getSelectedRow(), 0).toString());
-                        Iterator<PCB> iterator = manager.getSchedule().getAllPCBQueue().iterator();
-                        while (iterator.hasNext()) {
-                            PCB pcb = iterator.next();
-                            // 找到对应进程并展示
-                            if (pcb.getId() == id) {
-                                processDetail.setPcb(pcb);
-                                processDetail.refreshData();
-                                processDetail.setVisible(true);
-                                break;
-                            }
-                        }
+                        showProcessDetail(id);
                     } catch (Exception exception) {
                         exception.printStackTrace();
                     }
@@ -500,17 +523,7 @@ public class Dashboard extends JFrame {
                     try {
                         // 获取选中的进程id
                         int id = Integer.parseInt(blockTableInfo.getValueAt(blockTable.getSelectedRow(), 0).toString());
-                        Iterator<PCB> iterator = manager.getSchedule().getAllPCBQueue().iterator();
-                        while (iterator.hasNext()) {
-                            PCB pcb = iterator.next();
-                            // 找到对应进程并展示
-                            if (pcb.getId() == id) {
-                                processDetail.setPcb(pcb);
-                                processDetail.refreshData();
-                                processDetail.setVisible(true);
-                                break;
-                            }
-                        }
+                        showProcessDetail(id);
                     } catch (Exception exception) {
                         exception.printStackTrace();
                     }
@@ -542,17 +555,7 @@ public class Dashboard extends JFrame {
                     try {
                         // 获取选中的进程id
                         int id = Integer.parseInt(resourceTableInfoA.getValueAt(resourceTableA.getSelectedRow(), 0).toString());
-                        Iterator<PCB> iterator = manager.getSchedule().getAllPCBQueue().iterator();
-                        while (iterator.hasNext()) {
-                            PCB pcb = iterator.next();
-                            // 找到对应进程并展示
-                            if (pcb.getId() == id) {
-                                processDetail.setPcb(pcb);
-                                processDetail.refreshData();
-                                processDetail.setVisible(true);
-                                break;
-                            }
-                        }
+                        showProcessDetail(id);
                     } catch (Exception exception) {
                         exception.printStackTrace();
                     }
@@ -585,17 +588,7 @@ public class Dashboard extends JFrame {
                     try {
                         // 获取选中的进程id
                         int id = Integer.parseInt(resourceTableInfoB.getValueAt(resourceTableB.getSelectedRow(), 0).toString());
-                        Iterator<PCB> iterator = manager.getSchedule().getAllPCBQueue().iterator();
-                        while (iterator.hasNext()) {
-                            PCB pcb = iterator.next();
-                            // 找到对应进程并展示
-                            if (pcb.getId() == id) {
-                                processDetail.setPcb(pcb);
-                                processDetail.refreshData();
-                                processDetail.setVisible(true);
-                                break;
-                            }
-                        }
+                        showProcessDetail(id);
                     } catch (Exception exception) {
                         exception.printStackTrace();
                     }
@@ -627,17 +620,7 @@ public class Dashboard extends JFrame {
                     try {
                         // 获取选中的进程id
                         int id = Integer.parseInt(resourceTableInfoC.getValueAt(resourceTableC.getSelectedRow(), 0).toString());
-                        Iterator<PCB> iterator = manager.getSchedule().getAllPCBQueue().iterator();
-                        while (iterator.hasNext()) {
-                            PCB pcb = iterator.next();
-                            // 找到对应进程并展示
-                            if (pcb.getId() == id) {
-                                processDetail.setPcb(pcb);
-                                processDetail.refreshData();
-                                processDetail.setVisible(true);
-                                break;
-                            }
-                        }
+                        showProcessDetail(id);
                     } catch (Exception exception) {
                         exception.printStackTrace();
                     }
@@ -669,17 +652,7 @@ public class Dashboard extends JFrame {
                     try {
                         // 获取选中的进程id
                         int id = Integer.parseInt(suspendTableInfo.getValueAt(suspendTable.getSelectedRow(), 0).toString());
-                        Iterator<PCB> iterator = manager.getSchedule().getAllPCBQueue().iterator();
-                        while (iterator.hasNext()) {
-                            PCB pcb = iterator.next();
-                            // 找到对应进程并展示
-                            if (pcb.getId() == id) {
-                                processDetail.setPcb(pcb);
-                                processDetail.refreshData();
-                                processDetail.setVisible(true);
-                                break;
-                            }
-                        }
+                        showProcessDetail(id);
                     } catch (Exception exception) {
                         exception.printStackTrace();
                     }
@@ -711,17 +684,7 @@ public class Dashboard extends JFrame {
                     try {
                         // 获取选中的进程id
                         int id = Integer.parseInt(finishTableInfo.getValueAt(finishTable.getSelectedRow(), 0).toString());
-                        Iterator<PCB> iterator = manager.getSchedule().getAllPCBQueue().iterator();
-                        while (iterator.hasNext()) {
-                            PCB pcb = iterator.next();
-                            // 找到对应进程并展示
-                            if (pcb.getId() == id) {
-                                processDetail.setPcb(pcb);
-                                processDetail.refreshData();
-                                processDetail.setVisible(true);
-                                break;
-                            }
-                        }
+                        showProcessDetail(id);
                     } catch (Exception exception) {
                         exception.printStackTrace();
                     }
@@ -768,12 +731,47 @@ public class Dashboard extends JFrame {
                 if (manager.getClock().isPause()) {
                     clockState.setText("暂停");
                     startButton.setText("启动");
+                    consoleInfo(manager.getSchedule().getDispatchLatencyInfo());
+                    consoleInfo(manager.getInterruptController().toString());
+                    consoleInfo(manager.getSchedule().getCoreInfo());
+                    consoleInfo(manager.getSchedule().getMetricsReport());
                 } else {
                     clockState.setText("运行中");
                     startButton.setText("暂停");
                 }
             }
         });
+        // 运行速度选择框
+        for (int i = 0; i < SPEED_OPTIONS.length; ++i) {
+            this.speedComboBox.addItem(Clock.getSpeedText(SPEED_OPTIONS[i]));
+        }
+        // 启动参数指定的速度不在选项中，则追加该选项
+        String currentSpeedText = Clock.getSpeedText(this.manager.getClock().getSpeed());
+        if (((DefaultComboBoxModel<String>) this.speedComboBox.getModel()).getIndexOf(currentSpeedText) == -1) {
+            this.speedComboBox.addItem(currentSpeedText);
+        }
+        this.speedComboBox.setSelectedItem(currentSpeedText);
+        this.speedComboBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (speedComboBox.getSelectedItem() != null) {
+                    manager.getClock().setSpeed(Clock.parseSpeed((String) speedComboBox.getSelectedItem()));
+                }
+            }
+        });
+        // 调度策略选择框
+        for (int i = 0; i < SchedulerPolicy.POLICY_NAMES.length; ++i) {
+            this.policyComboBox.addItem(SchedulerPolicy.POLICY_NAMES[i]);
+        }
+        this.policyComboBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                String policyName = (String) policyComboBox.getSelectedItem();
+                if (policyName != null && !policyName.equals(manager.getSchedule().getPolicy().getName())) {
+                    manager.getSchedule().setPolicy(SchedulerPolicy.create(policyName, manager.getSchedule()));
+                }
+            }
+        });
         // 添加作业按钮
         this.addJobButton.addActionListener(new ActionListener() {
             @Override
@@ -872,7 +870,10 @@ public class Dashboard extends JFrame {
         time = new JLabel();
         clockState = new JLabel();
         clockBox = new JLabel();
+        speedComboBox = new JComboBox<>();
         cpuLabel = new JLabel();
+        metricsLabel = new JLabel();
+        policyComboBox = new JComboBox<>();
         PCLabel = new JLabel();
         IRLabel = new JLabel();
         PC = new JLabel();
@@ -979,6 +980,11 @@ public class Dashboard extends JFrame {
             panel.add(consoleLabel);
             consoleLabel.setBounds(25, 500, 80, 30);
 
+            //---- metricsLabel ----
+            metricsLabel.setFont(new Font("Microsoft YaHei UI", Font.PLAIN, 12));
+            panel.add(metricsLabel);
+            metricsLabel.setBounds(110, 500, 635, 30);
+
             //======== readyQueueScrollPane ========
             {
                 readyQueueScrollPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
@@ -1118,12 +1124,24 @@ public class Dashboard extends JFrame {
             panel.add(clockBox);
             clockBox.setBounds(770, 45, 160, 75);
 
+            //---- speedComboBox ----
+            speedComboBox.setFont(new Font("Microsoft YaHei UI", Font.PLAIN, 14));
+            speedComboBox.setEnabled(false);
+            panel.add(speedComboBox);
+            speedComboBox.setBounds(850, 17, 80, 28);
+
             //---- cpuLabel ----
             cpuLabel.setText("CPU");
             cpuLabel.setFont(new Font("Microsoft YaHei UI", Font.PLAIN, 16));
             panel.add(cpuLabel);
             cpuLabel.setBounds(950, 15, 80, 32);
 
+            //---- policyComboBox ----
+            policyComboBox.setFont(new Font("Microsoft YaHei UI", Font.PLAIN, 14));
+            policyComboBox.setEnabled(false);
+            panel.add(policyComboBox);
+            policyComboBox.setBounds(1030, 17, 80, 28);
+
             //---- PCLabel ----
             PCLabel.setText("PC\uff1a");
             PCLabel.setFont(new Font("Microsoft YaHei UI", Font.PLAIN, 14));
@@ -1437,7 +1455,10 @@ public class Dashboard extends JFrame {
     public JLabel time;
     public JLabel clockState;
     public JLabel clockBox;
+    public JComboBox<String> speedComboBox;
     public JLabel cpuLabel;
+    public JLabel metricsLabel;
+    public JComboBox<String> policyComboBox;
     public JLabel PCLabel;
     public JLabel IRLabel;
     public JLabel PC;
@@ -155,7 +155,7 @@ public class FileExplorer extends JDialog {
         try {
             this.filePanel.setPreferredSize(new Dimension(798, 60 + 210 * ((directoryItemList.size() - 3) / 5) + 1));
             for (int i = 2; i < directoryItemList.size(); i++) {
-                DiskInode diskInode = this.dashboard.getManager().getFileSystem().getDiskInodeMap().get("" + directoryItemList.get(i).getInodeNo());
+                DiskInode diskInode = this.dashboard.getManager().getFileSystem().getDiskInode(directoryItemList.get(i).getInodeNo());
                 ImageIcon img = new ImageIcon(diskInode.getType() == FileType.DIR ? "./static/dir.png" : "./static/txt.png");
                 FileBox fileBox = new FileBox(this, img, directoryItemList.get(i), diskInode);
                 this.fileList.add(fileBox);
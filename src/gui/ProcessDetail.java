@@ -5,6 +5,7 @@
 package gui;
 
 import kernel.PCB;
+import kernel.ProcessSummary;
 
 import java.awt.*;
 import javax.swing.*;
@@ -17,11 +18,16 @@ import javax.swing.*;
 public class ProcessDetail extends JDialog {
     private Dashboard dashboard;
     private PCB pcb;
+    /**
+     * 已完成进程的摘要，展示存活进程时为 null
+     */
+    private ProcessSummary summary;
 
     public ProcessDetail(Dashboard owner) {
         super(owner);
         this.dashboard = owner;
         this.pcb = null;
+        this.summary = null;
         initComponents();
         this.refreshData();
     }
@@ -30,7 +36,29 @@ public class ProcessDetail extends JDialog {
      * 刷新数据
      */
     public void refreshData() {
-        if (this.pcb == null) {
+        if (this.pcb == null && this.summary != null) {
+            // 已完成进程只保留摘要，不再有寄存器和页表信息
+            this.id.setText("" + this.summary.getId());
+            this.priority.setText("" + this.summary.getPriority());
+            this.instructionNum.setText("" + this.summary.getInstructionNum());
+            this.needPageNum.setText("" + this.summary.getAllocatePageFrameNum());
+            this.PC.setText("-");
+            this.IR.setText("-");
+            this.pageTableBaseAddress.setText("-");
+            this.state.setText("" + PCB.FINISH_STATE);
+            this.inBlockTime.setText("-");
+            this.createTime.setText("" + this.summary.getInTime());
+            this.endTime.setText("" + this.summary.getEndTime());
+            this.runTime.setText("" + this.summary.getRunTime());
+            this.turnTime.setText("" + this.summary.getTurnTime());
+            this.cycles.setText("" + this.summary.getCycleCounter().getTotalCycles());
+            this.CPI.setText(String.format("%.2f", this.summary.getCycleCounter().getCPI()));
+            this.cycleBreakdown.setText("<html>" + this.summary.getCycleCounter().getBreakdown() +
+                    " " + this.summary.getCycleCounter().getCacheHitInfo() + "</html>");
+            this.stateTime.setText("<html>" + this.summary.getStateTimeInfo() +
+                    " 响应 " + this.summary.getResponseTime() +
+                    " 切换 主动 " + this.summary.getVoluntarySwitchNum() + " 抢占 " + this.summary.getInvoluntarySwitchNum() + "</html>");
+        } else if (this.pcb == null) {
             this.id.setText("");
             this.priority.setText("");
             this.instructionNum.setText("");
@@ -44,6 +72,10 @@ public class ProcessDetail extends JDialog {
             this.endTime.setText("");
             this.runTime.setText("");
             this.turnTime.setText("");
+            this.cycles.setText("");
+            this.CPI.setText("");
+            this.cycleBreakdown.setText("");
+            this.stateTime.setText("");
         } else {
             this.id.setText("" + this.pcb.getId());
             this.priority.setText("" + this.pcb.getPriority());
@@ -58,6 +90,14 @@ public class ProcessDetail extends JDialog {
             this.endTime.setText("" + this.pcb.getEndTime());
             this.runTime.setText("" + this.pcb.getRunTime());
             this.turnTime.setText("" + this.pcb.getTurnTime());
+            this.cycles.setText("" + this.pcb.getCycleCounter().getTotalCycles());
+            this.CPI.setText(String.format("%.2f", this.pcb.getCycleCounter().getCPI()));
+            this.cycleBreakdown.setText("<html>" + this.pcb.getCycleCounter().getBreakdown() +
+                    " " + this.pcb.getCycleCounter().getCacheHitInfo() + "</html>");
+            this.stateTime.setText("<html>" + this.pcb.getStateTimeInfo() +
+                    " 响应 " + this.pcb.getResponseTime() +
+                    " 切换 主动 " + this.pcb.getVoluntarySwitchNum() + " 抢占 " + this.pcb.getInvoluntarySwitchNum() +
+                    " " + PCB.BEHAVIOUR_NAMES[this.pcb.getBehaviour()] + "</html>");
         }
     }
 
@@ -90,6 +130,14 @@ public class ProcessDetail extends JDialog {
         runTime = new JLabel();
         turnTimeLabel = new JLabel();
         turnTime = new JLabel();
+        cyclesLabel = new JLabel();
+        cycles = new JLabel();
+        CPILabel = new JLabel();
+        CPI = new JLabel();
+        cycleBreakdownLabel = new JLabel();
+        cycleBreakdown = new JLabel();
+        stateTimeLabel = new JLabel();
+        stateTime = new JLabel();
 
         //======== this ========
         setTitle("\u8fdb\u7a0b\u8be6\u60c5");
@@ -244,6 +292,50 @@ public class ProcessDetail extends JDialog {
             panel.add(turnTime);
             turnTime.setBounds(270, 240, 75, 35);
 
+            //---- cyclesLabel ----
+            cyclesLabel.setText("\u5468\u671f\u6570");
+            cyclesLabel.setFont(new Font("Microsoft YaHei UI", Font.PLAIN, 14));
+            panel.add(cyclesLabel);
+            cyclesLabel.setBounds(20, 275, 75, 35);
+
+            //---- cycles ----
+            cycles.setFont(new Font("Microsoft YaHei UI", Font.PLAIN, 14));
+            panel.add(cycles);
+            cycles.setBounds(100, 275, 75, 35);
+
+            //---- CPILabel ----
+            CPILabel.setText("CPI");
+            CPILabel.setFont(new Font("Microsoft YaHei UI", Font.PLAIN, 14));
+            panel.add(CPILabel);
+            CPILabel.setBounds(190, 275, 75, 35);
+
+            //---- CPI ----
+            CPI.setFont(new Font("Microsoft YaHei UI", Font.PLAIN, 14));
+            panel.add(CPI);
+            CPI.setBounds(270, 275, 75, 35);
+
+            //---- cycleBreakdownLabel ----
+            cycleBreakdownLabel.setText("\u5468\u671f\u5206\u5e03");
+            cycleBreakdownLabel.setFont(new Font("Microsoft YaHei UI", Font.PLAIN, 14));
+            panel.add(cycleBreakdownLabel);
+            cycleBreakdownLabel.setBounds(20, 310, 75, 35);
+
+            //---- cycleBreakdown ----
+            cycleBreakdown.setFont(new Font("Microsoft YaHei UI", Font.PLAIN, 12));
+            panel.add(cycleBreakdown);
+            cycleBreakdown.setBounds(100, 310, 245, 55);
+
+            //---- stateTimeLabel ----
+            stateTimeLabel.setText("\u72b6\u6001\u65f6\u95f4");
+            stateTimeLabel.setFont(new Font("Microsoft YaHei UI", Font.PLAIN, 14));
+            panel.add(stateTimeLabel);
+            stateTimeLabel.setBounds(20, 370, 75, 35);
+
+            //---- stateTime ----
+            stateTime.setFont(new Font("Microsoft YaHei UI", Font.PLAIN, 12));
+            panel.add(stateTime);
+            stateTime.setBounds(100, 370, 245, 75);
+
             { // compute preferred size
                 Dimension preferredSize = new Dimension();
                 for(int i = 0; i < panel.getComponentCount(); i++) {
@@ -259,7 +351,7 @@ public class ProcessDetail extends JDialog {
             }
         }
         contentPane.add(panel, BorderLayout.CENTER);
-        setSize(365, 330);
+        setSize(365, 490);
         setLocationRelativeTo(getOwner());
         // JFormDesigner - End of component initialization  //GEN-END:initComponents
     }
@@ -292,6 +384,14 @@ public class ProcessDetail extends JDialog {
     public JLabel runTime;
     public JLabel turnTimeLabel;
     public JLabel turnTime;
+    public JLabel cyclesLabel;
+    public JLabel cycles;
+    public JLabel CPILabel;
+    public JLabel CPI;
+    public JLabel cycleBreakdownLabel;
+    public JLabel cycleBreakdown;
+    public JLabel stateTimeLabel;
+    public JLabel stateTime;
     // JFormDesigner - End of variables declaration  //GEN-END:variables
 
 
@@ -309,5 +409,15 @@ public class ProcessDetail extends JDialog {
 
     public void setPcb(PCB pcb) {
         this.pcb = pcb;
+        this.summary = null;
+    }
+
+    public ProcessSummary getSummary() {
+        return summary;
+    }
+
+    public void setSummary(ProcessSummary summary) {
+        this.summary = summary;
+        this.pcb = null;
     }
 }
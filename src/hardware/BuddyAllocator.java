@@ -0,0 +1,275 @@
+package hardware;
+
+/**
+ * 伙伴系统分配器
+ *
+ * 负责一段连续页框（或页表区域、缓冲区）的分配与回收
+ * 每次分配 2 的幂个连续单元，分配时拆分较大的空闲块，回收时与伙伴块合并
+ * 各阶空闲块以双向链表组织，链表指针直接存放在按单元编号索引的数组中
+ *
+ * @author ZJC
+ */
+public class BuddyAllocator {
+    /**
+     * 分配器名称，用于输出信息
+     */
+    private String name;
+    /**
+     * 管理的单元总数，必须为 2 的幂
+     */
+    private int unitNum;
+    /**
+     * 最大阶数，最大块包含 2^maxOrder 个单元
+     */
+    private int maxOrder;
+    /**
+     * 各阶空闲链表表头，-1 表示空链表
+     */
+    private int[] freeListHead;
+    /**
+     * 空闲链表后继，按块起始单元编号索引
+     */
+    private int[] next;
+    /**
+     * 空闲链表前驱，按块起始单元编号索引
+     */
+    private int[] prev;
+    /**
+     * 块的阶数，按块起始单元编号索引，非块起始单元为 -1
+     */
+    private int[] blockOrder;
+    /**
+     * 块是否空闲，按块起始单元编号索引
+     */
+    private boolean[] blockFree;
+    /**
+     * 各阶空闲块数
+     */
+    private int[] freeBlockNum;
+    /**
+     * 空闲单元总数
+     */
+    private int freeUnitNum;
+
+    public BuddyAllocator(String name, int unitNum) {
+        if (unitNum <= 0 || Integer.bitCount(unitNum) != 1) {
+            throw new IllegalArgumentException("伙伴系统管理的单元数必须为 2 的幂：" + unitNum);
+        }
+        this.name = name;
+        this.unitNum = unitNum;
+        this.maxOrder = Integer.numberOfTrailingZeros(unitNum);
+        this.freeListHead = new int[this.maxOrder + 1];
+        this.next = new int[unitNum];
+        this.prev = new int[unitNum];
+        this.blockOrder = new int[unitNum];
+        this.blockFree = new boolean[unitNum];
+        this.freeBlockNum = new int[this.maxOrder + 1];
+        this.init();
+    }
+
+    /**
+     * 初始化，全部单元合并为一个最大空闲块
+     */
+    public synchronized void init() {
+        for (int i = 0; i <= this.maxOrder; ++i) {
+            this.freeListHead[i] = -1;
+            this.freeBlockNum[i] = 0;
+        }
+        for (int i = 0; i < this.unitNum; ++i) {
+            this.next[i] = -1;
+            this.prev[i] = -1;
+            this.blockOrder[i] = -1;
+            this.blockFree[i] = false;
+        }
+        this.freeUnitNum = this.unitNum;
+        this.pushFreeBlock(0, this.maxOrder);
+    }
+
+    /**
+     * 计算容纳指定单元数所需的阶数
+     * @param num 单元数
+     * @return 阶数
+     */
+    public static int getOrder(int num) {
+        return num <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(num - 1);
+    }
+
+    /**
+     * 分配连续单元
+     * @param num 所需单元数，向上取整到 2 的幂
+     * @return 起始单元编号，分配失败则返回 -1
+     */
+    public synchronized int allocate(int num) {
+        int order = getOrder(num);
+        if (order > this.maxOrder) {
+            return -1;
+        }
+        // 查找不小于所需阶数的最小空闲块
+        int currentOrder = order;
+        while (currentOrder <= this.maxOrder && this.freeListHead[currentOrder] == -1) {
+            ++currentOrder;
+        }
+        if (currentOrder > this.maxOrder) {
+            return -1;
+        }
+        int index = this.freeListHead[currentOrder];
+        this.removeFreeBlock(index, currentOrder);
+        // 逐级拆分，后半部分作为伙伴块放回空闲链表
+        while (currentOrder > order) {
+            --currentOrder;
+            this.pushFreeBlock(index + (1 << currentOrder), currentOrder);
+        }
+        this.blockOrder[index] = order;
+        this.blockFree[index] = false;
+        this.freeUnitNum -= 1 << order;
+        return index;
+    }
+
+    /**
+     * 回收块，并与空闲的伙伴块逐级合并
+     * @param index 块起始单元编号
+     * @throws IllegalStateException 块未分配或已回收，说明分配器状态已被破坏
+     */
+    public synchronized void release(int index) {
+        if (index < 0 || index >= this.unitNum || this.blockOrder[index] == -1 || this.blockFree[index]) {
+            throw new IllegalStateException(this.name + " 回收非法块：" + index);
+        }
+        int order = this.blockOrder[index];
+        this.freeUnitNum += 1 << order;
+        this.blockOrder[index] = -1;
+        while (order < this.maxOrder) {
+            int buddy = index ^ (1 << order);
+            // 伙伴块不空闲或阶数不同，则停止合并
+            if (!this.blockFree[buddy] || this.blockOrder[buddy] != order) {
+                break;
+            }
+            this.removeFreeBlock(buddy, order);
+            this.blockOrder[buddy] = -1;
+            index = Math.min(index, buddy);
+            ++order;
+        }
+        this.pushFreeBlock(index, order);
+    }
+
+    /**
+     * 判断能否分配指定单元数
+     * @param num 所需单元数
+     * @return 是否可以分配
+     */
+    public synchronized boolean canAllocate(int num) {
+        int order = getOrder(num);
+        for (int i = order; i <= this.maxOrder; ++i) {
+            if (this.freeListHead[i] != -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取已分配块的单元数
+     * @param index 块起始单元编号
+     * @return 单元数，不是已分配块则返回 0
+     */
+    public synchronized int getBlockSize(int index) {
+        if (this.blockOrder[index] == -1 || this.blockFree[index]) {
+            return 0;
+        }
+        return 1 << this.blockOrder[index];
+    }
+
+    /**
+     * 获取最大空闲块的单元数
+     * @return 单元数
+     */
+    public synchronized int getLargestFreeBlockSize() {
+        for (int i = this.maxOrder; i >= 0; --i) {
+            if (this.freeListHead[i] != -1) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 获取外部碎片率，即不属于最大空闲块的空闲单元占全部空闲单元的比例
+     * @return 碎片率 0-1
+     */
+    public synchronized double getFragmentation() {
+        if (this.freeUnitNum == 0) {
+            return 0;
+        }
+        return 1 - (double) this.getLargestFreeBlockSize() / this.freeUnitNum;
+    }
+
+    /**
+     * 将空闲块加入对应阶的空闲链表头部
+     * @param index 块起始单元编号
+     * @param order 阶数
+     */
+    private void pushFreeBlock(int index, int order) {
+        this.blockOrder[index] = order;
+        this.blockFree[index] = true;
+        this.prev[index] = -1;
+        this.next[index] = this.freeListHead[order];
+        if (this.freeListHead[order] != -1) {
+            this.prev[this.freeListHead[order]] = index;
+        }
+        this.freeListHead[order] = index;
+        ++this.freeBlockNum[order];
+    }
+
+    /**
+     * 将空闲块从对应阶的空闲链表中删除
+     * @param index 块起始单元编号
+     * @param order 阶数
+     */
+    private void removeFreeBlock(int index, int order) {
+        if (this.prev[index] != -1) {
+            this.next[this.prev[index]] = this.next[index];
+        } else {
+            this.freeListHead[order] = this.next[index];
+        }
+        if (this.next[index] != -1) {
+            this.prev[this.next[index]] = this.prev[index];
+        }
+        this.next[index] = -1;
+        this.prev[index] = -1;
+        this.blockFree[index] = false;
+        --this.freeBlockNum[order];
+    }
+
+    /**
+     * 输出碎片信息
+     * @return 信息字符串
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder info = new StringBuilder(this.name + " 空闲单元 " + this.freeUnitNum + "/" + this.unitNum + " 各阶空闲块");
+        for (int i = 0; i <= this.maxOrder; ++i) {
+            info.append(" ").append(1 << i).append(":").append(this.freeBlockNum[i]);
+        }
+        info.append(" 碎片率 ").append(String.format("%.2f", this.getFragmentation()));
+        return info.toString();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getUnitNum() {
+        return unitNum;
+    }
+
+    public int getMaxOrder() {
+        return maxOrder;
+    }
+
+    public int getFreeUnitNum() {
+        return freeUnitNum;
+    }
+
+    public int[] getFreeBlockNum() {
+        return freeBlockNum;
+    }
+}
@@ -1,20 +1,20 @@
 package hardware;
 
-import file.DiskInode;
 import file.UserFileItem;
 import interrupt.*;
+import kernel.CodeSegment;
 import kernel.Instruction;
 import kernel.PCB;
 import kernel.Page;
 import kernel.Schedule;
+import os.BootParameter;
 import os.Manager;
 
-import java.util.Iterator;
-
 /**
  * CPU中央处理器，负责程序运行的相关操作
  *
  * 用以处理中断，执行指令等
+ * 多核时每个核心为一个 CPU 对象，各自拥有寄存器、快表、时间片，以及访问内存用的地址线、数据线
  *
  * @author ZJC
  */
@@ -23,6 +23,22 @@ public class CPU implements InterruptVector {
      * 系统管理器，用以获取系统资源
      */
     private Manager manager;
+    /**
+     * 核心编号
+     */
+    private int coreId;
+    /**
+     * 本核心的内存管理单元，快表只缓存本核心运行进程的页表项
+     */
+    private MMU mmu;
+    /**
+     * 本核心的地址线
+     */
+    private AddressLine addressLine;
+    /**
+     * 本核心的数据线
+     */
+    private DataLine dataLine;
     /**
      * 程序计数器，下一条指令的执行编号
      */
@@ -33,19 +49,32 @@ public class CPU implements InterruptVector {
     private int IR;
     /**
      * 状态寄存器 0用户态  1内核态
+     * 切换不加锁，避免持有调度锁的进程原语与正在执行指令的核心互相等待
      */
-    private int PSW;
+    private volatile int PSW;
     public static final int USER_STATE = 0;
     public static final int KERNEL_STATE = 1;
+    /**
+     * 每个时钟周期执行的指令数，即 CPU 主频
+     */
+    public static final int INSTRUCTIONS_PER_TICK = Math.max(1, BootParameter.getInt("instructionsPerTick", 1));
+    /**
+     * 是否逐条输出指令执行日志，每周期执行多条指令时只按批输出
+     */
+    public static final boolean TRACE_INSTRUCTION = INSTRUCTIONS_PER_TICK == 1;
     /**
      * 当前运行态的PCB指针
      */
-    private PCB runningPCB;
+    private volatile PCB runningPCB;
     /**
      * 允许调度标志，控制调度时机
      * 只有该标志打开后，才可以进行三级调度，否则CPU执行指令和调度操作将会出现混乱
      */
     private volatile boolean canSchedule;
+    /**
+     * 最近一次打开调度的真实时间，单位 ns
+     */
+    private long openScheduleTime;
     /**
      * 当前剩余时间片
      */
@@ -54,18 +83,49 @@ public class CPU implements InterruptVector {
      * 因缺页中断而剩余的时间片
      */
     private int missPageRemainTimeSlice;
+    /**
+     * 当前指令，每次取指时复用该对象译码，避免逐条新建
+     */
+    private Instruction currentInstruction;
+    /**
+     * 已执行指令数
+     */
+    private long executedInstructionNum;
+    /**
+     * 有进程运行的时钟周期数
+     */
+    private long busyTickNum;
+    /**
+     * 本核心的 CPU 周期统计
+     */
+    private CycleCounter cycleCounter;
+    /**
+     * 本核心的 L1 数据缓存，未启用缓存时为 null
+     */
+    private DataCache dataCache;
 
-    public CPU(Manager manager) {
+    public CPU(Manager manager, int coreId) {
         this.manager                    = manager;
+        this.coreId                     = coreId;
+        this.mmu                        = new MMU(manager);
+        this.addressLine                = new AddressLine();
+        this.dataLine                   = new DataLine();
         this.PC                         = 1;
         this.IR                         = 0;
         this.PSW                        = USER_STATE;
         this.runningPCB                 = null;
         this.canSchedule                = false;
+        this.openScheduleTime           = 0;
         this.timeSlice                  = 0;
         this.missPageRemainTimeSlice    = 0;
-
-        this.manager.getDashboard().consoleSuccess("CPU初始化完成");
+        this.currentInstruction         = new Instruction();
+        this.executedInstructionNum     = 0;
+        this.busyTickNum                = 0;
+        this.cycleCounter               = new CycleCounter();
+        this.dataCache                  = DataCache.LEVEL_NUM == 0 ? null : new DataCache("CPU" + coreId + " L1",
+                DataCache.L1_SIZE, DataCache.L1_LINE_SIZE, DataCache.L1_WAYS, DataCache.L1_HIT_CYCLES, manager.getL2Cache());
+
+        this.manager.getDashboard().consoleSuccess("CPU" + coreId + "初始化完成");
     }
 
     /**
@@ -84,8 +144,8 @@ public class CPU implements InterruptVector {
             // 缺页中断处理
             case MISS_PAGE_INTERRUPT: {
                 this.switchToKernelState();
-                // 缺页中断线程启动, index为缺页的逻辑页号
-                new MissPageInterrupt(this.manager, this.runningPCB, index).start();
+                // 缺页中断提交给中断控制器, index为缺页的逻辑页号
+                this.manager.getInterruptController().submit(interruptVector, new MissPageInterrupt(this.manager, this.runningPCB, index));
                 // 设置缺页标志
                 this.runningPCB.setMissPage(true);
                 // 当前进程阻塞
@@ -94,29 +154,14 @@ public class CPU implements InterruptVector {
             }
             // 资源申请中断处理
             case APPLY_RESOURCE_INTERRUPT: {
-                // 申请资源，index为资源种类
-                this.manager.getDeadlock().applyResource(this.runningPCB, index);
-                // 尝试分配资源
-                int allocateResult = this.manager.getDeadlock().tryAllocateResource(this.runningPCB, index);
-                // 如果返回阻塞标志，则阻塞进程
-                if (allocateResult == -1) {
-                    this.manager.getDashboard().consoleError("资源 " + index + " 分配失败，进程 " + this.runningPCB.getId() + " 阻塞");
-                    this.runningPCB.block(this.manager.getSchedule().getResourceBlockQueues()[index]);
-                }
+                // 申请资源，index为资源种类，分配失败时进程阻塞
+                this.manager.getDeadlock().acquireResource(this.runningPCB, index);
                 break;
             }
             // 资源释放中断处理
             case RELEASE_RESOURCE_INTERRUPT: {
-                // 释放资源，index为资源种类
-                this.manager.getDeadlock().releaseResource(this.runningPCB, index);
-                // 尝试重分配资源
-                if (this.manager.getSchedule().getResourceBlockQueues()[index].size() > 0) {
-                    int reallocateResult = this.manager.getDeadlock().tryReallocateResource(this.manager.getSchedule().getResourceBlockQueues()[index].get(0), index);
-                    // 如果返回唤醒标志，则唤醒阻塞队列队首进程
-                    if (reallocateResult == -1) {
-                        this.manager.getSchedule().getResourceBlockQueues()[index].get(0).wakeUp(this.manager.getSchedule().getResourceBlockQueues()[index]);
-                    }
-                }
+                // 释放资源，index为资源种类，并尝试重分配给阻塞队列队首进程
+                this.manager.getDeadlock().returnResource(this.runningPCB, index);
                 break;
             }
             // 输入中断
@@ -124,21 +169,12 @@ public class CPU implements InterruptVector {
                 // index 为页框号
                 PCB tempPCB = this.runningPCB;
                 tempPCB.block(this.manager.getSchedule().getBlockQueue());
-                String filePath = tempPCB.getCodeSegment().getInstruction()[this.IR - 1].getExtra().split(" ")[1];
-                Iterator<UserFileItem> iterator = tempPCB.getUserOpenFileTable().iterator();
-                while (iterator.hasNext()) {
-                    UserFileItem userFileItem = iterator.next();
-                    try {
-                        DiskInode currentInode = this.manager.getFileSystem().getDiskInodeMap().get("" + userFileItem.getFp().getInode().getInodeNo());
-                        DiskInode targetInode = this.manager.getFileSystem().getDiskInodeByPath(filePath);
-                        if (currentInode == targetInode) {
-                            this.switchToKernelState();
-                            new IOInterrupt(this.manager, tempPCB, IOInterrupt.INPUT, index, userFileItem.getFd()).start();
-                            break;
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
+                // 由预解析的文件路径查找已打开文件的句柄
+                String filePath = tempPCB.getCodeSegment().getInstruction()[this.IR - 1].getFilePath();
+                UserFileItem userFileItem = tempPCB.getOpenFileItemByPath(filePath);
+                if (userFileItem != null) {
+                    this.switchToKernelState();
+                    this.manager.getInterruptController().submit(interruptVector, new IOInterrupt(this.manager, tempPCB, IOInterrupt.INPUT, index, userFileItem.getFd()));
                 }
                 break;
             }
@@ -147,27 +183,19 @@ public class CPU implements InterruptVector {
                 // index 为页框号
                 PCB tempPCB = this.runningPCB;
                 tempPCB.block(this.manager.getSchedule().getBlockQueue());
-                String filePath = tempPCB.getCodeSegment().getInstruction()[this.IR - 1].getExtra().split(" ")[1];
-                Iterator<UserFileItem> iterator = tempPCB.getUserOpenFileTable().iterator();
-                while (iterator.hasNext()) {
-                    UserFileItem userFileItem = iterator.next();
-                    try {
-                        if (this.manager.getFileSystem().getDiskInodeMap().get("" + userFileItem.getFp().getInode().getInodeNo())
-                                == this.manager.getFileSystem().getDiskInodeByPath(filePath)) {
-                            this.switchToKernelState();
-                            new IOInterrupt(this.manager, tempPCB, IOInterrupt.OUTPUT, index, userFileItem.getFd()).start();
-                            break;
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
+                // 由预解析的文件路径查找已打开文件的句柄
+                String filePath = tempPCB.getCodeSegment().getInstruction()[this.IR - 1].getFilePath();
+                UserFileItem userFileItem = tempPCB.getOpenFileItemByPath(filePath);
+                if (userFileItem != null) {
+                    this.switchToKernelState();
+                    this.manager.getInterruptController().submit(interruptVector, new IOInterrupt(this.manager, tempPCB, IOInterrupt.OUTPUT, index, userFileItem.getFd()));
                 }
                 break;
             }
             // 作业请求中断
             case JOB_REQUEST_INTERRUPT: {
                 this.switchToKernelState();
-                new JobRequestInterrupt(this.manager).start();
+                this.manager.getInterruptController().submit(interruptVector, new JobRequestInterrupt(this.manager));
                 break;
             }
             // 文件创建中断
@@ -175,7 +203,7 @@ public class CPU implements InterruptVector {
                 this.switchToKernelState();
                 PCB tempPCB = this.runningPCB;
                 tempPCB.block(this.manager.getSchedule().getBlockQueue());
-                new FileOperationInterrupt(this.manager, tempPCB, FileOperationInterrupt.CREATE_FILE).start();
+                this.manager.getInterruptController().submit(interruptVector, new FileOperationInterrupt(this.manager, tempPCB, FileOperationInterrupt.CREATE_FILE));
                 break;
             }
             // 文件关闭中断
@@ -183,7 +211,7 @@ public class CPU implements InterruptVector {
                 this.switchToKernelState();
                 PCB tempPCB = this.runningPCB;
                 tempPCB.block(this.manager.getSchedule().getBlockQueue());
-                new FileOperationInterrupt(this.manager, tempPCB, FileOperationInterrupt.CLOSE_FILE).start();
+                this.manager.getInterruptController().submit(interruptVector, new FileOperationInterrupt(this.manager, tempPCB, FileOperationInterrupt.CLOSE_FILE));
                 break;
             }
 
@@ -198,58 +226,72 @@ public class CPU implements InterruptVector {
      * 执行当前指令
      */
     public synchronized void execute() {
-        // 刷新GUI
-        this.manager.getDashboard().refreshRunningProcess();
         if (this.runningPCB == null) {
             return;
         }
-        // 执行指令需要内存中有代码段数据
-        int codeSegmentPageItemAddress = this.runningPCB.getPageTableBaseAddress() +
-                this.runningPCB.getCodeSegment().getLogicPageStartNo() * InternalMem.PAGE_TABLE_ITEM_SIZE;
-        this.manager.getAddressLine().setAddress((short) codeSegmentPageItemAddress);
-        Page codePage = this.manager.getInMem().readPageItem(this.manager.getAddressLine());
-        if (codePage.getCallFlag() == 0) {
-            // 代码段页面未装入，则执行缺页中断，装入代码页
-            this.manager.getDashboard().consoleLog("代码段数据未装入内存，优先装入代码段");
-            this.interrupt(InterruptVector.MISS_PAGE_INTERRUPT, codePage.getLogicPageNo());
-            return;
-        } else {
-            // 代码段页面已经装入，则看作一次访问内存，并更新快表
+        PCB pcb = this.runningPCB;
+        // 执行指令需要内存中有当前指令所在的代码段页
+        CodeSegment codeSegment = this.runningPCB.getCodeSegment();
+        int codeLogicPageNo = codeSegment.getLogicPageNoOfInstruction(this.PC);
+        int codeFrameNo = codeSegment.getDecodedFrameNo(codeLogicPageNo);
+        if (codeFrameNo == -1) {
+            // 译码缓存无效，则查询代码页页表项
+            int codeSegmentPageItemAddress = this.runningPCB.getPageTableBaseAddress() + codeLogicPageNo * InternalMem.PAGE_TABLE_ITEM_SIZE;
+            this.addressLine.setAddress((short) codeSegmentPageItemAddress);
+            Page codePage = this.manager.getInMem().readPageItem(this.addressLine);
+            this.addCycles(pcb, CycleCounter.PAGE_WALK, CycleCounter.PAGE_WALK_CYCLES);
+            if (codePage.getCallFlag() == 0) {
+                // 代码段页面未装入，则执行缺页中断，装入代码页
+                this.manager.getDashboard().consoleLog("代码段数据未装入内存，优先装入代码段");
+                this.addCycles(pcb, CycleCounter.PAGE_FAULT, CycleCounter.PAGE_FAULT_CYCLES);
+                this.interrupt(InterruptVector.MISS_PAGE_INTERRUPT, codePage.getLogicPageNo());
+                return;
+            }
+            // 代码段页面已经装入，则读取整页并译码，此后直到页框换出前不再重复读取
             this.manager.getInMem().readPage(codePage);
-            this.runningPCB.accessPage(codePage.getLogicPageNo());
-            this.manager.getMmu().updateTLB(codePage.getLogicPageNo(), codePage.getInternalFrameNo());
+            this.addCycles(pcb, CycleCounter.MEMORY_ACCESS, CycleCounter.MEMORY_ACCESS_CYCLES);
+            codeSegment.decodePage(codeLogicPageNo, codePage.getInternalFrameNo(), codePage.getData());
+            codeFrameNo = codePage.getInternalFrameNo();
         }
+        // 取指看作一次访问内存，并更新快表
+        this.runningPCB.accessPage(codeLogicPageNo);
+        if (this.mmu.searchTLB(codeLogicPageNo) < 0) {
+            this.addCycles(pcb, CycleCounter.TLB_MISS, CycleCounter.TLB_MISS_CYCLES);
+        }
+        this.mmu.updateTLB(codeLogicPageNo, codeFrameNo);
 
-        // 指令指针自增并获取当前指令
+        // 指令指针自增，并从译码缓存获取当前指令
         this.IR = this.PC++;
-        Instruction currentInstrction = new Instruction();
-        int id          = ((((int) codePage.getData()[8 * (IR - 1) + 1]) << 8) & 0x0000FF00) | (((int) codePage.getData()[8 * (IR - 1) + 0]) & 0x0000FF);
-        int state       = ((((int) codePage.getData()[8 * (IR - 1) + 3]) << 8) & 0x0000FF00) | (((int) codePage.getData()[8 * (IR - 1) + 2]) & 0x0000FF);
-        int argument    = ((((int) codePage.getData()[8 * (IR - 1) + 5]) << 8) & 0x0000FF00) | (((int) codePage.getData()[8 * (IR - 1) + 4]) & 0x0000FF);
-        currentInstrction.setId(id);
-        currentInstrction.setState(state);
-        currentInstrction.setArgument(argument);
-        currentInstrction.setExtra(this.runningPCB.getCodeSegment().getInstruction()[this.IR - 1].getExtra());
-
-        this.manager.getDashboard().consoleLog("执行进程 " + this.runningPCB.getId() + " :" +
-                " 指令 " + currentInstrction.getId() +
-                " 类型 " + currentInstrction.getState() +
-                " 参数 " + currentInstrction.getArgument() +
-                " 附加数据 " + currentInstrction.getExtra());
+        ++this.executedInstructionNum;
+        Instruction currentInstrction = this.currentInstruction;
+        int[] decodedInstructions = codeSegment.getDecodedInstructions();
+        int index = (this.IR - 1) * CodeSegment.DECODED_FIELD_NUM;
+        currentInstrction.setId(decodedInstructions[index + 0]);
+        currentInstrction.setState(decodedInstructions[index + 1]);
+        currentInstrction.setArgument(decodedInstructions[index + 2]);
+        Instruction sourceInstruction = codeSegment.getInstruction()[this.IR - 1];
+        currentInstrction.setExtra(sourceInstruction.getExtra());
+        this.addCycles(pcb, CycleCounter.EXECUTE, CycleCounter.getInstructionCycles(currentInstrction.getState()));
+
+        if (TRACE_INSTRUCTION) {
+            this.manager.getDashboard().consoleLog("CPU" + this.coreId + " 执行进程 " + this.runningPCB.getId() + " :" +
+                    " 指令 " + currentInstrction.getId() +
+                    " 类型 " + currentInstrction.getState() +
+                    " 参数 " + currentInstrction.getArgument() +
+                    " 附加数据 " + currentInstrction.getExtra());
+        }
         switch (currentInstrction.getState()) {
             // 0 system     系统调用，本系统中仿真为输入、输出、创建文件操作
             case 0: {
                 int type = currentInstrction.getArgument();
-                String extra = currentInstrction.getExtra();
                 if (type == 0) {
                     // 创建文件
                     this.interrupt(InterruptVector.CREATE_FILE_INTERRUPT, 0);
                 } else if (type == 1) {
                     // 输入操作
                     try {
-                        int logicAddress = (this.runningPCB.getDataSegment().getLogicPageStartNo() + Integer.parseInt(extra.split(" ")[0])) * InternalMem.PAGE_SIZE;
-                        String filePath = extra.split(" ")[1];
-                        short physicAddress = this.manager.getMmu().resolveLogicAddress((short) logicAddress, this.runningPCB.getPageTableBaseAddress());
+                        int logicAddress = (this.runningPCB.getDataSegment().getLogicPageStartNo() + sourceInstruction.getDataPageIndex()) * InternalMem.PAGE_SIZE;
+                        short physicAddress = this.resolveLogicAddress(pcb, (short) logicAddress);
                         if (physicAddress == -1) {
                             // 出现缺页，则PC、IR回退一步
                             --this.IR;
@@ -260,7 +302,9 @@ public class CPU implements InterruptVector {
                             this.interrupt(InterruptVector.MISS_PAGE_INTERRUPT, logicAddress / InternalMem.PAGE_SIZE);
                         } else {
                             this.runningPCB.accessPage(logicAddress / InternalMem.PAGE_SIZE);
-                            this.interrupt(InterruptVector.INPUT_INTERRUPT, physicAddress / InternalMem.PAGE_SIZE);
+                            // 设备直接访问内存页框，不经过数据缓存
+                            this.addCycles(pcb, CycleCounter.MEMORY_ACCESS, CycleCounter.MEMORY_ACCESS_CYCLES);
+                            this.interrupt(InterruptVector.INPUT_INTERRUPT, (physicAddress & 0xFFFF) / InternalMem.PAGE_SIZE);
                         }
                     } catch (Exception e) {
                         e.printStackTrace();
@@ -268,9 +312,8 @@ public class CPU implements InterruptVector {
 
                 } else if (type == 2) {
                     // 输出操作
-                    int logicAddress = (this.runningPCB.getDataSegment().getLogicPageStartNo() + Integer.parseInt(extra.split(" ")[0])) * InternalMem.PAGE_SIZE;
-                    String filePath = extra.split(" ")[1];
-                    short physicAddress = this.manager.getMmu().resolveLogicAddress((short) logicAddress, this.runningPCB.getPageTableBaseAddress());
+                    int logicAddress = (this.runningPCB.getDataSegment().getLogicPageStartNo() + sourceInstruction.getDataPageIndex()) * InternalMem.PAGE_SIZE;
+                    short physicAddress = this.resolveLogicAddress(pcb, (short) logicAddress);
                     if (physicAddress == -1) {
                         // 出现缺页，则PC、IR回退一步
                         --this.IR;
@@ -281,7 +324,9 @@ public class CPU implements InterruptVector {
                         this.interrupt(InterruptVector.MISS_PAGE_INTERRUPT, logicAddress / InternalMem.PAGE_SIZE);
                     } else {
                         this.runningPCB.accessPage(logicAddress / InternalMem.PAGE_SIZE);
-                        this.interrupt(InterruptVector.OUTPUT_INTERRUPT, physicAddress / InternalMem.PAGE_SIZE);
+                        // 设备直接访问内存页框，不经过数据缓存
+                        this.addCycles(pcb, CycleCounter.MEMORY_ACCESS, CycleCounter.MEMORY_ACCESS_CYCLES);
+                        this.interrupt(InterruptVector.OUTPUT_INTERRUPT, (physicAddress & 0xFFFF) / InternalMem.PAGE_SIZE);
                     }
                 } else if (type == 3) {
                     // 关闭文件
@@ -292,13 +337,15 @@ public class CPU implements InterruptVector {
             // 1 calculate  计算指令，CPU不需要调用任何额外资源，可直接运行
             case 1: {
                 // CPU内部进行计算操作，不做任何处理
-                this.manager.getDashboard().consoleLog("计算指令");
+                if (TRACE_INSTRUCTION) {
+                    this.manager.getDashboard().consoleLog("计算指令");
+                }
                 break;
             }
             // 2 load       读取指令，对内存数据进行读取
             case 2: {
                 // 解析逻辑地址，返回 -1，则表示缺页
-                short physicAddress = this.manager.getMmu().resolveLogicAddress((short)currentInstrction.getArgument(), this.runningPCB.getPageTableBaseAddress());
+                short physicAddress = this.resolveLogicAddress(pcb, (short) currentInstrction.getArgument());
                 if (physicAddress == -1) {
                     // 出现缺页，则PC、IR回退一步
                     --this.IR;
@@ -308,18 +355,21 @@ public class CPU implements InterruptVector {
                     // 发出缺页中断请求
                     this.interrupt(InterruptVector.MISS_PAGE_INTERRUPT, currentInstrction.getArgument() / InternalMem.PAGE_SIZE);
                 } else {
-                    this.manager.getAddressLine().setAddress(physicAddress);
+                    this.accessData(pcb, physicAddress, false);
+                    this.addressLine.setAddress(physicAddress);
 
-                    short loadData = this.manager.getInMem().readData(this.manager.getAddressLine());
+                    short loadData = this.manager.getInMem().readData(this.addressLine);
                     this.runningPCB.accessPage(currentInstrction.getArgument() / InternalMem.PAGE_SIZE);
-                    this.manager.getDashboard().consoleLog("从内存地址" + physicAddress + " 读取数据 " + loadData);
+                    if (TRACE_INSTRUCTION) {
+                        this.manager.getDashboard().consoleLog("从内存地址" + (physicAddress & 0xFFFF) + " 读取数据 " + loadData);
+                    }
                 }
                 break;
             }
             // 3 store      写入指令，对内存数据进行写入
             case 3: {
                 // 解析逻辑地址，返回 -1，则表示缺页
-                short physicAddress = this.manager.getMmu().resolveLogicAddress((short)currentInstrction.getArgument(), this.runningPCB.getPageTableBaseAddress());
+                short physicAddress = this.resolveLogicAddress(pcb, (short) currentInstrction.getArgument());
                 if (physicAddress == -1) {
                     // 出现缺页，则PC、IR回退一步
                     --this.IR;
@@ -329,21 +379,28 @@ public class CPU implements InterruptVector {
                     // 发出缺页中断请求
                     this.interrupt(InterruptVector.MISS_PAGE_INTERRUPT, currentInstrction.getArgument() / InternalMem.PAGE_SIZE);
                 } else {
-                    this.manager.getAddressLine().setAddress(physicAddress);
-                    this.manager.getDataLine().setData((short)0x6666);
-
-                    this.manager.getInMem().writeData(this.manager.getAddressLine(), this.manager.getDataLine());
-                    this.runningPCB.accessPage(currentInstrction.getArgument() / InternalMem.PAGE_SIZE);
-                    // 设置页表项修改位为1
-                    int pageItemAddress = this.runningPCB.getPageTableBaseAddress() +
-                            currentInstrction.getArgument() / InternalMem.PAGE_SIZE * InternalMem.PAGE_TABLE_ITEM_SIZE;
-
-                    this.manager.getAddressLine().setAddress((short) pageItemAddress);
-                    Page page = this.manager.getInMem().readPageItem(this.manager.getAddressLine());
-                    page.setModifyFlag(1);
-                    this.manager.getAddressLine().setAddress((short) pageItemAddress);
-                    this.manager.getInMem().writePageItem(this.manager.getAddressLine(), page);
-                    this.manager.getDashboard().consoleLog("向内存地址" + physicAddress + " 写入数据 " + 0x6666);
+                    this.accessData(pcb, physicAddress, true);
+                    this.addressLine.setAddress(physicAddress);
+                    this.dataLine.setData((short)0x6666);
+
+                    this.manager.getInMem().writeData(this.addressLine, this.dataLine);
+                    int logicPageNo = currentInstrction.getArgument() / InternalMem.PAGE_SIZE;
+                    this.runningPCB.accessPage(logicPageNo);
+                    // 设置快表项脏位，页表项修改位延迟到快表项换出、进程切换时写回
+                    if (!this.mmu.markDirty(logicPageNo)) {
+                        // 没有对应快表项，则直接设置页表项修改位为1，大页设置在首页表项
+                        Page page = this.manager.getInMem().readHeadPageItem(this.runningPCB.getPageTableBaseAddress(), logicPageNo);
+                        int pageItemAddress = this.runningPCB.getPageTableBaseAddress() +
+                                page.getLogicPageNo() * InternalMem.PAGE_TABLE_ITEM_SIZE;
+                        page.setModifyFlag(1);
+                        this.addressLine.setAddress((short) pageItemAddress);
+                        this.manager.getInMem().writePageItem(this.addressLine, page);
+                    }
+                    // 写入代码页时，该页译码缓存失效
+                    this.runningPCB.getCodeSegment().invalidateDecodedPage(logicPageNo);
+                    if (TRACE_INSTRUCTION) {
+                        this.manager.getDashboard().consoleLog("向内存地址" + (physicAddress & 0xFFFF) + " 写入数据 " + 0x6666);
+                    }
                 }
                 break;
             }
@@ -351,14 +408,18 @@ public class CPU implements InterruptVector {
             case 4: {
                 // 时间片置1，执行指令后时间片统一 -1，完成进程强制切换
                 this.timeSlice = 1;
-                this.manager.getDashboard().consoleLog("切换指令");
+                if (TRACE_INSTRUCTION) {
+                    this.manager.getDashboard().consoleLog("切换指令");
+                }
                 break;
             }
             // 5 jump       跳转指令，跳过代码段执行
             case 5: {
                 // 设置PC指向跳转地址
                 this.PC = currentInstrction.getArgument();
-                this.manager.getDashboard().consoleLog("跳转指令");
+                if (TRACE_INSTRUCTION) {
+                    this.manager.getDashboard().consoleLog("跳转指令");
+                }
                 break;
             }
             // 6 apply      资源申请，申请一个系统资源
@@ -380,6 +441,58 @@ public class CPU implements InterruptVector {
 
         // 时间片 -1
         --this.timeSlice;
+        // 发生缺页的指令将在缺页处理后重新执行，不计入完成指令
+        if (!pcb.isMissPage()) {
+            this.cycleCounter.addInstruction();
+            pcb.getCycleCounter().addInstruction();
+        }
+    }
+
+    /**
+     * 解析逻辑地址，并累计快表未命中、页表遍历、访存或缺页的周期
+     * @param pcb 当前进程
+     * @param logicAddress 逻辑地址
+     * @return 内存物理地址，缺页返回 -1
+     */
+    private short resolveLogicAddress(PCB pcb, short logicAddress) {
+        int TLBMissNum = this.mmu.getTLBMissNum();
+        short physicAddress = this.mmu.resolveLogicAddress(logicAddress, pcb.getPageTableBaseAddress());
+        if (this.mmu.getTLBMissNum() != TLBMissNum) {
+            this.addCycles(pcb, CycleCounter.TLB_MISS, CycleCounter.TLB_MISS_CYCLES);
+            this.addCycles(pcb, CycleCounter.PAGE_WALK, CycleCounter.PAGE_WALK_CYCLES);
+        }
+        if (physicAddress == -1) {
+            this.addCycles(pcb, CycleCounter.PAGE_FAULT, CycleCounter.PAGE_FAULT_CYCLES);
+        }
+        return physicAddress;
+    }
+
+    /**
+     * 经数据缓存访问一个物理地址，并累计访存周期
+     * @param pcb 当前进程
+     * @param physicAddress 物理地址
+     * @param write 是否为写操作
+     */
+    private void accessData(PCB pcb, short physicAddress, boolean write) {
+        if (this.dataCache == null) {
+            this.addCycles(pcb, CycleCounter.MEMORY_ACCESS, CycleCounter.MEMORY_ACCESS_CYCLES);
+            return;
+        }
+        int level = this.dataCache.access(physicAddress & 0xFFFF, write);
+        this.addCycles(pcb, CycleCounter.MEMORY_ACCESS, this.dataCache.getAccessCycles(level));
+        this.cycleCounter.addDataAccess(level);
+        pcb.getCycleCounter().addDataAccess(level);
+    }
+
+    /**
+     * 累计周期到本核心和当前进程
+     * @param pcb 当前进程
+     * @param category 周期类别
+     * @param cycleNum 周期数
+     */
+    private void addCycles(PCB pcb, int category, int cycleNum) {
+        this.cycleCounter.addCycles(category, cycleNum);
+        pcb.getCycleCounter().addCycles(category, cycleNum);
     }
 
     /**
@@ -389,11 +502,11 @@ public class CPU implements InterruptVector {
     public synchronized void recoverSpot(PCB pcb) {
         this.PC         = pcb.getPC();
         this.IR         = pcb.getIR();
-        this.timeSlice  = Schedule.SYSTEM_TIME_SLICE;
+        this.timeSlice  = this.manager.getSchedule().getTimeSlice(pcb) * INSTRUCTIONS_PER_TICK;
         // 进程设置运行态
         this.runningPCB = pcb;
         // 初始化快表
-        this.manager.getMmu().initTLB();
+        this.mmu.initTLB(pcb.getPageTableBaseAddress());
         // 如果因为缺页中断而恢复CPU现场，则使用之前的时间片
         if (this.missPageRemainTimeSlice != 0) {
             this.timeSlice = this.missPageRemainTimeSlice;
@@ -409,6 +522,8 @@ public class CPU implements InterruptVector {
     public synchronized void protectSpot() {
         this.runningPCB.setIR((short)this.IR);
         this.runningPCB.setPC((short)this.PC);
+        // 快表项脏位写回页表
+        this.mmu.writeBackDirty();
         // 进程解除运行态
         this.runningPCB = null;
         // 更新GUI
@@ -420,6 +535,20 @@ public class CPU implements InterruptVector {
      */
     public synchronized void openSchedule() {
         this.canSchedule = true;
+        this.openScheduleTime = System.nanoTime();
+        this.notifyAll();
+    }
+
+    /**
+     * 等待调度时机，由时钟中断打开调度时唤醒
+     * @return 从打开调度到调度线程被唤醒的延迟，单位 ns
+     * @throws InterruptedException 等待被中断
+     */
+    public synchronized long awaitSchedule() throws InterruptedException {
+        while (!this.canSchedule) {
+            this.wait();
+        }
+        return System.nanoTime() - this.openScheduleTime;
     }
 
     /**
@@ -432,24 +561,24 @@ public class CPU implements InterruptVector {
     /**
      * 切换内核态
      */
-    public synchronized void switchToKernelState() {
+    public void switchToKernelState() {
         if (this.PSW == KERNEL_STATE) {
             return;
         }
         this.PSW = KERNEL_STATE;
-        this.manager.getDashboard().consoleLog("CPU -> 内核态");
+        this.manager.getDashboard().consoleLog("CPU" + this.coreId + " -> 内核态");
         this.manager.getDashboard().refreshCPU();
     }
 
     /**
      * 切换用户态
      */
-    public synchronized void switchToUserState() {
+    public void switchToUserState() {
         if (this.PSW == USER_STATE) {
             return;
         }
         this.PSW = USER_STATE;
-        this.manager.getDashboard().consoleLog("CPU -> 用户态");
+        this.manager.getDashboard().consoleLog("CPU" + this.coreId + " -> 用户态");
         this.manager.getDashboard().refreshCPU();
     }
 
@@ -461,6 +590,45 @@ public class CPU implements InterruptVector {
         this.manager = manager;
     }
 
+    public int getCoreId() {
+        return coreId;
+    }
+
+    public MMU getMmu() {
+        return mmu;
+    }
+
+    public AddressLine getAddressLine() {
+        return addressLine;
+    }
+
+    public DataLine getDataLine() {
+        return dataLine;
+    }
+
+    public synchronized long getExecutedInstructionNum() {
+        return executedInstructionNum;
+    }
+
+    /**
+     * 记录一个有进程运行的时钟周期
+     */
+    public synchronized void addBusyTick() {
+        ++this.busyTickNum;
+    }
+
+    public synchronized long getBusyTickNum() {
+        return busyTickNum;
+    }
+
+    public CycleCounter getCycleCounter() {
+        return cycleCounter;
+    }
+
+    public DataCache getDataCache() {
+        return dataCache;
+    }
+
     public int getPC() {
         return PC;
     }
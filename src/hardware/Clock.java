@@ -1,27 +1,44 @@
 package hardware;
 
 import interrupt.HardwareInterrupt;
+import os.BootParameter;
 import os.Manager;
 
-import java.util.Timer;
+import java.util.PriorityQueue;
 
 /**
  * 时钟类，用于系统时钟
  *
- * 继承计时器类 {@link Timer} 用于间隔固定时间循环进行操作
- * 产生硬件中断（时钟中断）{@link interrupt.HardwareInterrupt} 操作完成后时钟累加
+ * 系统以离散事件方式推进虚拟时间：时钟中断、IO完成、缺页完成、作业到达等均为带时间戳的事件 {@link ClockEvent}
+ * 存放于优先队列中，按时间顺序取出执行，执行事件时虚拟时间跳到该事件的发生时间
+ *
+ * 时钟线程每次推进到下一个时钟中断 {@link interrupt.HardwareInterrupt}，等待系统处理完当前时钟周期后
+ * 按运行速度等待 INTERVAL / speed 的真实时间再进入下一周期，最高速度下不进行任何等待
+ * 没有可运行进程时，直接跳到下一个待处理事件（作业到达、IO完成等）所在的时钟周期
  *
  * @author ZJC
  */
-public class Clock extends Timer {
+public class Clock extends Thread {
     /**
      * 系统管理器，用以获取系统资源
      */
     private Manager manager;
     /**
-     * 系统时间间隔，单位 ms
+     * 系统时间间隔，单位 ms，即 1 倍速下每个时钟周期的真实时间
      */
     public static final int INTERVAL = 1000;
+    /**
+     * 最低运行速度
+     */
+    public static final double MIN_SPEED = 0.1;
+    /**
+     * 有限的最高运行速度
+     */
+    public static final double MAX_FINITE_SPEED = 1000;
+    /**
+     * 最高速度，时钟周期之间不等待
+     */
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
     /**
      * 当前系统时间
      */
@@ -30,28 +47,240 @@ public class Clock extends Timer {
      * 暂停标志
      */
     private volatile boolean pause;
+    /**
+     * 运行速度，相对于每周期 INTERVAL 的倍数
+     */
+    private volatile double speed;
+    /**
+     * 时钟中断处理例程
+     */
+    private HardwareInterrupt hardwareInterrupt;
+    /**
+     * 事件队列，按发生时间排序
+     */
+    private PriorityQueue<ClockEvent> eventQueue;
+    /**
+     * 事件提交计数，作为事件的提交序号
+     */
+    private long eventSequence;
+    /**
+     * 已处理事件数
+     */
+    private long firedEventNum;
+    /**
+     * 空闲时跳过的时钟周期数
+     */
+    private long skippedTickNum;
+    /**
+     * 正在进行、尚未提交完成事件的中断处理数
+     */
+    private int pendingWorkNum;
+    /**
+     * 当前时钟周期的调度是否已经完成
+     */
+    private boolean tickFinished;
 
     public Clock(Manager manager) {
         super("Clock");
         this.manager = manager;
         this.currentTime = -1;
         this.pause = true;
+        this.speed = parseSpeed(BootParameter.getString("speed", BootParameter.getBoolean("fastMode", false) ? "max" : "1"));
+        this.hardwareInterrupt = new HardwareInterrupt(manager);
+        this.eventQueue = new PriorityQueue<>();
+        this.eventSequence = 0;
+        this.firedEventNum = 0;
+        this.skippedTickNum = 0;
+        this.pendingWorkNum = 0;
+        this.tickFinished = true;
+        // 第一个时钟中断发生在 0 时刻
+        this.postEvent(0, ClockEvent.CLOCK_TICK, this.hardwareInterrupt::handleClockInterrupt);
+
+        this.manager.getDashboard().consoleSuccess("时钟模块初始化完成，运行速度 " + getSpeedText(this.speed));
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                this.awaitRunning();
+                long tickStartTime = System.currentTimeMillis();
+                // 推进到下一个时钟中断，并等待本周期处理完成
+                this.runUntilTick();
+                this.awaitQuiescence();
+                // 没有可运行进程，则跳过空闲的时钟周期
+                if (this.manager.getSchedule().isIdle()) {
+                    int skipTickNum = this.skipIdleTicks();
+                    if (skipTickNum > 0) {
+                        this.manager.getDashboard().consoleLog("CPU空闲，时钟跳过 " + skipTickNum + " 个周期");
+                    }
+                }
+                this.awaitNextTick(tickStartTime);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 提交事件
+     *
+     * 发生时间不晚于当前时间的事件立即在调用线程中执行
+     * @param time 发生的虚拟时间
+     * @param type 事件类型
+     * @param handler 事件处理例程
+     */
+    public void postEvent(int time, int type, Runnable handler) {
+        synchronized (this) {
+            if (time > this.currentTime) {
+                this.eventQueue.add(new ClockEvent(time, type, this.eventSequence++, handler));
+                return;
+            }
+        }
+        handler.run();
+    }
 
-        this.manager.getDashboard().consoleSuccess("时钟模块初始化完成");
+    /**
+     * 按时间顺序处理事件，直到处理完下一个时钟中断
+     */
+    public void runUntilTick() {
+        while (true) {
+            ClockEvent event;
+            synchronized (this) {
+                event = this.eventQueue.poll();
+                if (event == null) {
+                    return;
+                }
+                // 虚拟时间跳到事件发生时间
+                this.currentTime = Math.max(this.currentTime, event.getTime());
+                ++this.firedEventNum;
+                if (event.getType() == ClockEvent.CLOCK_TICK) {
+                    this.tickFinished = false;
+                    // 提交下一个时钟中断
+                    this.eventQueue.add(new ClockEvent(event.getTime() + 1, ClockEvent.CLOCK_TICK, this.eventSequence++, event.getHandler()));
+                }
+            }
+            event.fire();
+            if (event.getType() == ClockEvent.CLOCK_TICK) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 跳过空闲的时钟周期，将下一个时钟中断推迟到最早的待处理事件所在周期
+     *
+     * 周期性的死锁检测事件不作为唤醒条件，途经的检测事件仍按顺序处理
+     * @return 跳过的周期数，没有待处理事件则不跳过
+     */
+    public synchronized int skipIdleTicks() {
+        ClockEvent tickEvent = null;
+        int wakeUpTime = Integer.MAX_VALUE;
+        for (ClockEvent event : this.eventQueue) {
+            if (event.getType() == ClockEvent.CLOCK_TICK) {
+                tickEvent = event;
+            } else if (event.getType() != ClockEvent.DEADLOCK_DETECT) {
+                wakeUpTime = Math.min(wakeUpTime, event.getTime());
+            }
+        }
+        if (tickEvent == null || wakeUpTime == Integer.MAX_VALUE || wakeUpTime <= tickEvent.getTime()) {
+            return 0;
+        }
+        this.eventQueue.remove(tickEvent);
+        this.eventQueue.add(new ClockEvent(wakeUpTime, ClockEvent.CLOCK_TICK, this.eventSequence++, tickEvent.getHandler()));
+        this.skippedTickNum += wakeUpTime - tickEvent.getTime();
+        return wakeUpTime - tickEvent.getTime();
     }
 
     /**
-     * 时间增加
+     * 开始一项中断处理，时钟在其提交完成事件前不会推进
      */
-    public void addTime() {
-        ++this.currentTime;
+    public synchronized void beginWork() {
+        ++this.pendingWorkNum;
     }
 
     /**
-     * 开始执行，并设置时钟中断
+     * 结束一项中断处理
      */
-    public void start() {
-        this.schedule(new HardwareInterrupt(this.manager), 0, INTERVAL);
+    public synchronized void endWork() {
+        --this.pendingWorkNum;
+        this.notifyAll();
+    }
+
+    /**
+     * 当前时钟周期的调度完成
+     */
+    public synchronized void finishTick() {
+        this.tickFinished = true;
+        this.notifyAll();
+    }
+
+    /**
+     * 等待当前时钟周期的调度和全部中断处理完成
+     * @throws InterruptedException 等待被中断
+     */
+    public synchronized void awaitQuiescence() throws InterruptedException {
+        while (!this.tickFinished || this.pendingWorkNum > 0) {
+            this.wait();
+        }
+    }
+
+    /**
+     * 等待时钟解除暂停
+     * @throws InterruptedException 等待被中断
+     */
+    public synchronized void awaitRunning() throws InterruptedException {
+        while (this.pause) {
+            this.wait();
+        }
+    }
+
+    /**
+     * 按运行速度等待到下一个时钟周期，期间调整速度或暂停立即生效
+     * @param tickStartTime 本周期开始的真实时间
+     * @throws InterruptedException 等待被中断
+     */
+    private synchronized void awaitNextTick(long tickStartTime) throws InterruptedException {
+        while (!this.pause && this.speed != MAX_SPEED) {
+            long remainTime = tickStartTime + (long) (INTERVAL / this.speed) - System.currentTimeMillis();
+            if (remainTime <= 0) {
+                return;
+            }
+            this.wait(remainTime);
+        }
+    }
+
+    /**
+     * 解析运行速度
+     * @param text 速度倍数，可带 × 前缀，或 max 表示最高速度
+     * @return 运行速度
+     */
+    public static double parseSpeed(String text) {
+        text = text.trim();
+        if (text.startsWith("×")) {
+            text = text.substring(1);
+        }
+        if (text.equalsIgnoreCase("max")) {
+            return MAX_SPEED;
+        }
+        try {
+            return Math.min(MAX_FINITE_SPEED, Math.max(MIN_SPEED, Double.parseDouble(text)));
+        } catch (NumberFormatException e) {
+            System.err.println("运行速度格式错误：" + text + "，使用 1 倍速");
+            return 1;
+        }
+    }
+
+    /**
+     * 获取运行速度的显示文本
+     * @param speed 运行速度
+     * @return 显示文本
+     */
+    public static String getSpeedText(double speed) {
+        if (speed == MAX_SPEED) {
+            return "max";
+        }
+        return "×" + (speed == Math.floor(speed) ? String.valueOf((long) speed) : String.valueOf(speed));
     }
 
     public int getCurrentTime() {
@@ -66,7 +295,33 @@ public class Clock extends Timer {
         return pause;
     }
 
-    public void setPause(boolean pause) {
+    public synchronized void setPause(boolean pause) {
         this.pause = pause;
+        this.notifyAll();
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * 设置运行速度，运行期间可随时调整
+     * @param speed 速度倍数，限制在 MIN_SPEED 到 MAX_FINITE_SPEED 之间，或 MAX_SPEED
+     */
+    public synchronized void setSpeed(double speed) {
+        this.speed = speed == MAX_SPEED ? MAX_SPEED : Math.min(MAX_FINITE_SPEED, Math.max(MIN_SPEED, speed));
+        this.notifyAll();
+    }
+
+    public synchronized long getSkippedTickNum() {
+        return skippedTickNum;
+    }
+
+    public synchronized int getEventNum() {
+        return eventQueue.size();
+    }
+
+    public synchronized long getFiredEventNum() {
+        return firedEventNum;
     }
 }
@@ -0,0 +1,78 @@
+package hardware;
+
+/**
+ * 时钟事件，离散事件仿真中的一个定时事件
+ *
+ * 事件按 发生时间、事件类型、提交顺序 排序，同一时刻先处理各类完成事件，最后处理时钟中断
+ * 由时钟类 {@link Clock} 统一调度，在虚拟时间到达时执行
+ *
+ * @author ZJC
+ */
+public class ClockEvent implements Comparable<ClockEvent> {
+    // 事件类型常量，数值越小同一时刻越先处理
+    public static final int IO_FINISH = 0;
+    public static final int MISS_PAGE_FINISH = 1;
+    public static final int RESUME_FINISH = 2;
+    public static final int FILE_OPERATION_FINISH = 3;
+    public static final int JOB_ARRIVAL = 4;
+    public static final int DEADLOCK_DETECT = 5;
+    public static final int CLOCK_TICK = 6;
+
+    /**
+     * 事件发生的虚拟时间
+     */
+    private int time;
+    /**
+     * 事件类型
+     */
+    private int type;
+    /**
+     * 提交序号，保证同一时刻同类事件按提交顺序处理
+     */
+    private long sequence;
+    /**
+     * 事件处理例程
+     */
+    private Runnable handler;
+
+    public ClockEvent(int time, int type, long sequence, Runnable handler) {
+        this.time = time;
+        this.type = type;
+        this.sequence = sequence;
+        this.handler = handler;
+    }
+
+    /**
+     * 执行事件处理例程
+     */
+    public void fire() {
+        this.handler.run();
+    }
+
+    @Override
+    public int compareTo(ClockEvent other) {
+        if (this.time != other.time) {
+            return Integer.compare(this.time, other.time);
+        }
+        if (this.type != other.type) {
+            return Integer.compare(this.type, other.type);
+        }
+        return Long.compare(this.sequence, other.sequence);
+    }
+
+    public int getTime() {
+        return time;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Runnable getHandler() {
+        return handler;
+    }
+}
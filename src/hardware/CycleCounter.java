@@ -0,0 +1,204 @@
+package hardware;
+
+/**
+ * 周期计数器，按指令类型和访存事件统计 CPU 周期
+ *
+ * 每条指令按类型计基本周期，快表未命中、页表遍历、访存、缺页另计惩罚周期
+ * 每个核心、每个进程各有一个计数器，用于计算 CPI、各类周期占比和数据缓存命中率
+ *
+ * @author ZJC
+ */
+public class CycleCounter {
+    // 周期类别
+    public static final int EXECUTE = 0;
+    public static final int TLB_MISS = 1;
+    public static final int PAGE_WALK = 2;
+    public static final int MEMORY_ACCESS = 3;
+    public static final int PAGE_FAULT = 4;
+    public static final int CATEGORY_NUM = 5;
+    public static final String[] CATEGORY_NAMES = new String[]{"执行", "快表未命中", "页表遍历", "访存", "缺页"};
+
+    /**
+     * 各类型指令的基本周期数，下标为指令类型
+     */
+    public static final int[] INSTRUCTION_CYCLES = new int[]{
+            20,     // 0 system 系统调用，陷入内核
+            1,      // 1 calculate
+            1,      // 2 load
+            1,      // 3 store
+            5,      // 4 switch
+            2,      // 5 jump
+            10,     // 6 apply
+            10,     // 7 release
+    };
+    /**
+     * 快表未命中的惩罚周期数
+     */
+    public static final int TLB_MISS_CYCLES = 2;
+    /**
+     * 读取一次页表项的周期数
+     */
+    public static final int PAGE_WALK_CYCLES = 10;
+    /**
+     * 一次内存访问的周期数，启用数据缓存时只有缓存未命中的访问需要访问内存
+     */
+    public static final int MEMORY_ACCESS_CYCLES = 10;
+    /**
+     * 缺页陷入的周期数，不含换页的外存读写时间
+     */
+    public static final int PAGE_FAULT_CYCLES = 100;
+
+    /**
+     * 各类别周期数
+     */
+    private long[] cycles;
+    /**
+     * 完成的指令数
+     */
+    private long instructionNum;
+    /**
+     * 各层级提供数据的访存次数，下标 0 为 L1，等于缓存级数时为内存
+     */
+    private long[] dataAccessNum;
+
+    public CycleCounter() {
+        this.cycles = new long[CATEGORY_NUM];
+        this.instructionNum = 0;
+        this.dataAccessNum = new long[DataCache.LEVEL_NUM + 1];
+    }
+
+    /**
+     * 获取指令的基本周期数
+     * @param state 指令类型
+     * @return 基本周期数，未知类型按 1 个周期计
+     */
+    public static int getInstructionCycles(int state) {
+        return state >= 0 && state < INSTRUCTION_CYCLES.length ? INSTRUCTION_CYCLES[state] : 1;
+    }
+
+    /**
+     * 累加周期
+     * @param category 周期类别
+     * @param cycleNum 周期数
+     */
+    public synchronized void addCycles(int category, int cycleNum) {
+        this.cycles[category] += cycleNum;
+    }
+
+    /**
+     * 记录一条完成的指令
+     */
+    public synchronized void addInstruction() {
+        ++this.instructionNum;
+    }
+
+    /**
+     * 记录一次经过数据缓存的访存
+     * @param level 提供数据的层级
+     */
+    public synchronized void addDataAccess(int level) {
+        ++this.dataAccessNum[level];
+    }
+
+    /**
+     * 获取某级缓存的命中率，即该级命中次数占到达该级的访存次数的比例
+     * @param level 缓存层级，0 为 L1
+     * @return 命中率，没有到达该级的访存时返回 0
+     */
+    public synchronized double getCacheHitRate(int level) {
+        long reachNum = 0;
+        for (int i = level; i < this.dataAccessNum.length; ++i) {
+            reachNum += this.dataAccessNum[i];
+        }
+        return reachNum == 0 ? 0 : (double) this.dataAccessNum[level] / reachNum;
+    }
+
+    /**
+     * 输出各级缓存命中率
+     * @return 信息字符串，未启用缓存时为空串
+     */
+    public synchronized String getCacheHitInfo() {
+        StringBuilder info = new StringBuilder();
+        for (int i = 0; i < DataCache.LEVEL_NUM; ++i) {
+            if (i > 0) {
+                info.append(" ");
+            }
+            info.append("L").append(i + 1).append("命中率 ").append(String.format("%.1f%%", this.getCacheHitRate(i) * 100));
+        }
+        return info.toString();
+    }
+
+    /**
+     * 累加另一计数器的全部统计
+     * @param other 计数器
+     */
+    public synchronized void merge(CycleCounter other) {
+        synchronized (other) {
+            for (int i = 0; i < CATEGORY_NUM; ++i) {
+                this.cycles[i] += other.cycles[i];
+            }
+            this.instructionNum += other.instructionNum;
+            for (int i = 0; i < this.dataAccessNum.length; ++i) {
+                this.dataAccessNum[i] += other.dataAccessNum[i];
+            }
+        }
+    }
+
+    /**
+     * 获取总周期数
+     * @return 总周期数
+     */
+    public synchronized long getTotalCycles() {
+        long totalCycles = 0;
+        for (int i = 0; i < CATEGORY_NUM; ++i) {
+            totalCycles += this.cycles[i];
+        }
+        return totalCycles;
+    }
+
+    /**
+     * 获取每条指令的平均周期数
+     * @return CPI，没有完成的指令时返回 0
+     */
+    public synchronized double getCPI() {
+        return this.instructionNum == 0 ? 0 : (double) this.getTotalCycles() / this.instructionNum;
+    }
+
+    /**
+     * 输出各类别周期数及占比
+     * @return 信息字符串
+     */
+    public synchronized String getBreakdown() {
+        long totalCycles = Math.max(1, this.getTotalCycles());
+        StringBuilder breakdown = new StringBuilder();
+        for (int i = 0; i < CATEGORY_NUM; ++i) {
+            if (i > 0) {
+                breakdown.append(" ");
+            }
+            breakdown.append(CATEGORY_NAMES[i]).append(" ").append(this.cycles[i])
+                    .append("(").append(String.format("%.1f", this.cycles[i] * 100.0 / totalCycles)).append("%)");
+        }
+        return breakdown.toString();
+    }
+
+    /**
+     * 输出统计信息
+     * @return 信息字符串
+     */
+    @Override
+    public synchronized String toString() {
+        return "指令 " + this.instructionNum +
+                " 周期 " + this.getTotalCycles() +
+                " CPI " + String.format("%.2f", this.getCPI()) +
+                " " + this.getBreakdown() +
+                (DataCache.LEVEL_NUM == 0 ? "" : " " + this.getCacheHitInfo());
+    }
+
+    public synchronized long getCycles(int category) {
+        return cycles[category];
+    }
+
+    public synchronized long getInstructionNum() {
+        return instructionNum;
+    }
+}
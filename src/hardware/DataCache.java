@@ -0,0 +1,268 @@
+package hardware;
+
+import os.BootParameter;
+
+/**
+ * 数据高速缓存，位于 CPU 与内存之间的组相联缓存
+ *
+ * 只模拟标签、有效位和脏位，用于统计命中率和访存周期，数据仍直接读写内存，保证内存内容一致
+ * 每个核心一个私有 L1，可选的 L2 由全部核心共享；替换采用 LRU，写策略可选 写回/写直达、写分配/写不分配
+ *
+ * @author ZJC
+ */
+public class DataCache {
+    /**
+     * 写回策略，否则为写直达
+     */
+    public static final boolean WRITE_BACK = BootParameter.getBoolean("cacheWriteBack", true);
+    /**
+     * 写分配策略，否则写不命中时直接写下一级
+     */
+    public static final boolean WRITE_ALLOCATE = BootParameter.getBoolean("cacheWriteAllocate", true);
+    /**
+     * L1 容量，单位 B，0 表示不启用缓存
+     */
+    public static final int L1_SIZE = BootParameter.getInt("l1Size", 1024);
+    public static final int L1_LINE_SIZE = BootParameter.getInt("l1LineSize", 32);
+    public static final int L1_WAYS = BootParameter.getInt("l1Ways", 2);
+    public static final int L1_HIT_CYCLES = 1;
+    /**
+     * L2 容量，单位 B，0 表示不启用
+     */
+    public static final int L2_SIZE = BootParameter.getInt("l2Size", 0);
+    public static final int L2_LINE_SIZE = BootParameter.getInt("l2LineSize", 64);
+    public static final int L2_WAYS = BootParameter.getInt("l2Ways", 4);
+    public static final int L2_HIT_CYCLES = 4;
+    /**
+     * 缓存级数，0 表示不启用缓存
+     */
+    public static final int LEVEL_NUM = L1_SIZE == 0 ? 0 : (L2_SIZE == 0 ? 1 : 2);
+
+    /**
+     * 缓存名称
+     */
+    private String name;
+    /**
+     * 缓存行大小，单位 B
+     */
+    private int lineSize;
+    /**
+     * 缓存行内偏移位数
+     */
+    private int offsetBits;
+    /**
+     * 相联度，每组的行数
+     */
+    private int ways;
+    /**
+     * 组数
+     */
+    private int setNum;
+    /**
+     * 命中所需周期数
+     */
+    private int hitCycles;
+    /**
+     * 下一级缓存，null 表示下一级为内存
+     */
+    private DataCache nextLevel;
+    /**
+     * 各缓存行的标签（行地址），按 组号 * 相联度 + 路号 存放
+     */
+    private int[] tags;
+    /**
+     * 各缓存行的有效位
+     */
+    private boolean[] valid;
+    /**
+     * 各缓存行的脏位
+     */
+    private boolean[] dirty;
+    /**
+     * 各缓存行最近访问的时间戳，替换时选择时间戳最小的行
+     */
+    private long[] lastAccessTime;
+    /**
+     * 访问计数，作为 LRU 时间戳
+     */
+    private long accessCount;
+    /**
+     * 命中次数
+     */
+    private long hitNum;
+    /**
+     * 未命中次数
+     */
+    private long missNum;
+    /**
+     * 写回次数
+     */
+    private long writeBackNum;
+
+    public DataCache(String name, int size, int lineSize, int ways, int hitCycles, DataCache nextLevel) {
+        if (Integer.bitCount(lineSize) != 1 || ways < 1 || size < lineSize * ways || size % (lineSize * ways) != 0) {
+            System.err.println("不支持的缓存配置 " + name + " 容量 " + size + " 行大小 " + lineSize + " 相联度 " + ways + "，使用 1 组直接映射");
+            size = lineSize = Integer.highestOneBit(Math.max(lineSize, 4));
+            ways = 1;
+        }
+        this.name = name;
+        this.lineSize = lineSize;
+        this.offsetBits = Integer.numberOfTrailingZeros(lineSize);
+        this.ways = ways;
+        this.setNum = size / (lineSize * ways);
+        this.hitCycles = hitCycles;
+        this.nextLevel = nextLevel;
+        this.tags = new int[this.setNum * ways];
+        this.valid = new boolean[this.setNum * ways];
+        this.dirty = new boolean[this.setNum * ways];
+        this.lastAccessTime = new long[this.setNum * ways];
+        this.accessCount = 0;
+        this.hitNum = 0;
+        this.missNum = 0;
+        this.writeBackNum = 0;
+    }
+
+    /**
+     * 访问一个内存地址
+     * @param address 物理地址
+     * @param write 是否为写操作
+     * @return 数据所在层级，0 为本级命中，1 为下一级命中，依此类推，等于缓存级数时表示访问内存
+     */
+    public synchronized int access(int address, boolean write) {
+        int lineAddress = address >>> this.offsetBits;
+        int base = (lineAddress % this.setNum) * this.ways;
+        ++this.accessCount;
+        for (int i = base; i < base + this.ways; ++i) {
+            if (this.valid[i] && this.tags[i] == lineAddress) {
+                // 命中
+                ++this.hitNum;
+                this.lastAccessTime[i] = this.accessCount;
+                if (write) {
+                    if (WRITE_BACK) {
+                        this.dirty[i] = true;
+                    } else {
+                        this.accessNextLevel(address, true);
+                    }
+                }
+                return 0;
+            }
+        }
+        ++this.missNum;
+        if (write && !WRITE_ALLOCATE) {
+            // 写不分配，直接写下一级
+            return 1 + this.accessNextLevel(address, true);
+        }
+        // 选择空行或最久未访问的行替换
+        int victim = base;
+        for (int i = base; i < base + this.ways; ++i) {
+            if (!this.valid[i]) {
+                victim = i;
+                break;
+            }
+            if (this.lastAccessTime[i] < this.lastAccessTime[victim]) {
+                victim = i;
+            }
+        }
+        if (this.valid[victim] && this.dirty[victim]) {
+            // 被替换的脏行写回下一级
+            ++this.writeBackNum;
+            this.accessNextLevel(this.tags[victim] << this.offsetBits, true);
+        }
+        // 从下一级读入整行
+        int level = 1 + this.accessNextLevel(address, false);
+        this.tags[victim] = lineAddress;
+        this.valid[victim] = true;
+        this.dirty[victim] = write && WRITE_BACK;
+        this.lastAccessTime[victim] = this.accessCount;
+        if (write && !WRITE_BACK) {
+            this.accessNextLevel(address, true);
+        }
+        return level;
+    }
+
+    /**
+     * 访问下一级
+     * @param address 物理地址
+     * @param write 是否为写操作
+     * @return 下一级返回的数据层级，下一级为内存时返回 0
+     */
+    private int accessNextLevel(int address, boolean write) {
+        return this.nextLevel == null ? 0 : this.nextLevel.access(address, write);
+    }
+
+    /**
+     * 获取访问到指定层级所需的周期数，即途经各级缓存的命中周期之和，到达内存时再加内存访问周期
+     * @param level 数据所在层级
+     * @return 周期数
+     */
+    public int getAccessCycles(int level) {
+        int cycles = 0;
+        DataCache cache = this;
+        for (int i = 0; i <= level; ++i) {
+            if (cache == null) {
+                return cycles + CycleCounter.MEMORY_ACCESS_CYCLES;
+            }
+            cycles += cache.hitCycles;
+            cache = cache.nextLevel;
+        }
+        return cycles;
+    }
+
+    /**
+     * 使一段物理地址的缓存行失效，适用于页框被外存数据整体覆盖时，丢弃该页框原有的缓存内容
+     * @param address 起始物理地址
+     * @param length 长度，单位 B
+     */
+    public synchronized void invalidate(int address, int length) {
+        int firstLine = address >>> this.offsetBits;
+        int lastLine = (address + length - 1) >>> this.offsetBits;
+        for (int i = 0; i < this.tags.length; ++i) {
+            if (this.valid[i] && this.tags[i] >= firstLine && this.tags[i] <= lastLine) {
+                this.valid[i] = false;
+                this.dirty[i] = false;
+            }
+        }
+    }
+
+    /**
+     * 获取命中率
+     * @return 命中率
+     */
+    public synchronized double getHitRate() {
+        long totalNum = this.hitNum + this.missNum;
+        return totalNum == 0 ? 0 : (double) this.hitNum / totalNum;
+    }
+
+    /**
+     * 输出统计信息
+     * @return 信息字符串
+     */
+    @Override
+    public synchronized String toString() {
+        return this.name + " " + this.setNum + "组 " + this.ways + "路 行大小 " + this.lineSize + "B" +
+                " 命中 " + this.hitNum +
+                " 未命中 " + this.missNum +
+                " 写回 " + this.writeBackNum +
+                " 命中率 " + String.format("%.1f%%", this.getHitRate() * 100);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataCache getNextLevel() {
+        return nextLevel;
+    }
+
+    public synchronized long getHitNum() {
+        return hitNum;
+    }
+
+    public synchronized long getMissNum() {
+        return missNum;
+    }
+
+    public synchronized long getWriteBackNum() {
+        return writeBackNum;
+    }
+}
@@ -28,9 +28,9 @@ public class ExternalMem {
      */
     public static final int  SECTOR_NUM = 64;
     /**
-     * 扇区大小，单位 B
+     * 扇区大小，单位 B，与内存页面大小一致，一块对应一页
      */
-    public static final int  SECTOR_SIZE = 512;
+    public static final int  SECTOR_SIZE = InternalMem.PAGE_SIZE;
 
     // 第0块为引导块，第1块为超级块
     // 第2-65块为磁盘inode区
@@ -269,6 +269,44 @@ public class ExternalMem {
         return swapAreaIndex;
     }
 
+    /**
+     * 分配交换区连续块，供大页使用
+     * @param blockNum 所需连续块数
+     * @return 起始块号，分配失败则返回 -1
+     */
+    public synchronized int allocateSwapAreaBlocks(int blockNum) {
+        for (int start = 0; start + blockNum <= this.swapAreaBitMap.length * 8; ++start) {
+            boolean free = true;
+            for (int i = start; i < start + blockNum; ++i) {
+                byte data = (byte) (this.swapAreaBitMap[i / 8] >> (7 - i % 8));
+                if ((data & 0x01) != 0) {
+                    free = false;
+                    // 跳过已占用块
+                    start = i;
+                    break;
+                }
+            }
+            if (free) {
+                for (int i = start; i < start + blockNum; ++i) {
+                    this.applySwapAreaBlock(i);
+                }
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 释放交换区连续块
+     * @param swapAreaIndex 起始块号
+     * @param blockNum 块数
+     */
+    public synchronized void releaseSwapAreaBlocks(int swapAreaIndex, int blockNum) {
+        for (int i = 0; i < blockNum; ++i) {
+            this.releaseSwapAreaBlock(swapAreaIndex + i);
+        }
+    }
+
     /**
      * 释放交换区块号
      * @param swapAreaIndex 释放块号
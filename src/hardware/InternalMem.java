@@ -1,6 +1,7 @@
 package hardware;
 
 import kernel.Page;
+import os.BootParameter;
 import os.Manager;
 
 import javax.xml.crypto.Data;
@@ -25,8 +26,30 @@ public class InternalMem {
     public static final int PAGE_NUM = 64;
     /**
      * 页（页框、物理块）大小，单位 B
+     * 启动参数 pageSize 指定，仅支持 512、1024
+     * 逻辑地址、物理地址均为 16 位，页表区固定 2 页框 16 个区域，因此页面不能更小或更大
      */
-    public static final int PAGE_SIZE = 512;
+    public static final int PAGE_SIZE = checkPageSize(BootParameter.getInt("pageSize", 512));
+    /**
+     * 页内偏移位数，512B 为 9 位
+     */
+    public static final int PAGE_OFFSET_BITS = Integer.numberOfTrailingZeros(PAGE_SIZE);
+    /**
+     * 页内偏移掩码
+     */
+    public static final int PAGE_OFFSET_MASK = PAGE_SIZE - 1;
+    /**
+     * 是否为数据段启用大页，启动参数 largePage 指定
+     */
+    public static final boolean LARGE_PAGE_ENABLE = BootParameter.getBoolean("largePage", false);
+    /**
+     * 每个大页包含的连续页框数，启动参数 largePageFactor 指定，取 2 的幂，默认 8
+     */
+    public static final int LARGE_PAGE_FRAME_NUM = checkLargePageFactor(BootParameter.getInt("largePageFactor", 8));
+    /**
+     * 大页大小，单位 B
+     */
+    public static final int LARGE_PAGE_SIZE = LARGE_PAGE_FRAME_NUM * PAGE_SIZE;
 
     //  0-15块 系统区
     public static final int SYSTEM_AREA_START_PAGE_NO = 0;
@@ -35,9 +58,15 @@ public class InternalMem {
     public static final int PAGE_TABLE_START_PAGE_NO = 0;
     public static final int PAGE_TABLE_PAGE_NUM = 2;
     // 页表项大小 4B
-    // 7 逻辑页号  6 物理页框号  15 物理块号  1 状态位 1 修改位  2 占位符
-    // 每个进程最多可以分配 16 个页表项
+    // 7 逻辑页号  6 物理页框号  15 物理块号  1 状态位 1 修改位  1 大页位  1 占位符
+    // 大页仅由首页表项描述，其余被覆盖的页表项为转向首页表项的存根，逻辑页号字段存放首页逻辑页号
     public static final int PAGE_TABLE_ITEM_SIZE = 4;
+    // 页表区共 16 个区域，每个进程占用一个区域
+    public static final int PAGE_TABLE_AREA_NUM = 16;
+    // 每个区域大小 512B 页面时为 64B
+    public static final int PAGE_TABLE_AREA_SIZE = PAGE_TABLE_PAGE_NUM * PAGE_SIZE / PAGE_TABLE_AREA_NUM;
+    // 每个进程最多可以分配的页表项数 512B 页面时为 16 个
+    public static final int PAGE_TABLE_ITEM_NUM = PAGE_TABLE_AREA_SIZE / PAGE_TABLE_ITEM_SIZE;
     //  2-15块 PCB池
     public static final int PCB_POOL_START_PAGE_NO = 2;
     public static final int PCB_POOL_PAGE_NUM = 14;
@@ -64,6 +93,14 @@ public class InternalMem {
      * 用户区域位示图
      */
     private byte[] userAreaBitMap;
+    /**
+     * 页表区伙伴系统分配器，分配单位为页表区域
+     */
+    private BuddyAllocator pageTableAllocator;
+    /**
+     * 用户区伙伴系统分配器，分配单位为页框
+     */
+    private BuddyAllocator userAreaAllocator;
 
     public InternalMem(Manager manager) {
         this.manager = manager;
@@ -72,6 +109,8 @@ public class InternalMem {
         this.pageTableBitMap = new byte[2];
         this.poolBitMap = new byte[2];
         this.userAreaBitMap = new byte[4];
+        this.pageTableAllocator = new BuddyAllocator("页表区", PAGE_TABLE_AREA_NUM);
+        this.userAreaAllocator = new BuddyAllocator("用户区", USER_AREA_PAGE_NUM);
 
         // 初始化内存，每个字节都为FF
         for (int i = 0; i < this.memery.length; ++i) {
@@ -87,10 +126,12 @@ public class InternalMem {
      * @param dataLine 数据线
      */
     public synchronized void writeData(AddressLine addressLine, DataLine dataLine) {
+        // 地址线按无符号数解析，1024B 页面时内存大小为 64KB
+        int address = addressLine.getAddress() & 0xFFFF;
         // 写低位
-        this.memery[addressLine.getAddress() + 0] = (byte)(dataLine.getData());
+        this.memery[address + 0] = (byte)(dataLine.getData());
         // 写高位
-        this.memery[addressLine.getAddress() + 1] = (byte)(dataLine.getData() >> 8);
+        this.memery[address + 1] = (byte)(dataLine.getData() >> 8);
     }
 
     /**
@@ -99,10 +140,12 @@ public class InternalMem {
      * @return 读取数据
      */
     public synchronized short readData(AddressLine addressLine) {
+        // 地址线按无符号数解析，1024B 页面时内存大小为 64KB
+        int address = addressLine.getAddress() & 0xFFFF;
         // 读低位
-        int lowData = ((short)this.memery[addressLine.getAddress() + 0]) & 0x00FF;
+        int lowData = ((short)this.memery[address + 0]) & 0x00FF;
         // 读高位
-        int highData = (((short)this.memery[addressLine.getAddress() + 1]) << 8) & 0xFF00;
+        int highData = (((short)this.memery[address + 1]) << 8) & 0xFF00;
         return (short)(lowData | highData);
     }
 
@@ -116,13 +159,42 @@ public class InternalMem {
         addressLine.setAddress((short)(addressLine.getAddress() + 2));
         short highShort = this.readData(addressLine);
         int pageItemContent = (((int) highShort << 16) & 0xFFFF0000) | ((int)lowShort & 0x0000FFFF);
-        Page page = new Page();
+        // 页表项不携带页数据，需要时由 readPage 或缓冲区读取
+        Page page = new Page(0, 0, 0, 0, 0, null);
         page.setLogicPageNo(pageItemContent >> 25 & 0x0000007F);
         page.setInternalFrameNo((pageItemContent >> 19 & 0x0000003F) == 63 ? -1 : pageItemContent >> 19 & 0x0000003F);
         page.setExternalBlockNo(pageItemContent >> 4 & 0x00007FFF);
         page.setCallFlag(pageItemContent >> 3 & 0x00000001);
         page.setModifyFlag(pageItemContent >> 2 & 0x00000001);
+        page.setLargeFlag(pageItemContent >> 1 & 0x00000001);
+
+        return page;
+    }
+
+    /**
+     * 按页表项地址读取页表项
+     *
+     * 使用本地地址线，不经过共享地址线，可由各核心、中断处理线程并发调用
+     * @param pageItemAddress 页表项的内存地址
+     * @return 仅存储页表项信息的页封装类
+     */
+    public synchronized Page readPageItem(int pageItemAddress) {
+        return this.readPageItem(new AddressLine((short) pageItemAddress));
+    }
 
+    /**
+     * 读取逻辑页所属页面的页表项
+     *
+     * 大页的存根页表项需要转向首页表项，普通页直接返回本页表项
+     * @param pageTableBaseAddress 页表基址
+     * @param logicPageNo 逻辑页号
+     * @return 首页表项信息
+     */
+    public synchronized Page readHeadPageItem(int pageTableBaseAddress, int logicPageNo) {
+        Page page = this.readPageItem(pageTableBaseAddress + logicPageNo * PAGE_TABLE_ITEM_SIZE);
+        if (page.getLargeFlag() == 1 && page.getLogicPageNo() != logicPageNo) {
+            page = this.readPageItem(pageTableBaseAddress + page.getLogicPageNo() * PAGE_TABLE_ITEM_SIZE);
+        }
         return page;
     }
 
@@ -133,12 +205,13 @@ public class InternalMem {
      */
     public synchronized void writePageItem(AddressLine addressLine, Page page) {
         int data = 0;
-        // 7 逻辑页号  6 物理页框号  15 物理块号  1 状态位 1 修改位  2 占位符
+        // 7 逻辑页号  6 物理页框号  15 物理块号  1 状态位 1 修改位  1 大页位  1 占位符
         data |= page.getLogicPageNo() << 25 & 0xFE000000;
         data |= page.getInternalFrameNo() << 19 & 0x01F80000;
         data |= page.getExternalBlockNo() << 4 & 0x0007FFF0;
         data |= page.getCallFlag() << 3 & 0x00000008;
         data |= page.getModifyFlag() << 2 & 0x00000004;
+        data |= page.getLargeFlag() << 1 & 0x00000002;
 
         this.manager.getDataLine().setData((short)data);
         this.writeData(addressLine, this.manager.getDataLine());
@@ -148,9 +221,18 @@ public class InternalMem {
         this.writeData(addressLine, this.manager.getDataLine());
     }
 
+    /**
+     * 按页表项地址写入页表项，使用本地地址线，可并发调用
+     * @param pageItemAddress 页表项的内存地址
+     * @param page 对应页表项，使用其中的相关信息
+     */
+    public synchronized void writePageItem(int pageItemAddress, Page page) {
+        this.writePageItem(new AddressLine((short) pageItemAddress), page);
+    }
+
     /**
      * 查找页表区空闲索引，作为新进程的页表基址
-     * @return 页表中的区域偏移索引，每个区域包含16个页表项，共占64B
+     * @return 页表中的区域偏移索引，每个区域包含 PAGE_TABLE_ITEM_NUM 个页表项，512B 页面时共占64B
      */
     public synchronized int findFreeIndexOfPageTable() {
         for (int i = 0; i < this.pageTableBitMap.length * 8; ++i) {
@@ -167,8 +249,22 @@ public class InternalMem {
      * @return 分配起始地址
      */
     public synchronized int allocatePageTable() {
-        int pageTableIndex = this.findFreeIndexOfPageTable();
-        this.applyPageTable(pageTableIndex);
+        return this.allocatePageTable(1);
+    }
+
+    /**
+     * 分配连续多个页表区域，供页表项较多的进程使用
+     * @param areaNum 区域数
+     * @return 起始区域索引，分配失败则返回 -1
+     */
+    public synchronized int allocatePageTable(int areaNum) {
+        int pageTableIndex = this.pageTableAllocator.allocate(areaNum);
+        if (pageTableIndex == -1) {
+            return -1;
+        }
+        for (int i = 0; i < this.pageTableAllocator.getBlockSize(pageTableIndex); ++i) {
+            this.applyPageTable(pageTableIndex + i);
+        }
         return pageTableIndex;
     }
 
@@ -182,12 +278,16 @@ public class InternalMem {
     }
 
     /**
-     * 释放页表
+     * 释放页表，连续分配的多个区域一并释放
      * @param pageTableIndex 释放起始地址
      */
     public synchronized void releasePageTable(int pageTableIndex) {
-        byte data = (byte) ~(0x01 << (7 - pageTableIndex % 8));
-        this.pageTableBitMap[pageTableIndex / 8] &= data;
+        int areaNum = this.pageTableAllocator.getBlockSize(pageTableIndex);
+        for (int i = 0; i < areaNum; ++i) {
+            byte data = (byte) ~(0x01 << (7 - (pageTableIndex + i) % 8));
+            this.pageTableBitMap[(pageTableIndex + i) / 8] &= data;
+        }
+        this.pageTableAllocator.release(pageTableIndex);
     }
 
     /**
@@ -196,7 +296,12 @@ public class InternalMem {
      */
     public synchronized void readPage(Page page) {
         int baseAddress = page.getInternalFrameNo() * PAGE_SIZE;
-        for (int i = 0; i < PAGE_SIZE ; i++) {
+        // 大页连续占用多个页框，一次读出
+        int size = page.getLargeFlag() == 1 ? LARGE_PAGE_SIZE : PAGE_SIZE;
+        if (page.getData() == null || page.getData().length < size) {
+            page.setData(new byte[size]);
+        }
+        for (int i = 0; i < size; i++) {
             page.getData()[i] = this.memery[baseAddress + i];
         }
     }
@@ -207,9 +312,13 @@ public class InternalMem {
      */
     public synchronized void writePage(Page page) {
         int baseAddress = page.getInternalFrameNo() * PAGE_SIZE;
-        for (int i = 0; i < PAGE_SIZE; ++i) {
+        // 大页连续占用多个页框，一次写入
+        int size = page.getLargeFlag() == 1 ? LARGE_PAGE_SIZE : PAGE_SIZE;
+        for (int i = 0; i < size; ++i) {
             this.memery[baseAddress + i] = page.getData()[i];
         }
+        // 页框内容被整体替换，原有缓存行失效
+        this.manager.invalidateDataCaches(baseAddress, size);
         // 如果写入的是PCB页，则系统PCB数 +1
         if (page.getLogicPageNo() == 0) {
             this.increasePCB();
@@ -276,12 +385,10 @@ public class InternalMem {
 
     /**
      * 分配用户区
-     * @return 分配的用户区索引
+     * @return 分配的用户区索引，分配失败则返回 -1
      */
     public synchronized int allocateUserArea() {
-        int userAreaIndex = this.findFreeIndexOfUserArea();
-        this.applyUserArea(userAreaIndex);
-        return userAreaIndex;
+        return this.allocateUserAreaRun(1);
     }
 
     /**
@@ -299,9 +406,50 @@ public class InternalMem {
      * @param userAreaIndex 用户区索引
      */
     public synchronized void releaseUserArea(int userAreaIndex) {
-        byte data = (byte) ~(0x01 << (7 - userAreaIndex % 8));
-        this.userAreaBitMap[userAreaIndex / 8] &= data;
-        this.manager.getDashboard().refreshFrame(USER_AREA_START_PAGE_NO + userAreaIndex, 0);
+        this.releaseUserAreaRun(userAreaIndex, 1);
+    }
+
+    /**
+     * 判断用户区能否分配连续页框
+     * @param frameNum 所需连续页框数
+     * @return 是否可以分配
+     */
+    public synchronized boolean canAllocateUserAreaRun(int frameNum) {
+        return this.userAreaAllocator.canAllocate(frameNum);
+    }
+
+    /**
+     * 分配用户区连续页框，由伙伴系统保证起始索引按块大小对齐
+     * @param frameNum 所需连续页框数
+     * @return 起始用户区索引，分配失败则返回 -1
+     */
+    public synchronized int allocateUserAreaRun(int frameNum) {
+        int userAreaIndex = this.userAreaAllocator.allocate(frameNum);
+        if (userAreaIndex == -1) {
+            return -1;
+        }
+        for (int i = 0; i < this.userAreaAllocator.getBlockSize(userAreaIndex); ++i) {
+            this.applyUserArea(userAreaIndex + i);
+        }
+        return userAreaIndex;
+    }
+
+    /**
+     * 释放用户区连续页框
+     * @param userAreaIndex 起始用户区索引
+     * @param frameNum 页框数
+     */
+    public synchronized void releaseUserAreaRun(int userAreaIndex, int frameNum) {
+        int blockSize = this.userAreaAllocator.getBlockSize(userAreaIndex);
+        if (blockSize != frameNum) {
+            this.manager.getDashboard().consoleError("用户区释放页框数 " + frameNum + " 与分配块大小 " + blockSize + " 不一致");
+        }
+        for (int i = 0; i < blockSize; ++i) {
+            byte data = (byte) ~(0x01 << (7 - (userAreaIndex + i) % 8));
+            this.userAreaBitMap[(userAreaIndex + i) / 8] &= data;
+            this.manager.getDashboard().refreshFrame(USER_AREA_START_PAGE_NO + userAreaIndex + i, 0);
+        }
+        this.userAreaAllocator.release(userAreaIndex);
     }
 
     /**
@@ -309,14 +457,7 @@ public class InternalMem {
      * @return sum 空闲页框数
      */
     public synchronized int getFreeFrameNumOfUserArea() {
-        int sum = 0;
-        for (int i = 0; i < this.userAreaBitMap.length * 8; ++i) {
-            byte data = (byte) (this.userAreaBitMap[i / 8] >> (7 - i % 8));
-            if ((data & 0x01) == 0) {
-                ++sum;
-            }
-        }
-        return sum;
+        return this.userAreaAllocator.getFreeUnitNum();
     }
 
     /**
@@ -332,6 +473,40 @@ public class InternalMem {
         ++this.totalPCBNum;
     }
 
+    /**
+     * 校验页面大小启动参数
+     * @param pageSize 页面大小
+     * @return 合法的页面大小
+     */
+    private static int checkPageSize(int pageSize) {
+        if (pageSize != 512 && pageSize != 1024) {
+            System.err.println("不支持的页面大小 " + pageSize + "，使用默认值 512");
+            return 512;
+        }
+        return pageSize;
+    }
+
+    /**
+     * 校验大页倍数启动参数
+     * @param factor 大页包含的页框数
+     * @return 合法的大页倍数
+     */
+    private static int checkLargePageFactor(int factor) {
+        if (factor < 2 || factor > USER_AREA_PAGE_NUM || Integer.bitCount(factor) != 1) {
+            System.err.println("不支持的大页倍数 " + factor + "，使用默认值 8");
+            return 8;
+        }
+        return factor;
+    }
+
+    public BuddyAllocator getPageTableAllocator() {
+        return pageTableAllocator;
+    }
+
+    public BuddyAllocator getUserAreaAllocator() {
+        return userAreaAllocator;
+    }
+
     public Manager getManager() {
         return manager;
     }
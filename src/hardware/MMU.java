@@ -22,28 +22,99 @@ public class MMU {
      */
     public static final int TLB_SIZE = 8;
     /**
-     * 快表结构，每个快表项存储逻辑页号、内存页框号
+     * 快表结构，每个快表项存储逻辑页号、内存页框号、大页标志、最近访问时间戳、脏位
+     * 大页快表项的逻辑页号为首页逻辑页号，覆盖连续 LARGE_PAGE_FRAME_NUM 个逻辑页
+     * 写操作只设置快表项脏位，在快表项换出、进程切换时再写回页表项修改位
      */
     private Vector<int[]> TLB;
     /**
-     * 用于替换快表项的LRU算法队列，最近访问的页面移到队尾，替换时选择队首页面
+     * 空闲快表项，快表清空或删除时回收，添加快表项时复用
      */
-    private Vector<Integer> LRU;
+    private Vector<int[]> freeTLBItems;
+    /**
+     * 访问计数，作为 LRU 算法的时间戳，替换时选择时间戳最小的快表项
+     */
+    private int accessCount;
+    /**
+     * 快表命中次数
+     */
+    private int TLBHitNum;
+    /**
+     * 快表未命中次数
+     */
+    private int TLBMissNum;
+    /**
+     * 当前运行进程的页表基址，用于写回脏位
+     */
+    private int pageTableBaseAddress;
+    /**
+     * 写回脏位时访问页表使用的地址线
+     */
+    private AddressLine addressLine;
 
     public MMU(Manager manager) {
         this.manager = manager;
         this.TLB = new Vector<>();
-        this.LRU = new Vector<>();
+        this.freeTLBItems = new Vector<>();
+        this.accessCount = 0;
+        this.TLBHitNum = 0;
+        this.TLBMissNum = 0;
+        this.pageTableBaseAddress = 0;
+        this.addressLine = new AddressLine();
 
         this.manager.getDashboard().consoleSuccess("MMU初始化完成");
     }
 
     /**
-     * 初始化TLB
+     * 初始化TLB，丢弃全部快表项，未写回的脏位应已在保护现场时写回
+     * @param pageTableBaseAddress 即将运行进程的页表基址
      */
-    public void initTLB() {
+    public void initTLB(int pageTableBaseAddress) {
+        this.freeTLBItems.addAll(this.TLB);
         this.TLB.clear();
-        this.LRU.clear();
+        this.pageTableBaseAddress = pageTableBaseAddress;
+    }
+
+    /**
+     * 设置快表项脏位
+     * @param logicPageNo 逻辑页号
+     * @return 是否存在对应快表项
+     */
+    public boolean markDirty(int logicPageNo) {
+        int index = this.searchTLB(logicPageNo);
+        if (index < 0) {
+            return false;
+        }
+        this.TLB.get(index)[4] = 1;
+        return true;
+    }
+
+    /**
+     * 将全部快表项的脏位写回页表项修改位
+     */
+    public void writeBackDirty() {
+        for (int i = 0; i < this.TLB.size(); ++i) {
+            this.writeBackDirty(this.TLB.get(i));
+        }
+    }
+
+    /**
+     * 将快表项的脏位写回页表项修改位，并清除脏位
+     * @param item 快表项
+     */
+    private void writeBackDirty(int[] item) {
+        if (item[4] == 0) {
+            return;
+        }
+        item[4] = 0;
+        Page page = this.manager.getInMem().readHeadPageItem(this.pageTableBaseAddress, item[0]);
+        // 页面已换出或页框已变化，则快表项已失效，不再写回
+        if (page.getCallFlag() == 0 || page.getInternalFrameNo() != item[1]) {
+            return;
+        }
+        page.setModifyFlag(1);
+        this.addressLine.setAddress((short) (this.pageTableBaseAddress + page.getLogicPageNo() * InternalMem.PAGE_TABLE_ITEM_SIZE));
+        this.manager.getInMem().writePageItem(this.addressLine, page);
     }
 
     /**
@@ -53,7 +124,10 @@ public class MMU {
      */
     public int searchTLB(int logicPageNo) {
         for (int i = 0; i < this.TLB.size(); ++i) {
-            if (this.TLB.get(i)[0] == logicPageNo) {
+            int[] item = this.TLB.get(i);
+            // 大页快表项覆盖连续多个逻辑页
+            int coverPageNum = item[2] == 1 ? InternalMem.LARGE_PAGE_FRAME_NUM : 1;
+            if (logicPageNo >= item[0] && logicPageNo < item[0] + coverPageNum) {
                 return i;
             }
         }
@@ -65,16 +139,11 @@ public class MMU {
      * @param logicPageNo 快表项的逻辑页号
      */
     public void visitTLB(int logicPageNo) {
-        for (int i = 0; i < this.LRU.size(); ++i) {
-            // 遍历查找，是否之前访问过该页，则重新排列
-            if (this.LRU.get(i).intValue() == logicPageNo) {
-                this.LRU.remove(i);
-                break;
-            }
+        int index = this.searchTLB(logicPageNo);
+        if (index >= 0) {
+            // 记录最新访问时间戳
+            this.TLB.get(index)[3] = ++this.accessCount;
         }
-        // 最新访问页放在队尾
-        this.LRU.add(new Integer(logicPageNo));
-//        this.manager.getDashboard().consoleLog("逻辑页 " + logicPageNo + " 移动到TLB优先级队尾");
     }
 
     /**
@@ -83,43 +152,72 @@ public class MMU {
      * @param internalFrameNo  内存页框号
      */
     public void updateTLB(int logicPageNo, int internalFrameNo) {
+        this.updateTLB(logicPageNo, internalFrameNo, 0);
+    }
+
+    /**
+     * 更新TLB
+     * @param logicPageNo 逻辑页号，大页为首页逻辑页号
+     * @param internalFrameNo  内存页框号，大页为首页框号
+     * @param largeFlag 大页标志
+     */
+    public void updateTLB(int logicPageNo, int internalFrameNo, int largeFlag) {
         // 获取该页在快表的索引
         int index = this.searchTLB(logicPageNo);
 
         // 如果该页在快表中，则直接进行一次访问
         if (index >= 0) {
-            visitTLB(logicPageNo);
+            this.TLB.get(index)[3] = ++this.accessCount;
             return;
         }
         // 如果该页不在快表中，则需要添加快表项
         if(this.TLB.size() >= TLB_SIZE) {
-            // 快表已满，则选择换出一项
-            int removeLogicPageNo = this.LRU.get(0).intValue();
-            this.removeTLB(removeLogicPageNo);
+            // 快表已满，则选择换出最久未访问的一项
+            int removeIndex = 0;
+            for (int i = 1; i < this.TLB.size(); ++i) {
+                if (this.TLB.get(i)[3] < this.TLB.get(removeIndex)[3]) {
+                    removeIndex = i;
+                }
+            }
+            this.writeBackDirty(this.TLB.get(removeIndex));
+            this.removeTLB(this.TLB.get(removeIndex)[0]);
+        }
+        // 添加快表项，优先复用空闲快表项
+        int[] item = this.freeTLBItems.isEmpty() ? new int[5] : this.freeTLBItems.remove(this.freeTLBItems.size() - 1);
+        item[0] = logicPageNo;
+        item[1] = internalFrameNo;
+        item[2] = largeFlag;
+        item[3] = ++this.accessCount;
+        item[4] = 0;
+        this.TLB.add(item);
+        if (CPU.TRACE_INSTRUCTION) {
+            this.manager.getDashboard().consoleLog("TLB添加表项 ->" +
+                    " 逻辑页号：" + logicPageNo +
+                    " 内存框号：" + internalFrameNo +
+                    " 大页：" + largeFlag);
+        }
+    }
+
+    /**
+     * 获取快表覆盖范围，即快表项可直接转换的内存大小
+     * @return 覆盖范围，单位 B
+     */
+    public int getTLBReach() {
+        int reach = 0;
+        for (int i = 0; i < this.TLB.size(); ++i) {
+            reach += this.TLB.get(i)[2] == 1 ? InternalMem.LARGE_PAGE_SIZE : InternalMem.PAGE_SIZE;
         }
-        // 添加快表项
-        this.TLB.add(new int[]{logicPageNo, internalFrameNo});
-        this.manager.getDashboard().consoleLog("TLB添加表项 ->" +
-                " 逻辑页号：" + logicPageNo +
-                " 内存框号：" + internalFrameNo);
-        // 对该页进行一次访问
-        this.visitTLB(logicPageNo);
+        return reach;
     }
 
     /**
-     * 删除一个快表项，适用于 内存页框发生替换时，去除无效快表项
+     * 删除一个快表项，适用于 内存页框发生替换时，去除无效快表项，脏位不写回
      * @param logicPageNo 快表项的逻辑页号
      */
     public void removeTLB(int logicPageNo) {
         for (int i = 0; i < this.TLB.size(); ++i) {
             if (this.TLB.get(i)[0] == logicPageNo) {
-                this.TLB.remove(i);
-                break;
-            }
-        }
-        for (int i = 0; i < this.LRU.size(); ++i) {
-            if (this.LRU.get(i).intValue() == logicPageNo) {
-                this.LRU.remove(i);
+                this.freeTLBItems.add(this.TLB.remove(i));
                 break;
             }
         }
@@ -132,30 +230,37 @@ public class MMU {
      * @return 内存物理地址
      */
     public short resolveLogicAddress(short logicAddress, int pageTableBaseAddress) {
-        // 将16位逻辑地址拆分成 7位逻辑页号 + 9位页内偏移
-        int logicPageNo = (logicAddress >> 9) & 0x007F;
-        int offset      = logicAddress & 0x01FF;
+        // 将16位逻辑地址拆分成 逻辑页号 + 页内偏移，512B 页面时为 7位逻辑页号 + 9位页内偏移
+        int logicPageNo = (logicAddress & 0xFFFF) >> InternalMem.PAGE_OFFSET_BITS;
+        int offset      = logicAddress & InternalMem.PAGE_OFFSET_MASK;
         // 依次检索快表和页表
         // 快表命中，则直接返回物理地址
         int index = this.searchTLB(logicPageNo);
         if (index >= 0) {
-            int frameNo = this.TLB.get(index)[1];
-            this.updateTLB(logicPageNo, frameNo);
-            this.manager.getDashboard().consoleInfo("TLB命中 -> " +
-                    " 逻辑页号：" + logicPageNo +
-                    " 内存框号：" + frameNo);
+            int[] item = this.TLB.get(index);
+            // 大页内按逻辑页偏移得到实际页框
+            int frameNo = item[1] + logicPageNo - item[0];
+            this.updateTLB(item[0], item[1], item[2]);
+            ++this.TLBHitNum;
+            if (CPU.TRACE_INSTRUCTION) {
+                this.manager.getDashboard().consoleInfo("TLB命中 -> " +
+                        " 逻辑页号：" + logicPageNo +
+                        " 内存框号：" + frameNo);
+            }
             return (short) (frameNo * InternalMem.PAGE_SIZE + offset);
         }
+        ++this.TLBMissNum;
 
         //页表命中，则返回物理地址
-        this.manager.getAddressLine().setAddress((short)(pageTableBaseAddress + logicPageNo * InternalMem.PAGE_TABLE_ITEM_SIZE));
-        Page page = this.manager.getInMem().readPageItem(this.manager.getAddressLine());
+        Page page = this.manager.getInMem().readHeadPageItem(pageTableBaseAddress, logicPageNo);
         if (page.getCallFlag() == 1) {
-            int frameNo = page.getInternalFrameNo();
-            this.updateTLB(logicPageNo, frameNo);
-            this.manager.getDashboard().consoleLog("页表命中 -> " +
-                    " 逻辑页号：" + logicPageNo +
-                    " 内存框号：" + frameNo);
+            int frameNo = page.getInternalFrameNo() + logicPageNo - page.getLogicPageNo();
+            this.updateTLB(page.getLogicPageNo(), page.getInternalFrameNo(), page.getLargeFlag());
+            if (CPU.TRACE_INSTRUCTION) {
+                this.manager.getDashboard().consoleLog("页表命中 -> " +
+                        " 逻辑页号：" + logicPageNo +
+                        " 内存框号：" + frameNo);
+            }
             return (short) (frameNo * InternalMem.PAGE_SIZE + offset);
         }
 
@@ -179,11 +284,19 @@ public class MMU {
         this.TLB = TLB;
     }
 
-    public Vector<Integer> getLRU() {
-        return LRU;
+    public int getTLBHitNum() {
+        return TLBHitNum;
+    }
+
+    public void setTLBHitNum(int TLBHitNum) {
+        this.TLBHitNum = TLBHitNum;
+    }
+
+    public int getTLBMissNum() {
+        return TLBMissNum;
     }
 
-    public void setLRU(Vector<Integer> LRU) {
-        this.LRU = LRU;
+    public void setTLBMissNum(int TLBMissNum) {
+        this.TLBMissNum = TLBMissNum;
     }
 }
@@ -1,5 +1,7 @@
 package interrupt;
 
+import file.UserFileItem;
+import hardware.ClockEvent;
 import kernel.PCB;
 import os.Manager;
 
@@ -8,7 +10,7 @@ import os.Manager;
  *
  * @author ZJC
  */
-public class FileOperationInterrupt extends Thread{
+public class FileOperationInterrupt implements Runnable {
     /**
      * 系统管理器，用以获取系统资源
      */
@@ -29,14 +31,25 @@ public class FileOperationInterrupt extends Thread{
     public static final int CLOSE_TIME = 3;
 
     public FileOperationInterrupt(Manager manager, PCB pcb, int type) {
-        super("FileOperation");
         this.manager    = manager;
         this.pcb        = pcb;
         this.type       = type;
+        this.manager.getClock().beginWork();
     }
 
     @Override
     public void run() {
+        try {
+            this.handleFileOperation();
+        } finally {
+            this.manager.getClock().endWork();
+        }
+    }
+
+    /**
+     * 文件操作处理，完成后提交文件操作完成事件
+     */
+    public void handleFileOperation() {
         int startTime = this.manager.getClock().getCurrentTime();
         int runTime = 0;
         synchronized (this.manager.getFileSystem()) {
@@ -45,18 +58,28 @@ public class FileOperationInterrupt extends Thread{
                 // 创建文件
                 this.manager.getDashboard().consoleLog("系统调用 -> 创建文件");
                 runTime = CREATE_TIME;
-                String filePath = this.pcb.getCodeSegment().getInstruction()[this.pcb.getIR() - 1].getExtra();
+                String filePath = this.pcb.getCodeSegment().getInstruction()[this.pcb.getIR() - 1].getFilePath();
                 this.manager.getFileSystem().createFile(filePath, -1, true);
             } else if (this.type == CLOSE_FILE) {
                 // 关闭文件
                 this.manager.getDashboard().consoleLog("系统调用 -> 关闭文件");
                 runTime = CLOSE_TIME;
-                String filePath = this.pcb.getCodeSegment().getInstruction()[this.pcb.getIR() - 1].getExtra();
-                this.manager.getFileSystem().cmd("close " + filePath);
+                // 由句柄缓存直接得到 fd，关闭时对应缓存项失效
+                String filePath = this.pcb.getCodeSegment().getInstruction()[this.pcb.getIR() - 1].getFilePath();
+                UserFileItem userFileItem = this.pcb.getOpenFileItemByPath(filePath);
+                if (userFileItem != null) {
+                    this.manager.getFileSystem().close(userFileItem.getFd());
+                }
             }
         }
-        // 等待文件操作结束
-        while (this.manager.getClock().getCurrentTime() - startTime < runTime) { }
+        // 文件操作在 runTime 个时钟周期后结束
+        this.manager.getClock().postEvent(startTime + runTime, ClockEvent.FILE_OPERATION_FINISH, this::finish);
+    }
+
+    /**
+     * 文件操作完成事件处理
+     */
+    public void finish() {
         this.manager.getDashboard().consoleLog("文件操作完成");
         // 如果这是最后一条指令，则直接撤销进程
         if (pcb.getPC() > pcb.getInstructionNum()) {
@@ -1,5 +1,6 @@
 package interrupt;
 
+import hardware.ClockEvent;
 import hardware.InternalMem;
 import kernel.PCB;
 import os.Manager;
@@ -9,7 +10,7 @@ import os.Manager;
  * 本次设计方针为读文件、写文件
  * @author ZJC
  */
-public class IOInterrupt extends Thread{
+public class IOInterrupt implements Runnable {
     /**
      * 系统管理器，用以获取系统资源
      */
@@ -38,40 +39,56 @@ public class IOInterrupt extends Thread{
     public static final int OUTPUT_TIME = 4;
 
     public IOInterrupt(Manager manager, PCB pcb, int type, int frameNo, int fd) {
-        super("IO");
         this.manager    = manager;
         this.pcb        = pcb;
         this.type       = type;
         this.frameNo    = frameNo;
         this.fd         = fd;
+        this.manager.getClock().beginWork();
     }
 
     @Override
     public void run() {
+        try {
+            this.handleIO();
+        } finally {
+            this.manager.getClock().endWork();
+        }
+    }
+
+    /**
+     * 输入输出处理，完成后提交IO完成事件
+     */
+    public void handleIO() {
         int startTime = this.manager.getClock().getCurrentTime();
         int runTime = 0;
         synchronized (this.manager.getFileSystem()) {
             this.manager.getFileSystem().setUserOperatePCB(this.pcb);
+            // 文件系统以物理地址作为数据区首地址
             if (this.type == INPUT) {
                 // 输入操作，读文件
                 this.manager.getDashboard().consoleLog("系统调用 -> 输入操作");
                 runTime = INPUT_TIME;
-                this.manager.getFileSystem().read(this.fd, this.frameNo, InternalMem.PAGE_SIZE);
+                this.manager.getFileSystem().read(this.fd, this.frameNo * InternalMem.PAGE_SIZE, InternalMem.PAGE_SIZE);
             } else if (this.type == OUTPUT) {
                 // 输出操作，写文件
                 this.manager.getDashboard().consoleLog("系统调用 -> 输出操作");
                 runTime = OUTPUT_TIME;
-                this.manager.getFileSystem().write(this.fd, this.frameNo, InternalMem.PAGE_SIZE);
+                this.manager.getFileSystem().write(this.fd, this.frameNo * InternalMem.PAGE_SIZE, InternalMem.PAGE_SIZE);
             }
         }
-        // 等待输入输出结束
-        while (this.manager.getClock().getCurrentTime() - startTime < runTime) { }
+        // 输入输出在 runTime 个时钟周期后结束
+        this.manager.getClock().postEvent(startTime + runTime, ClockEvent.IO_FINISH, this::finish);
+    }
+
+    /**
+     * IO完成事件处理
+     */
+    public void finish() {
         this.manager.getDashboard().consoleLog("IO操作完成");
         // 如果这是最后一条指令，则直接撤销进程
         if (pcb.getPC() > pcb.getInstructionNum()) {
-            synchronized (this.manager.getSchedule()) {
-                this.manager.getSchedule().getBlockQueue().remove(this.pcb);
-            }
+            this.manager.getSchedule().getBlockQueue().remove(this.pcb);
             this.pcb.cancel();
             return;
         }
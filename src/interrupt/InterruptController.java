@@ -0,0 +1,193 @@
+package interrupt;
+
+import os.BootParameter;
+import os.Manager;
+
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * 中断控制器
+ *
+ * 负责缺页、输入输出、文件操作、作业请求等中断处理例程的排队与执行
+ * 中断请求按优先级排队，同一优先级按提交顺序处理，由固定数量的处理线程依次取出执行
+ * 处理例程不再等待模拟耗时，完成时刻由时钟事件安排，处理线程只承担实际的处理工作
+ * 确定性仿真模式下不启动处理线程，请求在每个时钟周期的核心执行结束后由调度线程依次处理
+ *
+ * @author ZJC
+ */
+public class InterruptController {
+    /**
+     * 中断处理线程数，确定性仿真模式下为 0
+     */
+    public static final int HANDLER_THREAD_NUM = Manager.DETERMINISTIC ? 0 : Math.max(1, BootParameter.getInt("interruptThreadNum", 4));
+    /**
+     * 各中断向量的优先级，数值越小越优先，-1 表示不经过中断控制器
+     */
+    public static final int[] PRIORITY = new int[]{
+            -1,     // 时钟中断
+            0,      // 缺页中断
+            -1,     // 资源申请
+            -1,     // 资源释放
+            1,      // 输入操作
+            1,      // 输出操作
+            3,      // 作业请求
+            2,      // 文件创建
+            2,      // 文件关闭
+    };
+    /**
+     * 系统管理器，用以获取系统资源
+     */
+    private Manager manager;
+    /**
+     * 待处理的中断请求队列
+     */
+    private PriorityBlockingQueue<InterruptRequest> requestQueue;
+    /**
+     * 中断处理线程
+     */
+    private Thread[] handlerThreads;
+    /**
+     * 提交计数，作为中断请求的提交序号
+     */
+    private long requestSequence;
+    /**
+     * 已处理的中断数
+     */
+    private long handledNum;
+    /**
+     * 排队中断请求数的最大值
+     */
+    private int maxQueueLength;
+
+    public InterruptController(Manager manager) {
+        this.manager = manager;
+        this.requestQueue = new PriorityBlockingQueue<>();
+        this.handlerThreads = new Thread[HANDLER_THREAD_NUM];
+        this.requestSequence = 0;
+        this.handledNum = 0;
+        this.maxQueueLength = 0;
+        for (int i = 0; i < HANDLER_THREAD_NUM; ++i) {
+            this.handlerThreads[i] = new Thread("Interrupt-" + i) {
+                @Override
+                public void run() {
+                    InterruptController.this.handleRequests();
+                }
+            };
+            this.handlerThreads[i].setDaemon(true);
+            this.handlerThreads[i].start();
+        }
+
+        this.manager.getDashboard().consoleSuccess("中断控制器初始化完成，处理线程数 " + HANDLER_THREAD_NUM);
+    }
+
+    /**
+     * 提交中断请求
+     * @param interruptVector 中断向量
+     * @param handler 中断处理例程
+     */
+    public synchronized void submit(int interruptVector, Runnable handler) {
+        int priority = PRIORITY[interruptVector];
+        if (priority == -1) {
+            throw new IllegalArgumentException("中断向量 " + interruptVector + " 不经过中断控制器处理");
+        }
+        this.requestQueue.add(new InterruptRequest(priority, this.requestSequence++, handler));
+        this.maxQueueLength = Math.max(this.maxQueueLength, this.requestQueue.size());
+    }
+
+    /**
+     * 处理线程循环取出优先级最高的中断请求并执行
+     */
+    private void handleRequests() {
+        while (true) {
+            InterruptRequest request;
+            try {
+                request = this.requestQueue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            this.handle(request);
+        }
+    }
+
+    /**
+     * 确定性仿真模式下，由调度线程按优先级、提交顺序处理全部待处理的中断请求，包括处理期间新提交的请求
+     */
+    public void handlePendingRequests() {
+        InterruptRequest request;
+        while ((request = this.requestQueue.poll()) != null) {
+            this.handle(request);
+        }
+    }
+
+    /**
+     * 执行中断处理例程
+     * @param request 中断请求
+     */
+    private void handle(InterruptRequest request) {
+        try {
+            request.handler.run();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        synchronized (this) {
+            ++this.handledNum;
+        }
+    }
+
+    /**
+     * 输出统计信息
+     * @return 信息字符串
+     */
+    @Override
+    public synchronized String toString() {
+        return "中断控制器 处理线程 " + HANDLER_THREAD_NUM +
+                " 已提交 " + this.requestSequence +
+                " 已处理 " + this.handledNum +
+                " 排队 " + this.requestQueue.size() +
+                " 最大排队 " + this.maxQueueLength;
+    }
+
+    public Manager getManager() {
+        return manager;
+    }
+
+    public synchronized long getHandledNum() {
+        return handledNum;
+    }
+
+    public synchronized int getMaxQueueLength() {
+        return maxQueueLength;
+    }
+
+    /**
+     * 中断请求，按优先级、提交顺序排序
+     */
+    private static class InterruptRequest implements Comparable<InterruptRequest> {
+        /**
+         * 优先级
+         */
+        private int priority;
+        /**
+         * 提交序号
+         */
+        private long sequence;
+        /**
+         * 中断处理例程
+         */
+        private Runnable handler;
+
+        public InterruptRequest(int priority, long sequence, Runnable handler) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.handler = handler;
+        }
+
+        @Override
+        public int compareTo(InterruptRequest other) {
+            if (this.priority != other.priority) {
+                return Integer.compare(this.priority, other.priority);
+            }
+            return Long.compare(this.sequence, other.sequence);
+        }
+    }
+}
@@ -10,14 +10,13 @@ import os.Manager;
  *
  * @author ZJC
  */
-public class JobRequestInterrupt extends Thread {
+public class JobRequestInterrupt implements Runnable {
     /**
      * 系统管理器，用以获取系统资源
      */
     private Manager manager;
 
     public JobRequestInterrupt(Manager manager) {
-        super("JobRequest");
         this.manager = manager;
     }
 
@@ -1,19 +1,20 @@
 package interrupt;
 
+import hardware.ClockEvent;
 import hardware.InternalMem;
 import kernel.BufferHead;
 import kernel.PCB;
 import kernel.Page;
 import os.Manager;
 
-import java.nio.Buffer;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 缺页中断
  *
  * 进行相关缺页时的操作
  */
-public class MissPageInterrupt extends Thread {
+public class MissPageInterrupt implements Runnable {
     /**
      * 系统管理器，用以获取系统资源
      */
@@ -28,65 +29,138 @@ public class MissPageInterrupt extends Thread {
     private int missPageLogicNo;
 
     public MissPageInterrupt(Manager manager, PCB pcb, int missPageLogicNo) {
-        super("MissPage");
         this.manager = manager;
         this.pcb = pcb;
         this.missPageLogicNo = missPageLogicNo;
+        this.manager.getClock().beginWork();
     }
 
     @Override
     public void run() {
+        CompletableFuture<Void> handleFinish;
+        try {
+            handleFinish = this.handleMissPage();
+        } catch (RuntimeException e) {
+            this.manager.getClock().endWork();
+            throw e;
+        }
+        // 外存读取完成、缺页完成事件提交后，时钟才可推进
+        handleFinish.whenComplete((result, e) -> {
+            if (e != null) {
+                e.printStackTrace();
+            }
+            this.manager.getClock().endWork();
+        });
+    }
+
+    /**
+     * 缺页中断处理，发起外存读取后即返回，读取完成时由设备线程调入页面并提交缺页完成事件
+     * @return 处理完成的 Future
+     */
+    public CompletableFuture<Void> handleMissPage() {
         // 记录进入时间
         int startTime = this.manager.getClock().getCurrentTime();
+        this.pcb.setMissPageNum(this.pcb.getMissPageNum() + 1);
 
-        // 读取对应页表项信息
-        int pageItemAddress = this.pcb.getPageTableBaseAddress() + this.missPageLogicNo * InternalMem.PAGE_TABLE_ITEM_SIZE;
-        this.manager.getAddressLine().setAddress((short) pageItemAddress);
-        Page missPage = this.manager.getInMem().readPageItem(this.manager.getAddressLine());
+        // 读取对应页表项信息，大页需转向首页表项
+        Page missPage = this.manager.getInMem().readHeadPageItem(this.pcb.getPageTableBaseAddress(), this.missPageLogicNo);
+        int frameNum = missPage.getFrameNum();
 
-        // 判断内存是否已满？内存已满，则选择换出一页；内存未满，则直接添加一页
-        if (this.manager.getInMem().getFreeFrameNumOfUserArea() <= 0) {
-            // 内存已满，则选择换出一页
-            int swapLogicPageNo = this.pcb.getLRU().get(0).intValue();
-            int swapPageItemAddress = this.pcb.getPageTableBaseAddress() + swapLogicPageNo * InternalMem.PAGE_TABLE_ITEM_SIZE;
-            this.manager.getAddressLine().setAddress((short) swapPageItemAddress);
-            Page swapPage = this.manager.getInMem().readPageItem(this.manager.getAddressLine());
-            // 将换出页面对应的页表项引用位设为0
-            swapPage.setCallFlag(0);
-            if (swapPage.getModifyFlag() == 1) {
-                // 如果换出页被修改，则同步修改到外存
-                this.manager.getInMem().readPage(swapPage);
-                this.manager.getDeviceManage().useBuffer(missPage, BufferHead.WRITE);
-                swapPage.setModifyFlag(0);
-            }
-            this.manager.getAddressLine().setAddress((short) swapPageItemAddress);
-            this.manager.getInMem().writePageItem(this.manager.getAddressLine(), swapPage);
-            // 换出页的页框提供给换入页
-            this.manager.getDashboard().consoleInfo("页面换出 -> 逻辑页号：" + swapPage.getLogicPageNo() + "主存框号：" + swapPage.getInternalFrameNo());
+        // 判断内存是否有足够的连续空闲页框？不足，则依次换出本进程最久未访问的页面
+        while (!this.manager.getInMem().canAllocateUserAreaRun(frameNum) && this.swapOutPage()) { }
+        int frameIndex = this.manager.getInMem().allocateUserAreaRun(frameNum);
+        if (frameIndex == -1 && missPage.getLargeFlag() == 1) {
+            // 大页无法获得连续页框，则拆分为普通页，仅调入所缺的一页
+            this.pcb.splitLargePageItems(missPage);
+            missPage = this.manager.getInMem().readHeadPageItem(this.pcb.getPageTableBaseAddress(), this.missPageLogicNo);
+            frameNum = 1;
+            while (!this.manager.getInMem().canAllocateUserAreaRun(frameNum) && this.swapOutPage()) { }
+            frameIndex = this.manager.getInMem().allocateUserAreaRun(frameNum);
+        }
+        if (frameIndex == -1) {
+            // 无可用页框，则等待下次调度重新缺页
+            this.manager.getDashboard().consoleError("进程 " + this.pcb.getId() + " 缺页中断 -> 逻辑页号：" + this.missPageLogicNo + " 无可用页框");
+            this.manager.getDashboard().consoleLog(this.manager.getInMem().getUserAreaAllocator().toString());
+            this.manager.getClock().postEvent(startTime + 1, ClockEvent.MISS_PAGE_FINISH, this::finish);
+            return CompletableFuture.completedFuture(null);
         }
-        // 申请页框
-        int frameIndex = this.manager.getInMem().allocateUserArea();
-        // 使用缓冲区从外存中获取缺页
-        this.manager.getDeviceManage().useBuffer(missPage, BufferHead.READ);
-        while (missPage.getData() == null) {}
+        // 使用缓冲区从外存中获取缺页，读取完成后调入
+        Page loadPage = missPage;
+        int loadFrameIndex = frameIndex;
+        int loadFrameNum = frameNum;
+        return this.manager.getDeviceManage().useBuffer(missPage, BufferHead.READ).thenRun(() ->
+                this.loadMissPage(loadPage, loadFrameIndex, loadFrameNum, startTime));
+    }
+
+    /**
+     * 缺页读取完成后，将缺页写入分配的页框并修改页表项，提交缺页完成事件
+     * @param missPage 缺页信息，页数据已读入
+     * @param frameIndex 起始用户区索引
+     * @param frameNum 页框数
+     * @param startTime 缺页中断进入时间
+     */
+    private void loadMissPage(Page missPage, int frameIndex, int frameNum, int startTime) {
         // 设置页框号和调入位
         missPage.setInternalFrameNo(frameIndex + InternalMem.USER_AREA_START_PAGE_NO);
         missPage.setCallFlag(1);
         // 将缺页写入内存
         this.manager.getInMem().writePage(missPage);
         // 刷新GUI
-        this.manager.getDashboard().refreshFrame(missPage.getInternalFrameNo(), 1);
+        for (int i = 0; i < frameNum; ++i) {
+            this.manager.getDashboard().refreshFrame(missPage.getInternalFrameNo() + i, 1);
+        }
         // 修改页表项
-        this.manager.getAddressLine().setAddress((short) pageItemAddress);
-        this.manager.getInMem().writePageItem(this.manager.getAddressLine(), missPage);
+        this.manager.getInMem().writePageItem(this.pcb.getPageTableBaseAddress() + missPage.getLogicPageNo() * InternalMem.PAGE_TABLE_ITEM_SIZE, missPage);
 
         this.manager.getDashboard().consoleInfo("进程 " + this.pcb.getId() + " 缺页中断 -> " +
                 " 逻辑页号：" + missPage.getLogicPageNo() +
-                " 分配主存框号：" + missPage.getInternalFrameNo());
+                " 分配主存框号：" + missPage.getInternalFrameNo() +
+                " 页框数：" + frameNum);
 
         // 缺页中断需要 1 个时钟周期
-        while (this.manager.getClock().getCurrentTime() - startTime < 1) { }
+        this.manager.getClock().postEvent(startTime + 1, ClockEvent.MISS_PAGE_FINISH, this::finish);
+    }
+
+    /**
+     * 缺页完成事件处理
+     */
+    public void finish() {
         // 进程唤醒
         this.pcb.wakeUp(this.manager.getSchedule().getBlockQueue());
     }
+
+    /**
+     * 换出本进程最久未访问的一个页面
+     * @return 是否换出成功，没有可换出页面时返回 false
+     */
+    public boolean swapOutPage() {
+        // 先写回快表中的脏位，保证页表项修改位准确
+        this.manager.writeBackTLBDirty(this.pcb);
+        while (this.pcb.getLRU().size() > 0) {
+            int swapLogicPageNo = this.pcb.getLRU().get(0).intValue();
+            this.pcb.getLRU().remove(0);
+            int swapPageItemAddress = this.pcb.getPageTableBaseAddress() + swapLogicPageNo * InternalMem.PAGE_TABLE_ITEM_SIZE;
+            Page swapPage = this.manager.getInMem().readPageItem(swapPageItemAddress);
+            if (swapPage.getCallFlag() == 0 || swapPage.getLogicPageNo() != swapLogicPageNo) {
+                // 该页已不在内存中，或已被拆分，则跳过
+                continue;
+            }
+            if (swapPage.getModifyFlag() == 1) {
+                // 如果换出页被修改，则同步修改到外存
+                this.manager.getInMem().readPage(swapPage);
+                this.manager.getDeviceManage().useBuffer(swapPage, BufferHead.WRITE);
+                swapPage.setModifyFlag(0);
+            }
+            // 释放换出页所占页框，并将对应页表项引用位设为0
+            this.manager.getInMem().releaseUserAreaRun(swapPage.getInternalFrameNo() - InternalMem.USER_AREA_START_PAGE_NO, swapPage.getFrameNum());
+            this.manager.removeTLB(this.pcb, swapLogicPageNo);
+            this.pcb.getCodeSegment().invalidateDecodedPage(swapLogicPageNo);
+            this.manager.getDashboard().consoleInfo("页面换出 -> 逻辑页号：" + swapPage.getLogicPageNo() + " 主存框号：" + swapPage.getInternalFrameNo());
+            swapPage.setCallFlag(0);
+            swapPage.setInternalFrameNo(-1);
+            this.manager.getInMem().writePageItem(swapPageItemAddress, swapPage);
+            return true;
+        }
+        return false;
+    }
 }
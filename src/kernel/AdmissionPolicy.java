@@ -0,0 +1,58 @@
+package kernel;
+
+import java.util.Vector;
+
+/**
+ * 作业准入策略
+ *
+ * 高级调度从内存放得下的后备作业中按策略选择下一个创建进程的作业
+ * 策略由启动参数 admissionPolicy 指定
+ *
+ * @author ZJC
+ */
+public interface AdmissionPolicy {
+    /**
+     * 可选的准入策略名称
+     */
+    String[] POLICY_NAMES = new String[]{"fifo", "sjf", "priority", "fair"};
+
+    /**
+     * 按名称创建准入策略
+     * @param name 策略名称
+     * @return 准入策略，未知名称时返回先来先服务
+     */
+    static AdmissionPolicy create(String name) {
+        switch (name) {
+            case "sjf":
+                return new SJFAdmissionPolicy();
+            case "priority":
+                return new PriorityAdmissionPolicy();
+            case "fair":
+                return new FairShareAdmissionPolicy();
+            case "fifo":
+                return new FIFOAdmissionPolicy();
+            default:
+                System.err.println("未知的准入策略 " + name + "，使用先来先服务");
+                return new FIFOAdmissionPolicy();
+        }
+    }
+
+    /**
+     * 获取策略名称
+     * @return 策略名称
+     */
+    String getName();
+
+    /**
+     * 从候选作业中选择下一个准入的作业
+     * @param candidates 候选作业，非空，按进入后备队列的顺序排列
+     * @return 所选作业
+     */
+    JCB select(Vector<JCB> candidates);
+
+    /**
+     * 作业已准入并创建进程
+     * @param jcb 作业
+     */
+    default void onAdmit(JCB jcb) { }
+}
@@ -0,0 +1,71 @@
+package kernel;
+
+/**
+ * 完全公平调度策略
+ *
+ * 按优先级换算权重，权重取自 Linux nice 值权重表，优先级 1-5 对应 nice -5、-3、0、2、4
+ * 时间片按权重占比分配调度周期：TARGET_LATENCY * 进程权重 / 就绪进程总权重，不小于 MIN_GRANULARITY
+ * 就绪进程总权重由各就绪队列在入队、出队时累计
+ *
+ * @author ZJC
+ */
+public class CFSSchedulerPolicy extends FairSchedulerPolicy {
+    /**
+     * 各优先级的权重，下标为 优先级 - 1
+     */
+    public static final int[] PRIORITY_WEIGHTS = new int[]{3121, 1991, 1024, 655, 423};
+    /**
+     * 调度周期，单位 时钟周期，期间每个就绪进程至少运行一次
+     */
+    public static final int TARGET_LATENCY = 12;
+    /**
+     * 最小时间片，单位 时钟周期
+     */
+    public static final int MIN_GRANULARITY = 1;
+
+    /**
+     * 调度模块
+     */
+    private Schedule schedule;
+
+    public CFSSchedulerPolicy(Schedule schedule) {
+        this.schedule = schedule;
+    }
+
+    @Override
+    public String getName() {
+        return "cfs";
+    }
+
+    /**
+     * 获取优先级对应的权重
+     * @param priority 优先级
+     * @return 权重
+     */
+    public static int getPriorityWeight(int priority) {
+        return PRIORITY_WEIGHTS[Math.max(1, Math.min(priority, PRIORITY_WEIGHTS.length)) - 1];
+    }
+
+    @Override
+    public int getWeight(PCB pcb) {
+        return getPriorityWeight(pcb.getPriority());
+    }
+
+    @Override
+    public long getSleepCredit() {
+        // 允许领先半个调度周期，按 nice 0 的权重计
+        return TARGET_LATENCY / 2 * VIRTUAL_TIME_SCALE / PRIORITY_WEIGHTS[2];
+    }
+
+    @Override
+    public int getTimeSlice(PCB pcb) {
+        long totalWeight = 0;
+        for (RunQueue queue : this.schedule.getAllReadyQueues()) {
+            totalWeight += queue.getTotalWeight();
+        }
+        if (pcb.getRunQueue() == null) {
+            totalWeight += this.getWeight(pcb);
+        }
+        return (int) Math.max(MIN_GRANULARITY, TARGET_LATENCY * this.getWeight(pcb) / totalWeight);
+    }
+}
@@ -10,6 +10,18 @@ import hardware.InternalMem;
  * @author ZJC
  */
 public class CodeSegment {
+    /**
+     * 每条指令占用的字节数
+     */
+    public static final int INSTRUCTION_SIZE = 8;
+    /**
+     * 每页可存储的指令数，512B 页面时为 64 条
+     */
+    public static final int INSTRUCTION_NUM_PER_PAGE = InternalMem.PAGE_SIZE / INSTRUCTION_SIZE;
+    /**
+     * 译码缓存中每条指令占用的字段数，依次为 指令编号、指令状态、指令参数
+     */
+    public static final int DECODED_FIELD_NUM = 3;
     /**
      * 指令数
      */
@@ -26,32 +38,139 @@ public class CodeSegment {
      * 所占页面数
      */
     private int pageNum;
+    /**
+     * 译码缓存，按指令顺序存放已译码的指令字段
+     */
+    private int[] decodedInstructions;
+    /**
+     * 各代码页译码时所在的内存页框号，-1 表示该页译码缓存无效
+     */
+    private int[] decodedFrameNo;
 
     public CodeSegment(int instructionNum, Instruction[] instruction, int logicPageStartNo, int pageNum) {
         this.instructionNum = instructionNum;
         this.instruction = instruction;
         this.logicPageStartNo = logicPageStartNo;
         this.pageNum = pageNum;
+        this.decodedInstructions = new int[instructionNum * DECODED_FIELD_NUM];
+        this.decodedFrameNo = new int[pageNum];
+        this.invalidateAllDecodedPages();
     }
 
-    public Page initCodePage() {
-        Page page = new Page();
-        // 存储指令集
-        byte[] codes = new byte[InternalMem.PAGE_SIZE];
-        for (int i = 0; i < this.instructionNum; i++) {
-            // 每条指令存储8B，一页最多可存64条
-            codes[i * 8 + 0] = (byte) this.instruction[i].getId();
-            codes[i * 8 + 1] = (byte)(this.instruction[i].getId() >> 8);
-            codes[i * 8 + 2] = (byte) this.instruction[i].getState();
-            codes[i * 8 + 3] = (byte)(this.instruction[i].getState() >> 8);
-            codes[i * 8 + 4] = (byte) this.instruction[i].getArgument();
-            codes[i * 8 + 5] = (byte)(this.instruction[i].getArgument() >> 8);
+    /**
+     * 初始化代码段
+     *
+     * 每条指令存储 8B，每页存储 INSTRUCTION_NUM_PER_PAGE 条，指令较多时占用多页
+     * @return 代码段各页信息
+     */
+    public Page[] initCodePages() {
+        Page[] pages = new Page[this.pageNum];
+        for (int p = 0; p < this.pageNum; ++p) {
+            pages[p] = new Page();
+            // 存储指令集
+            byte[] codes = new byte[InternalMem.PAGE_SIZE];
+            for (int j = 0; j < INSTRUCTION_NUM_PER_PAGE; ++j) {
+                int i = p * INSTRUCTION_NUM_PER_PAGE + j;
+                if (i >= this.instructionNum) {
+                    break;
+                }
+                codes[j * INSTRUCTION_SIZE + 0] = (byte) this.instruction[i].getId();
+                codes[j * INSTRUCTION_SIZE + 1] = (byte)(this.instruction[i].getId() >> 8);
+                codes[j * INSTRUCTION_SIZE + 2] = (byte) this.instruction[i].getState();
+                codes[j * INSTRUCTION_SIZE + 3] = (byte)(this.instruction[i].getState() >> 8);
+                codes[j * INSTRUCTION_SIZE + 4] = (byte) this.instruction[i].getArgument();
+                codes[j * INSTRUCTION_SIZE + 5] = (byte)(this.instruction[i].getArgument() >> 8);
+            }
+            pages[p].setLogicPageNo(this.logicPageStartNo + p);
+            pages[p].setInternalFrameNo(-1);
+            pages[p].setData(codes);
         }
-        page.setLogicPageNo(this.logicPageStartNo);
-        page.setInternalFrameNo(-1);
-        page.setData(codes);
 
-        return page;
+        return pages;
+    }
+
+    /**
+     * 对内存中的一个代码页译码，结果存入译码缓存
+     *
+     * 代码页调入后只需译码一次，此后取指直接读取译码缓存，直到该页框被换出
+     * @param logicPageNo 代码页逻辑页号
+     * @param internalFrameNo 代码页所在内存页框号
+     * @param codes 代码页数据
+     */
+    public void decodePage(int logicPageNo, int internalFrameNo, byte[] codes) {
+        int p = logicPageNo - this.logicPageStartNo;
+        for (int j = 0; j < INSTRUCTION_NUM_PER_PAGE; ++j) {
+            int i = p * INSTRUCTION_NUM_PER_PAGE + j;
+            if (i >= this.instructionNum) {
+                break;
+            }
+            int offset = j * INSTRUCTION_SIZE;
+            int index = i * DECODED_FIELD_NUM;
+            this.decodedInstructions[index + 0] = ((((int) codes[offset + 1]) << 8) & 0x0000FF00) | (((int) codes[offset + 0]) & 0x0000FF);
+            this.decodedInstructions[index + 1] = ((((int) codes[offset + 3]) << 8) & 0x0000FF00) | (((int) codes[offset + 2]) & 0x0000FF);
+            this.decodedInstructions[index + 2] = ((((int) codes[offset + 5]) << 8) & 0x0000FF00) | (((int) codes[offset + 4]) & 0x0000FF);
+        }
+        this.decodedFrameNo[p] = internalFrameNo;
+    }
+
+    /**
+     * 获取代码页译码时所在的内存页框号
+     * @param logicPageNo 代码页逻辑页号
+     * @return 内存页框号，译码缓存无效则返回 -1
+     */
+    public int getDecodedFrameNo(int logicPageNo) {
+        return this.decodedFrameNo[logicPageNo - this.logicPageStartNo];
+    }
+
+    /**
+     * 使一个代码页的译码缓存失效，适用于 代码页框被换出或被改写时
+     * @param logicPageNo 逻辑页号，不属于代码段则忽略
+     */
+    public void invalidateDecodedPage(int logicPageNo) {
+        int p = logicPageNo - this.logicPageStartNo;
+        if (p >= 0 && p < this.pageNum) {
+            this.decodedFrameNo[p] = -1;
+        }
+    }
+
+    /**
+     * 使全部代码页的译码缓存失效
+     */
+    public void invalidateAllDecodedPages() {
+        for (int p = 0; p < this.pageNum; ++p) {
+            this.decodedFrameNo[p] = -1;
+        }
+    }
+
+    /**
+     * 计算指令所在的逻辑页号
+     * @param instructionNo 指令编号，从 1 开始
+     * @return 逻辑页号
+     */
+    public int getLogicPageNoOfInstruction(int instructionNo) {
+        return this.logicPageStartNo + (instructionNo - 1) / INSTRUCTION_NUM_PER_PAGE;
+    }
+
+    /**
+     * 计算指令的页内偏移
+     * @param instructionNo 指令编号，从 1 开始
+     * @return 页内偏移
+     */
+    public int getOffsetOfInstruction(int instructionNo) {
+        return (instructionNo - 1) % INSTRUCTION_NUM_PER_PAGE * INSTRUCTION_SIZE;
+    }
+
+    /**
+     * 计算代码段所需页数
+     * @param instructionNum 指令数
+     * @return 页数
+     */
+    public static int getCodePageNum(int instructionNum) {
+        return Math.max(1, (instructionNum + INSTRUCTION_NUM_PER_PAGE - 1) / INSTRUCTION_NUM_PER_PAGE);
+    }
+
+    public int[] getDecodedInstructions() {
+        return decodedInstructions;
     }
 
     public int getInstructionNum() {
@@ -21,24 +21,43 @@ public class DataSegment {
      */
     private int logicPageStartNo;
     /**
-     * 所占页面数
+     * 所占页面数（按普通页计）
      */
     private int pageNum;
+    /**
+     * 大页数，大页位于数据段开头，每个大页占 LARGE_PAGE_FRAME_NUM 个普通页
+     */
+    private int largePageNum;
 
     public DataSegment(byte[] data, int logicPageStartNo, int pageNum) {
+        this(data, logicPageStartNo, pageNum, 0);
+    }
+
+    public DataSegment(byte[] data, int logicPageStartNo, int pageNum, int largePageNum) {
         this.data = data;
         this.logicPageStartNo = logicPageStartNo;
         this.pageNum = pageNum;
+        this.largePageNum = largePageNum;
     }
 
     public Page[] initDataPages() {
         // 数据段随机占用2-10页，需要依次初始化
-        Page[] pages = new Page[this.pageNum];
-        for (int i = 0; i < this.pageNum; ++i) {
+        // 先初始化大页，剩余不足一个大页的部分使用普通页
+        int largePartPageNum = this.largePageNum * InternalMem.LARGE_PAGE_FRAME_NUM;
+        Page[] pages = new Page[this.largePageNum + this.pageNum - largePartPageNum];
+        for (int i = 0; i < this.largePageNum; ++i) {
             pages[i] = new Page();
-            pages[i].setLogicPageNo(this.logicPageStartNo + i);
+            pages[i].setLogicPageNo(this.logicPageStartNo + i * InternalMem.LARGE_PAGE_FRAME_NUM);
             pages[i].setInternalFrameNo(-1);
-            pages[i].setData(Arrays.copyOfRange(this.data, InternalMem.PAGE_SIZE * i, InternalMem.PAGE_SIZE * (i + 1)));
+            pages[i].setLargeFlag(1);
+            pages[i].setData(Arrays.copyOfRange(this.data, InternalMem.LARGE_PAGE_SIZE * i, InternalMem.LARGE_PAGE_SIZE * (i + 1)));
+        }
+        for (int i = largePartPageNum; i < this.pageNum; ++i) {
+            Page page = new Page();
+            page.setLogicPageNo(this.logicPageStartNo + i);
+            page.setInternalFrameNo(-1);
+            page.setData(Arrays.copyOfRange(this.data, InternalMem.PAGE_SIZE * i, InternalMem.PAGE_SIZE * (i + 1)));
+            pages[this.largePageNum + i - largePartPageNum] = page;
         }
         return pages;
     }
@@ -66,4 +85,12 @@ public class DataSegment {
     public void setPageNum(int pageNum) {
         this.pageNum = pageNum;
     }
+
+    public int getLargePageNum() {
+        return largePageNum;
+    }
+
+    public void setLargePageNum(int largePageNum) {
+        this.largePageNum = largePageNum;
+    }
 }
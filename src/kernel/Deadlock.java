@@ -1,5 +1,6 @@
 package kernel;
 
+import hardware.ClockEvent;
 import os.Manager;
 
 import java.util.*;
@@ -11,7 +12,7 @@ import java.util.*;
  *
  * @author ZJC
  */
-public class Deadlock extends Thread {
+public class Deadlock {
     /**
      * 系统管理器，用以获取系统资源
      */
@@ -65,32 +66,63 @@ public class Deadlock extends Thread {
      * 信号量
      */
     private int[] mutexes;
+    /**
+     * 是否已因资源申请阻塞而提交了一次额外的死锁检测
+     */
+    private boolean detectRequested;
 
 
     public Deadlock(Manager manager) {
-        super("Deadlock");
         this.manager = manager;
         this.allocation = new Vector<>();
         this.request = new Vector<>();
         this.available = new int[]{RESOURCE_A_NUM, RESOURCE_B_NUM, RESOURCE_C_NUM};
         this.mutexes = new int[]{RESOURCE_A_NUM, RESOURCE_B_NUM, RESOURCE_C_NUM};
+        this.detectRequested = false;
 
         this.manager.getDashboard().consoleSuccess("死锁检测模块初始化完成");
     }
 
-    @Override
-    public void run() {
-        while (true) {
-            // 每 3 个时钟周期检测一次死锁，并进行处理
-            if (this.manager.getClock().getCurrentTime() % DETECT_CYCLE == 0) {
-                ResourceEdges[] deadlockProcesses = this.detectDeadlock();
-                // 检测到死锁发生，则解除死锁
-                if (deadlockProcesses != null) {
-                    this.manager.getDashboard().consoleError("检测到死锁，尝试解除死锁");
-                    this.removeDeadlock(deadlockProcesses);
-                }
-            }
+    /**
+     * 检测死锁，检测到则解除死锁
+     */
+    public void checkDeadlock() {
+        ResourceEdges[] deadlockProcesses = this.detectDeadlock();
+        // 检测到死锁发生，则解除死锁
+        if (deadlockProcesses != null) {
+            this.manager.getDashboard().consoleError("检测到死锁，尝试解除死锁");
+            this.removeDeadlock(deadlockProcesses);
+        }
+    }
+
+    /**
+     * 以时钟事件方式周期性检测死锁，每 DETECT_CYCLE 个时钟周期检测一次
+     * @param time 下次检测的虚拟时间
+     */
+    public void postDetectEvent(int time) {
+        this.manager.getClock().postEvent(time, ClockEvent.DEADLOCK_DETECT, () -> {
+            this.checkDeadlock();
+            // 时钟跳过空闲周期后，从当前时间之后的检测时刻继续
+            int currentTime = this.manager.getClock().getCurrentTime();
+            int nextTime = Math.max(time + DETECT_CYCLE, currentTime - currentTime % DETECT_CYCLE + DETECT_CYCLE);
+            this.postDetectEvent(nextTime);
+        });
+    }
+
+    /**
+     * 资源申请阻塞时提交一次死锁检测，在下一个时钟周期进行，不必等到检测周期
+     */
+    public synchronized void requestDetect() {
+        if (this.detectRequested) {
+            return;
         }
+        this.detectRequested = true;
+        this.manager.getClock().postEvent(this.manager.getClock().getCurrentTime() + 1, ClockEvent.DEADLOCK_DETECT, () -> {
+            synchronized (this) {
+                this.detectRequested = false;
+            }
+            this.checkDeadlock();
+        });
     }
 
     /**
@@ -173,12 +205,48 @@ public class Deadlock extends Thread {
         return -1;
     }
 
+    /**
+     * 申请资源，P 操作、分配以及分配失败时进程进入资源阻塞队列在同一临界区内完成
+     *
+     * 各核心并行执行资源申请中断，分步执行时两个进程可能都在分配前完成 P 操作而同时阻塞，资源却无人持有
+     * @param pcb 当前运行的进程PCB
+     * @param resourceType 资源类型
+     * @return 是否分配成功，失败时进程已阻塞
+     */
+    public synchronized boolean acquireResource(PCB pcb, int resourceType) {
+        this.applyResource(pcb, resourceType);
+        if (this.tryAllocateResource(pcb, resourceType) == 0) {
+            return true;
+        }
+        this.manager.getDashboard().consoleError("资源 " + resourceType + " 分配失败，进程 " + pcb.getId() + " 阻塞");
+        pcb.block(this.manager.getSchedule().getResourceBlockQueues()[resourceType]);
+        return false;
+    }
+
+    /**
+     * 归还资源，V 操作、重分配给阻塞队列队首进程并唤醒在同一临界区内完成
+     * @param pcb 进程PCB
+     * @param resourceType 资源类型
+     */
+    public synchronized void returnResource(PCB pcb, int resourceType) {
+        this.releaseResource(pcb, resourceType);
+        Vector<PCB> selectedBlockQueue = this.manager.getSchedule().getResourceBlockQueues()[resourceType];
+        PCB headPCB;
+        synchronized (this.manager.getSchedule().getQueueMoveLock()) {
+            headPCB = selectedBlockQueue.isEmpty() ? null : selectedBlockQueue.get(0);
+        }
+        // 如果返回唤醒标志，则唤醒阻塞队列队首进程
+        if (headPCB != null && this.tryReallocateResource(headPCB, resourceType) == -1) {
+            headPCB.wakeUp(selectedBlockQueue);
+        }
+    }
+
     /**
      * 分配资源
      * @param pcb 进程PCB
      * @param resourceType 资源类型
      */
-    public synchronized void applyResource(PCB pcb, int resourceType) {
+    private void applyResource(PCB pcb, int resourceType) {
         this.P(resourceType);
         // 添加在申请向量
         this.addRequest(pcb.getId(), resourceType);
@@ -189,7 +257,7 @@ public class Deadlock extends Thread {
      * @param pcb 进程PCB
      * @param resourceType 资源类型
      */
-    public synchronized void releaseResource(PCB pcb, int resourceType) {
+    private void releaseResource(PCB pcb, int resourceType) {
         this.V(resourceType);
         // 删除已分配向量
         this.removeAllocation(pcb.getId(), resourceType);
@@ -204,9 +272,10 @@ public class Deadlock extends Thread {
      * @param resourceType 资源类型
      * @return 分配结果
      */
-    public synchronized int tryAllocateResource(PCB pcb, int resourceType) {
+    private int tryAllocateResource(PCB pcb, int resourceType) {
         if (this.mutexes[resourceType] < 0) {
-            // 信号量为负数，则申请失败
+            // 信号量为负数，则申请失败，进程阻塞后可能形成死锁
+            this.requestDetect();
             // 返回阻塞标志
             return -1;
         } else {
@@ -228,7 +297,7 @@ public class Deadlock extends Thread {
      * @param resourceType 资源类型
      * @return 分配结果
      */
-    public synchronized int tryReallocateResource(PCB pcb, int resourceType) {
+    private int tryReallocateResource(PCB pcb, int resourceType) {
         if (this.mutexes[resourceType] > 0) {
             // 信号量为正数，则系统中没有进程在申请该资源
             // 返回成功标志
@@ -253,74 +322,73 @@ public class Deadlock extends Thread {
      */
     public synchronized ResourceEdges[] detectDeadlock() {
         // 以进程为单位，整理资源已分配和在申请情况
-        HashMap<String, ResourceEdges> processResourceInfo = new HashMap<>();
+        IntHashMap<ResourceEdges> processResourceInfo = new IntHashMap<>();
         for (int i = 0; i < this.request.size(); ++i) {
             int[] requestInfo = this.request.get(i);
-            if (!processResourceInfo.containsKey("" + requestInfo[0])) {
-                ResourceEdges resourceEdges = new ResourceEdges(requestInfo[0]);
-                resourceEdges.addRequestEdge(requestInfo[1]);
-                processResourceInfo.put("" + requestInfo[0], resourceEdges);
-            } else {
-                processResourceInfo.get("" + requestInfo[0]).addRequestEdge(requestInfo[1]);
+            ResourceEdges resourceEdges = processResourceInfo.get(requestInfo[0]);
+            if (resourceEdges == null) {
+                resourceEdges = new ResourceEdges(requestInfo[0]);
+                processResourceInfo.put(requestInfo[0], resourceEdges);
             }
+            resourceEdges.addRequestEdge(requestInfo[1]);
         }
         for (int i = 0; i < this.allocation.size(); ++i) {
             int[] allocationInfo = this.allocation.get(i);
-            if (!processResourceInfo.containsKey("" + allocationInfo[0])) {
-                ResourceEdges resourceEdges = new ResourceEdges(allocationInfo[0]);
-                resourceEdges.addAllocationEdge(allocationInfo[1]);
-                processResourceInfo.put("" + allocationInfo[0], resourceEdges);
-            } else {
-                processResourceInfo.get("" + allocationInfo[0]).addAllocationEdge(allocationInfo[1]);
+            ResourceEdges resourceEdges = processResourceInfo.get(allocationInfo[0]);
+            if (resourceEdges == null) {
+                resourceEdges = new ResourceEdges(allocationInfo[0]);
+                processResourceInfo.put(allocationInfo[0], resourceEdges);
+            }
+            resourceEdges.addAllocationEdge(allocationInfo[1]);
+        }
+        // 整理为结点列表，便于化简时删除
+        Vector<ResourceEdges> nodes = new Vector<>(processResourceInfo.size());
+        for (int i = 0; i < processResourceInfo.capacity(); ++i) {
+            if (processResourceInfo.getValueAt(i) != null) {
+                nodes.add(processResourceInfo.getValueAt(i));
             }
         }
         // 获取当前系统中空闲资源数
         int[] currentAvailable = Arrays.copyOf(this.available, this.available.length);
 
         // 开始死锁检测，采用资源分配图算法
-        while (processResourceInfo.size() != 0) {
+        while (nodes.size() != 0) {
             boolean canSimplify = false;
-            Iterator<Map.Entry<String, ResourceEdges>> iterator = processResourceInfo.entrySet().iterator();
+            Iterator<ResourceEdges> iterator = nodes.iterator();
 
             // 遍历所有结点
             while (iterator.hasNext()) {
-                Map.Entry<String, ResourceEdges> entry = iterator.next();
+                ResourceEdges node = iterator.next();
                 // 仅有请求边的，不做考虑
-                if (entry.getValue().isOnlyRequest()) {
+                if (node.isOnlyRequest()) {
                     iterator.remove();
                     canSimplify = true;
                     continue;
                 }
                 // 仅有分配边的，释放所有资源（孤立）
-                if (entry.getValue().isOnlyAllocation()) {
-                    entry.getValue().releaseAllAllocationEdge(currentAvailable);
+                if (node.isOnlyAllocation()) {
+                    node.releaseAllAllocationEdge(currentAvailable);
                     iterator.remove();
                     canSimplify = true;
                     continue;
                 }
                 // 既有请求边又有分配边的，尝试将刚刚释放的资源分配给这些结点
-                for (int i = 0; i < entry.getValue().getRequestEdges().length; ++i) {
+                for (int i = 0; i < node.getRequestEdges().length; ++i) {
                     // 结点需要某资源，且该资源有空闲，则分配
-                    if (entry.getValue().getRequestEdges()[i] != 0 && currentAvailable[i] != 0) {
+                    if (node.getRequestEdges()[i] != 0 && currentAvailable[i] != 0) {
                         --currentAvailable[i];
-                        entry.getValue().removeRequestEdge(i);
-                        entry.getValue().addAllocationEdge(i);
+                        node.removeRequestEdge(i);
+                        node.addAllocationEdge(i);
                         canSimplify = true;
                     }
                 }
             }
             // 如果资源分配图不可完全简化，则返回死锁结点
             if (!canSimplify) {
-                ResourceEdges[] deadlockNodes = new ResourceEdges[processResourceInfo.size()];
-                iterator = processResourceInfo.entrySet().iterator();
-                int i = 0;
-                while (iterator.hasNext()) {
-                    deadlockNodes[i++] = iterator.next().getValue();
-                }
-                return deadlockNodes;
+                return nodes.toArray(new ResourceEdges[nodes.size()]);
             }
         }
-        // 如果最后能够消除Map内的所有结点（资源分配图可完全简化），则返回无死锁标志
+        // 如果最后能够消除所有结点（资源分配图可完全简化），则返回无死锁标志
         return null;
     }
 
@@ -330,14 +398,21 @@ public class Deadlock extends Thread {
      */
     public synchronized void removeDeadlock(ResourceEdges[] deadlockNodes) {
         ResourceEdges robNode = deadlockNodes[0];
-        PCB robPCB = null;
-        PCB allocatePCB = null;
         for (int i = 0; i < robNode.getAllocationEdges().length; ++i) {
             // 剥夺该死锁进程的所有已分配资源
             if(robNode.getAllocationEdges()[i] != 0) {
-                for (int j = 1; j < deadlockNodes.length; ++i) {
+                for (int j = 1; j < deadlockNodes.length; ++j) {
                     // 如果存在其他死锁进程申请这个资源，则进行重分配
                     if (deadlockNodes[j].getRequestEdges()[i] != 0) {
+                        // 由进程表查找对应进程，已撤销的进程只剩摘要，不参与重分配
+                        PCB robPCB = this.manager.getSchedule().getPCB(robNode.getProcessId());
+                        if (robPCB == null) {
+                            break;
+                        }
+                        PCB allocatePCB = this.manager.getSchedule().getPCB(deadlockNodes[j].getProcessId());
+                        if (allocatePCB == null) {
+                            continue;
+                        }
                         // 剥夺已分配资源
                         this.removeAllocation(robNode.getProcessId(), i);
                         this.addRequest(robNode.getProcessId(), i);
@@ -351,24 +426,10 @@ public class Deadlock extends Thread {
                         this.manager.getDashboard().consoleInfo("剥夺资源 " + i +
                                 " 进程 " + robNode.getProcessId() +
                                 " -> 进程 " + deadlockNodes[j].getProcessId());
-                        synchronized (this.manager.getSchedule()) {
-                            Vector<PCB> allPCBQueue = this.manager.getSchedule().getAllPCBQueue();
+                        synchronized (this.manager.getSchedule().getQueueMoveLock()) {
                             Vector<PCB> selectedBlockQueue = this.manager.getSchedule().getResourceBlockQueues()[i];
-                            for (int k = 0; k < allPCBQueue.size(); ++k) {
-                                if (robPCB == null && allPCBQueue.get(k).getId() == robNode.getProcessId()) {
-                                    robPCB = allPCBQueue.get(k);
-                                }
-                                if (allocatePCB == null && allPCBQueue.get(k).getId() == deadlockNodes[j].getProcessId()) {
-                                    allocatePCB = allPCBQueue.get(k);
-                                }
-                                if (robPCB != null && allocatePCB != null) {
-                                    break;
-                                }
-                            }
                             allocatePCB.wakeUp(selectedBlockQueue);
                             selectedBlockQueue.add(0, robPCB);
-
-                            allocatePCB = null;
                         }
                         break;
                     }
@@ -1,9 +1,11 @@
 package kernel;
 
+import hardware.BuddyAllocator;
 import hardware.InternalMem;
 import os.Manager;
 
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 import static java.lang.Thread.sleep;
 
@@ -27,11 +29,16 @@ public class DeviceManage {
      * 缓冲区空闲位示图 0空闲 1占用
      */
     private byte[] bufferBitMap;
+    /**
+     * 缓冲区伙伴系统分配器，可分配连续缓冲区供大页整体传输
+     */
+    private BuddyAllocator bufferAllocator;
 
     public DeviceManage(Manager manager) {
         this.manager = manager;
         this.buffers = new BufferHead[InternalMem.BUFFER_AREA_PAGE_NUM];
         this.bufferBitMap = new byte[InternalMem.BUFFER_AREA_PAGE_NUM / 8];
+        this.bufferAllocator = new BuddyAllocator("缓冲区", InternalMem.BUFFER_AREA_PAGE_NUM);
         for (int i = 0; i < this.buffers.length; ++i) {
             this.buffers[i] = new BufferHead(FileSystem.DEVICE_NO, i, -1, -1, BufferHead.FREE);
         }
@@ -70,13 +77,24 @@ public class DeviceManage {
      * @return 分配到的缓冲区编号
      */
     public int allocateBuffer() {
+        return this.allocateBuffers(1);
+    }
+
+    /**
+     * 分配连续缓冲区，资源不足时等待
+     * @param bufferNum 所需缓冲区数
+     * @return 起始缓冲区编号
+     */
+    public int allocateBuffers(int bufferNum) {
         int freeBufferIndex = -1;
         while (true) {
             synchronized (this) {
                 // 申请资源
-                freeBufferIndex = this.findFreeIndexOfBufferArea();
+                freeBufferIndex = this.bufferAllocator.allocate(bufferNum);
                 if (freeBufferIndex != -1) {
-                    this.applyBuffer(freeBufferIndex);
+                    for (int i = 0; i < this.bufferAllocator.getBlockSize(freeBufferIndex); ++i) {
+                        this.applyBuffer(freeBufferIndex + i);
+                    }
                     break;
                 }
             }
@@ -91,15 +109,19 @@ public class DeviceManage {
     }
 
     /**
-     * 释放缓冲区
+     * 释放缓冲区，连续分配的缓冲区一并释放
      * @param bufferNo 缓冲区编号
      */
     public synchronized void releaseBuffer(int bufferNo) {
-        byte data = (byte) ~(0x01 << (7 - bufferNo % 8));
-        this.bufferBitMap[bufferNo / 8] &= data;
+        int bufferNum = this.bufferAllocator.getBlockSize(bufferNo);
+        for (int i = bufferNo; i < bufferNo + bufferNum; ++i) {
+            byte data = (byte) ~(0x01 << (7 - i % 8));
+            this.bufferBitMap[i / 8] &= data;
 
-        this.manager.getDashboard().consoleInfo("释放缓冲区 " + bufferNo);
-        this.manager.getDashboard().refreshFrame(bufferNo + InternalMem.BUFFER_AREA_START_PAGE_NO, 0);
+            this.manager.getDashboard().consoleInfo("释放缓冲区 " + i);
+            this.manager.getDashboard().refreshFrame(i + InternalMem.BUFFER_AREA_START_PAGE_NO, 0);
+        }
+        this.bufferAllocator.release(bufferNo);
     }
 
     /**
@@ -108,11 +130,12 @@ public class DeviceManage {
      */
     public void bufferRead(int bufferNo) {
         int blockNo = this.buffers[bufferNo].getBlockNo();
-        byte[] data = new byte[InternalMem.PAGE_SIZE];
+        byte[] data = Page.DATA_POOL.acquire();
         this.manager.getCpu().switchToKernelState();
         this.manager.getExMem().readPage(blockNo, data);
         this.manager.getCpu().switchToUserState();
         this.setBufferContent(bufferNo, data);
+        Page.DATA_POOL.release(data);
     }
 
     /**
@@ -133,12 +156,32 @@ public class DeviceManage {
      * @return 缓冲区数据
      */
     public byte[] getBufferContent(int bufferNo) {
+        return this.getBufferContent(bufferNo, 1);
+    }
+
+    /**
+     * 获取连续缓冲区内容
+     * @param bufferNo 起始缓冲区序号
+     * @param bufferNum 缓冲区数
+     * @return 缓冲区数据
+     */
+    public byte[] getBufferContent(int bufferNo, int bufferNum) {
         int startIndex = (InternalMem.BUFFER_AREA_START_PAGE_NO + bufferNo) * InternalMem.PAGE_SIZE;
-        int endIndex = startIndex + InternalMem.PAGE_SIZE;
+        int endIndex = startIndex + bufferNum * InternalMem.PAGE_SIZE;
         byte[] data = Arrays.copyOfRange(this.manager.getInMem().getMemery(), startIndex, endIndex);
         return data;
     }
 
+    /**
+     * 将缓冲区内容复制到指定数组，避免新建数组
+     * @param bufferNo 缓冲区序号
+     * @param data 目标数组
+     */
+    public void copyBufferContent(int bufferNo, byte[] data) {
+        System.arraycopy(this.manager.getInMem().getMemery(), (InternalMem.BUFFER_AREA_START_PAGE_NO + bufferNo) * InternalMem.PAGE_SIZE,
+                data, 0, InternalMem.PAGE_SIZE);
+    }
+
     /**
      * 设置缓冲区内容
      * @param bufferNo 缓冲区序号
@@ -152,15 +195,35 @@ public class DeviceManage {
 
     /**
      * 调用缓冲区
+     *
+     * 传输在设备线程中进行，返回的 Future 在传输完成后完成，读操作此时页数据已就绪
+     * 调用者据此登记完成回调或阻塞等待，不轮询页数据；写操作已复制数据快照，可不等待
      * @param page 页信息
      * @param mode 打开方式
+     * @return 传输完成的 Future
      */
-    public void useBuffer(Page page, int mode) {
+    public CompletableFuture<Void> useBuffer(Page page, int mode) {
+        // 大页连续占用多个外存块，需要逐块传输
+        if (page.getLargeFlag() == 1) {
+            return this.useBufferForLargePage(page, mode);
+        }
+        // 读操作复用页原有的数据数组；写操作先复制一份快照，调用者可立即修改或归还原数组
+        byte[] readTarget = null;
+        byte[] writeData = null;
         if (mode == BufferHead.READ) {
+            readTarget = page.getData();
+            if (readTarget == null || readTarget.length != InternalMem.PAGE_SIZE) {
+                readTarget = new byte[InternalMem.PAGE_SIZE];
+            }
             page.setData(null);
+        } else if (mode == BufferHead.WRITE) {
+            writeData = Page.DATA_POOL.acquire();
+            System.arraycopy(page.getData(), 0, writeData, 0, InternalMem.PAGE_SIZE);
         }
+        byte[] finalReadTarget = readTarget;
+        byte[] finalWriteData = writeData;
         DeviceManage deviceManage = this;
-        new Thread() {
+        return this.startTransfer(new Runnable() {
             @Override
             public void run() {
                 int freeBufferIndex = deviceManage.allocateBuffer();
@@ -176,18 +239,136 @@ public class DeviceManage {
                     manager.getDashboard().consoleLog("外存块 " + bufferHead.getBlockNo() +
                             " --读取--> 缓冲区 " + bufferHead.getBufferNo());
                     deviceManage.bufferRead(bufferHead.getBufferNo());
-                    page.setData(deviceManage.getBufferContent(bufferHead.getBufferNo()));
+                    deviceManage.copyBufferContent(bufferHead.getBufferNo(), finalReadTarget);
+                    page.setData(finalReadTarget);
                 } else if (mode == BufferHead.WRITE) {
                     manager.getDashboard().consoleLog("缓冲区 " + bufferHead.getBufferNo() +
                             " --写入--> 外存块 " + bufferHead.getBlockNo());
-                    deviceManage.setBufferContent(bufferHead.getBufferNo(), page.getData());
+                    deviceManage.setBufferContent(bufferHead.getBufferNo(), finalWriteData);
                     deviceManage.bufferWrite(bufferHead.getBufferNo());
+                    Page.DATA_POOL.release(finalWriteData);
                 }
                 // 释放资源
                 deviceManage.releaseBuffer(bufferHead.getBufferNo());
             }
-        }.start();
+        });
+
+    }
+
+    /**
+     * 调用缓冲区传输大页
+     *
+     * 大页使用连续缓冲区整体传输，缓冲区总数不足一个大页时拆分为若干普通页逐块传输
+     * @param page 大页信息
+     * @param mode 打开方式
+     * @return 传输完成的 Future
+     */
+    public CompletableFuture<Void> useBufferForLargePage(Page page, int mode) {
+        int frameNum = page.getFrameNum();
+        if (frameNum > InternalMem.BUFFER_AREA_PAGE_NUM) {
+            return this.useBufferForLargePageByBlock(page, mode);
+        }
+        if (mode == BufferHead.READ) {
+            page.setData(null);
+        }
+        DeviceManage deviceManage = this;
+        return this.startTransfer(new Runnable() {
+            @Override
+            public void run() {
+                int startBufferIndex = deviceManage.allocateBuffers(frameNum);
+                for (int i = 0; i < frameNum; ++i) {
+                    // 设置相关对应关系
+                    BufferHead bufferHead = deviceManage.getBuffers()[startBufferIndex + i];
+                    bufferHead.setFlag(mode);
+                    bufferHead.setFrameNo(page.getInternalFrameNo() == -1 ? -1 : page.getInternalFrameNo() + i);
+                    bufferHead.setBlockNo(page.getExternalBlockNo() + i);
+                }
+                // 具体的读写操作，连续缓冲区与大页数据整体复制
+                if (mode == BufferHead.READ) {
+                    manager.getDashboard().consoleLog("外存块 " + page.getExternalBlockNo() + "-" + (page.getExternalBlockNo() + frameNum - 1) +
+                            " --读取--> 缓冲区 " + startBufferIndex + "-" + (startBufferIndex + frameNum - 1));
+                    for (int i = 0; i < frameNum; ++i) {
+                        deviceManage.bufferRead(startBufferIndex + i);
+                    }
+                    page.setData(deviceManage.getBufferContent(startBufferIndex, frameNum));
+                } else if (mode == BufferHead.WRITE) {
+                    manager.getDashboard().consoleLog("缓冲区 " + startBufferIndex + "-" + (startBufferIndex + frameNum - 1) +
+                            " --写入--> 外存块 " + page.getExternalBlockNo() + "-" + (page.getExternalBlockNo() + frameNum - 1));
+                    deviceManage.setBufferContent(startBufferIndex, Arrays.copyOf(page.getData(), frameNum * InternalMem.PAGE_SIZE));
+                    for (int i = 0; i < frameNum; ++i) {
+                        deviceManage.bufferWrite(startBufferIndex + i);
+                    }
+                }
+                // 释放资源
+                deviceManage.releaseBuffer(startBufferIndex);
+            }
+        });
+    }
+
+    /**
+     * 调用缓冲区逐块传输大页
+     *
+     * 大页拆分为若干普通页逐块传输，读操作全部完成后再拼装数据
+     * @param page 大页信息
+     * @param mode 打开方式
+     * @return 全部块传输完成的 Future，读操作完成时大页数据已拼装
+     */
+    public CompletableFuture<Void> useBufferForLargePageByBlock(Page page, int mode) {
+        int frameNum = page.getFrameNum();
+        Page[] blockPages = new Page[frameNum];
+        byte[] data = page.getData();
+        for (int i = 0; i < frameNum; ++i) {
+            blockPages[i] = new Page();
+            blockPages[i].setLogicPageNo(page.getLogicPageNo() + i);
+            blockPages[i].setInternalFrameNo(page.getInternalFrameNo() == -1 ? -1 : page.getInternalFrameNo() + i);
+            blockPages[i].setExternalBlockNo(page.getExternalBlockNo() + i);
+            if (mode == BufferHead.WRITE) {
+                blockPages[i].setData(Arrays.copyOfRange(data, i * InternalMem.PAGE_SIZE, (i + 1) * InternalMem.PAGE_SIZE));
+            }
+        }
+        if (mode == BufferHead.READ) {
+            page.setData(null);
+        }
+        CompletableFuture<?>[] blockFinishes = new CompletableFuture<?>[frameNum];
+        for (int i = 0; i < frameNum; ++i) {
+            blockFinishes[i] = this.useBuffer(blockPages[i], mode);
+        }
+        CompletableFuture<Void> allFinish = CompletableFuture.allOf(blockFinishes);
+        if (mode != BufferHead.READ) {
+            return allFinish;
+        }
+        // 全部块读取完成后，由完成最后一块的线程拼装大页数据
+        return allFinish.thenRun(() -> {
+            byte[] largeData = new byte[InternalMem.LARGE_PAGE_SIZE];
+            for (int i = 0; i < blockPages.length; ++i) {
+                System.arraycopy(blockPages[i].getData(), 0, largeData, i * InternalMem.PAGE_SIZE, InternalMem.PAGE_SIZE);
+            }
+            page.setData(largeData);
+        });
+    }
 
+    /**
+     * 启动传输线程，确定性仿真模式下在调用线程中同步完成
+     * @param transfer 传输过程
+     * @return 传输完成的 Future
+     */
+    private CompletableFuture<Void> startTransfer(Runnable transfer) {
+        CompletableFuture<Void> transferFinish = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                transfer.run();
+                transferFinish.complete(null);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                transferFinish.completeExceptionally(e);
+            }
+        };
+        if (Manager.DETERMINISTIC) {
+            task.run();
+        } else {
+            new Thread(task).start();
+        }
+        return transferFinish;
     }
 
     public Manager getManager() {
@@ -206,6 +387,10 @@ public class DeviceManage {
         this.buffers = buffers;
     }
 
+    public BuddyAllocator getBufferAllocator() {
+        return bufferAllocator;
+    }
+
     public byte[] getBufferBitMap() {
         return bufferBitMap;
     }
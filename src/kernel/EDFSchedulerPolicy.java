@@ -0,0 +1,35 @@
+package kernel;
+
+/**
+ * 最早截止时间优先调度策略
+ *
+ * 选择截止时间最早的进程，同截止时间按优先级，时间片固定为系统时间片
+ * 截止时间取自作业请求文件的第 6 列，未给出时按指令数估算，见 JobManage.DEFAULT_DEADLINE_FACTOR
+ *
+ * @author ZJC
+ */
+public class EDFSchedulerPolicy implements SchedulerPolicy {
+    @Override
+    public String getName() {
+        return "edf";
+    }
+
+    @Override
+    public PCB select(RunQueue[] queues) {
+        PCB selectedPCB = null;
+        for (RunQueue queue : queues) {
+            for (PCB pcb : queue) {
+                if (selectedPCB == null || pcb.getDeadline() < selectedPCB.getDeadline() ||
+                        (pcb.getDeadline() == selectedPCB.getDeadline() && pcb.getPriority() < selectedPCB.getPriority())) {
+                    selectedPCB = pcb;
+                }
+            }
+        }
+        return selectedPCB;
+    }
+
+    @Override
+    public int getTimeSlice(PCB pcb) {
+        return Schedule.SYSTEM_TIME_SLICE;
+    }
+}
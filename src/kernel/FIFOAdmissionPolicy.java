@@ -0,0 +1,22 @@
+package kernel;
+
+import java.util.Vector;
+
+/**
+ * 先来先服务准入策略
+ *
+ * 选择最早进入后备队列的作业，放不下的作业由后面的小作业补位
+ *
+ * @author ZJC
+ */
+public class FIFOAdmissionPolicy implements AdmissionPolicy {
+    @Override
+    public String getName() {
+        return "fifo";
+    }
+
+    @Override
+    public JCB select(Vector<JCB> candidates) {
+        return candidates.get(0);
+    }
+}
@@ -0,0 +1,66 @@
+package kernel;
+
+/**
+ * 按权重公平分配 CPU 的调度策略基类
+ *
+ * 每个进程维护虚拟时间，运行一个时钟周期增加 VIRTUAL_TIME_SCALE / 权重，总是选择虚拟时间最小的进程，
+ * 因此各进程获得的 CPU 时间与权重成正比
+ * 新建进程的虚拟时间取当前最小虚拟时间；长时间阻塞后唤醒的进程最多领先 SLEEP_CREDIT，避免积累过多时间后长期独占 CPU
+ * 各就绪队列按虚拟时间维护平衡树，选择时只比较各候选队列的最小进程；进程在队列中时虚拟时间作为树的键不能修改，
+ * 因此唤醒进程的领先限制在其开始运行、按周期记账时施加
+ *
+ * @author ZJC
+ */
+public abstract class FairSchedulerPolicy implements SchedulerPolicy {
+    /**
+     * 虚拟时间的刻度，权重为该值时运行一个时钟周期虚拟时间增加 1
+     */
+    public static final long VIRTUAL_TIME_SCALE = 1 << 20;
+
+    /**
+     * 已选中进程的最小虚拟时间，单调不减
+     */
+    private long minVirtualTime;
+
+    public FairSchedulerPolicy() {
+        this.minVirtualTime = 0;
+    }
+
+    /**
+     * 获取进程的权重
+     * @param pcb 进程
+     * @return 权重，正数
+     */
+    public abstract int getWeight(PCB pcb);
+
+    /**
+     * 获取唤醒进程相对最小虚拟时间允许领先的量
+     * @return 虚拟时间
+     */
+    public abstract long getSleepCredit();
+
+    @Override
+    public synchronized PCB select(RunQueue[] queues) {
+        PCB selectedPCB = null;
+        for (RunQueue queue : queues) {
+            PCB pcb = queue.getFirstByVirtualTime();
+            if (pcb != null && (selectedPCB == null || RunQueue.VIRTUAL_TIME_ORDER.compare(pcb, selectedPCB) < 0)) {
+                selectedPCB = pcb;
+            }
+        }
+        this.minVirtualTime = Math.max(this.minVirtualTime, selectedPCB.getVirtualTime());
+        return selectedPCB;
+    }
+
+    @Override
+    public synchronized void onCreate(PCB pcb) {
+        pcb.setVirtualTime(this.minVirtualTime);
+    }
+
+    @Override
+    public synchronized void onTick(PCB pcb) {
+        // 长时间阻塞后唤醒的进程最多领先 SLEEP_CREDIT
+        long virtualTime = Math.max(pcb.getVirtualTime(), this.minVirtualTime - this.getSleepCredit());
+        pcb.setVirtualTime(virtualTime + VIRTUAL_TIME_SCALE / this.getWeight(pcb));
+    }
+}
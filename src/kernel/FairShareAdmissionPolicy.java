@@ -0,0 +1,66 @@
+package kernel;
+
+import java.util.Vector;
+
+/**
+ * 公平份额准入策略
+ *
+ * 按优先级将作业分组，各组份额为 6 - 优先级，与彩票调度的票数成正比，
+ * 选择 已准入指令数 / 票数 最小的组中最早进入后备队列的作业，避免低优先级作业长期无法准入
+ *
+ * @author ZJC
+ */
+public class FairShareAdmissionPolicy implements AdmissionPolicy {
+    /**
+     * 优先级分组数
+     */
+    public static final int GROUP_NUM = 5;
+
+    /**
+     * 各组已准入的指令数，下标为 优先级 - 1
+     */
+    private long[] admittedInstructionNums;
+
+    public FairShareAdmissionPolicy() {
+        this.admittedInstructionNums = new long[GROUP_NUM];
+    }
+
+    @Override
+    public String getName() {
+        return "fair";
+    }
+
+    @Override
+    public JCB select(Vector<JCB> candidates) {
+        JCB selectedJcb = candidates.get(0);
+        for (JCB jcb : candidates) {
+            if (this.getUsage(jcb) < this.getUsage(selectedJcb)) {
+                selectedJcb = jcb;
+            }
+        }
+        return selectedJcb;
+    }
+
+    @Override
+    public void onAdmit(JCB jcb) {
+        this.admittedInstructionNums[getGroup(jcb)] += jcb.getInstructionNum();
+    }
+
+    /**
+     * 获取作业所在组按份额归一化的已准入量
+     * @param jcb 作业
+     * @return 已准入指令数 / 票数
+     */
+    private double getUsage(JCB jcb) {
+        return (double) this.admittedInstructionNums[getGroup(jcb)] / Math.max(1, 6 - jcb.getPriority());
+    }
+
+    /**
+     * 获取作业所在的组
+     * @param jcb 作业
+     * @return 组号
+     */
+    private static int getGroup(JCB jcb) {
+        return Math.max(1, Math.min(jcb.getPriority(), GROUP_NUM)) - 1;
+    }
+}
@@ -24,6 +24,10 @@ public class FileSystem {
      * inode大小 单位：B
      */
     public static final int INODE_SIZE = 32;
+    /**
+     * inode 总数
+     */
+    public static final int INODE_NUM = ExternalMem.INODE_AREA_BLOCK_NUM * ExternalMem.SECTOR_SIZE / INODE_SIZE;
     /**
      * 文件默认权限 775
      */
@@ -44,9 +48,9 @@ public class FileSystem {
      */
     private Vector<SystemFileItem> systemOpenFileTable;
     /**
-     * 磁盘 inode表
+     * 磁盘 inode表，以 inode 编号为下标
      */
-    private HashMap<String, DiskInode> diskInodeMap;
+    private DiskInode[] diskInodeTable;
     /**
      * 超级块
      */
@@ -84,7 +88,7 @@ public class FileSystem {
         this.manager                = manager;
         this.activityInodeList      = new Vector<>();
         this.systemOpenFileTable    = new Vector<>();
-        this.diskInodeMap           = new HashMap<>();
+        this.diskInodeTable         = new DiskInode[INODE_NUM];
         this.isRoot                 = false;
         this.rootOpenFileTable      = new Vector<>();
         this.openFileCount          = 0;
@@ -116,7 +120,7 @@ public class FileSystem {
                 ExternalMem.INODE_AREA_BLOCK_NUM,
                 ExternalMem.CYLINDER_NUM * ExternalMem.TRACK_NUM * ExternalMem.SECTOR_NUM,
                 ExternalMem.STORE_AREA_BLOCK_NUM,
-                ExternalMem.INODE_AREA_BLOCK_NUM * ExternalMem.SECTOR_SIZE / INODE_SIZE
+                INODE_NUM
         );
         // 保存到外存 #1
         this.superBlock.saveToDisk();
@@ -141,7 +145,7 @@ public class FileSystem {
         // 保存到磁盘inode区
         this.rootDir.saveToDisk(freeInodeIndex);
         // 添加到磁盘inode列表
-        this.diskInodeMap.put("" + freeInodeIndex, this.rootDir);
+        this.diskInodeTable[freeInodeIndex] = this.rootDir;
 
         // 设置当前目录、根目录等信息
         this.currentDir         = this.rootDir;
@@ -176,7 +180,7 @@ public class FileSystem {
             // 保存到磁盘inode区
             diskInode.saveToDisk(freeInodeIndex);
             // 添加到磁盘inode表
-            this.diskInodeMap.put("" + freeInodeIndex, diskInode);
+            this.diskInodeTable[freeInodeIndex] = diskInode;
             // 为父节点添加目录项
             this.rootDir.addDir(freeInodeIndex, baseDirList[i]);
         }
@@ -223,7 +227,7 @@ public class FileSystem {
                 throw new Exception();
             }
             // 存在且可执行，则设置当前inode
-            currentInode = this.diskInodeMap.get("" + currentInode.getDirectoryItemList().get(directoryItemIndex).getInodeNo());
+            currentInode = this.diskInodeTable[currentInode.getDirectoryItemList().get(directoryItemIndex).getInodeNo()];
         }
         return currentInode;
     }
@@ -240,7 +244,7 @@ public class FileSystem {
         int currentDirInodeNo;
         while (currentDir.getParentDir().getInodeNo() != currentDir.getCurrentDir().getInodeNo()) {
             currentDirInodeNo = currentDir.getCurrentDir().getInodeNo();
-            parentDir = this.diskInodeMap.get("" + currentDir.getParentDir().getInodeNo());
+            parentDir = this.diskInodeTable[currentDir.getParentDir().getInodeNo()];
             path = "/" + parentDir.getDirectoryItemList().get(parentDir.findDirectoryItem(currentDirInodeNo)).getFileName() + path;
             currentDir = parentDir;
         }
@@ -405,7 +409,7 @@ public class FileSystem {
                 // 保存到磁盘inode区
                 diskInode.saveToDisk(freeInodeIndex);
                 // 添加到磁盘inode表
-                this.diskInodeMap.put("" + freeInodeIndex, diskInode);
+                this.diskInodeTable[freeInodeIndex] = diskInode;
                 // 为当前节点添加目录项
                 currentInode.addDir(freeInodeIndex, fileName);
                 // 执行打开操作
@@ -414,7 +418,7 @@ public class FileSystem {
             // 设置当前inode信息
             DiskInode oldInode = currentInode;
             currentInode = directoryItemIndex != -1 ?
-                    this.diskInodeMap.get("" + oldInode.getDirectoryItemList().get(directoryItemIndex).getInodeNo()) : diskInode;
+                    this.diskInodeTable[oldInode.getDirectoryItemList().get(directoryItemIndex).getInodeNo()] : diskInode;
             currentInodeNo = directoryItemIndex != -1 ?
                     oldInode.getDirectoryItemList().get(directoryItemIndex).getInodeNo() : freeInodeIndex;
             currentFilePath += "/" + fileName;
@@ -490,7 +494,7 @@ public class FileSystem {
                 // 保存到磁盘inode区
                 diskInode.saveToDisk(freeInodeIndex);
                 // 添加到磁盘inode表
-                this.diskInodeMap.put("" + freeInodeIndex, diskInode);
+                this.diskInodeTable[freeInodeIndex] = diskInode;
                 // 为当前节点添加目录项
                 currentInode.addDir(freeInodeIndex, fileName);
                 // 执行打开操作
@@ -500,7 +504,7 @@ public class FileSystem {
             // 设置当前inode信息
             DiskInode oldInode = currentInode;
             currentInode = directoryItemIndex != -1 ?
-                    this.diskInodeMap.get("" + oldInode.getDirectoryItemList().get(directoryItemIndex).getInodeNo()) : diskInode;
+                    this.diskInodeTable[oldInode.getDirectoryItemList().get(directoryItemIndex).getInodeNo()] : diskInode;
             currentInodeNo = directoryItemIndex != -1 ?
                     oldInode.getDirectoryItemList().get(directoryItemIndex).getInodeNo() : freeInodeIndex;
             currentFilePath += "/" + fileName;
@@ -618,7 +622,7 @@ public class FileSystem {
             return 0;
         }
         // 获取磁盘inode
-        DiskInode diskInode = this.diskInodeMap.get("" + systemFileItem.getInode().getInodeNo());
+        DiskInode diskInode = this.diskInodeTable[systemFileItem.getInode().getInodeNo()];
         // 文件为目录，则直接返回
         if (diskInode.getType() != FileType.FILE) {
             this.manager.getDashboard().fileSystemCommander.cmd.append("目录不可读！\n");
@@ -634,15 +638,14 @@ public class FileSystem {
         // 记录已经读取的字节数
         int hasreadSize = 0;
         // 生成数据中间结构，便于操作
-        Page page = new Page();
+        Page page = new Page(0, 0, 0, 0, 0, Page.DATA_POOL.acquire());
         // 当没有读完规定字数 且 没有读到文件尾，则循环读取
         while (hasreadSize < readData.length && systemFileItem.getOffset() < diskInode.getFileSize()) {
             // 获取读取物理块号
             int readBlockNo = diskInode.getStoreBlockNoList().get(systemFileItem.getOffset() / ExternalMem.SECTOR_SIZE).intValue();
             page.setExternalBlockNo(readBlockNo);
             // 整块读取
-            this.manager.getDeviceManage().useBuffer(page, BufferHead.READ);
-            while (page.getData() == null) {}
+            this.manager.getDeviceManage().useBuffer(page, BufferHead.READ).join();
             // 记录本轮已经读取的字节数和块内偏移
             int hasreadSizeInCycle;
             int offsetInBlock = systemFileItem.getOffset() % ExternalMem.SECTOR_SIZE;
@@ -662,6 +665,7 @@ public class FileSystem {
             this.manager.getInMem().getMemery()[buf + i] = readData[i];
         }
 
+        Page.DATA_POOL.release(page.getData());
         return hasreadSize;
     }
     /**
@@ -686,7 +690,7 @@ public class FileSystem {
             return -1;
         }
         // 获取磁盘inode
-        DiskInode diskInode = this.diskInodeMap.get("" + systemFileItem.getInode().getInodeNo());
+        DiskInode diskInode = this.diskInodeTable[systemFileItem.getInode().getInodeNo()];
         // 记录全部写入数据
         byte[] writeData = new byte[count];
         for (int i = 0; i < count; ++i) {
@@ -695,7 +699,7 @@ public class FileSystem {
         // 记录已经写入的字节数
         int hasWrittenSize = 0;
         // 生成数据中间结构，便于操作
-        Page page = new Page();
+        Page page = new Page(0, 0, 0, 0, 0, Page.DATA_POOL.acquire());
         // 当没有写完，则循环写入
         while (hasWrittenSize < writeData.length) {
             // 获取写入物理块号
@@ -715,8 +719,7 @@ public class FileSystem {
             int offsetInBlock = systemFileItem.getOffset() % ExternalMem.SECTOR_SIZE;
             if (offsetInBlock != 0) {
                 // 如果偏移指针指向的不是一块的开头，则需要读取并保留前方的原有数据
-                this.manager.getDeviceManage().useBuffer(page, BufferHead.READ);
-                while (page.getData() == null) { }
+                this.manager.getDeviceManage().useBuffer(page, BufferHead.READ).join();
                 // 修改后方数据
                 for (haswritedSizeInCycle = 0;
                      offsetInBlock + haswritedSizeInCycle < page.getData().length &&
@@ -726,7 +729,7 @@ public class FileSystem {
                 }
             } else {
                 // 否则，直接进行整块数据填充
-                page.setData(new byte[ExternalMem.SECTOR_SIZE]);
+                Arrays.fill(page.getData(), (byte) 0);
                 for (haswritedSizeInCycle = 0;
                      haswritedSizeInCycle < page.getData().length &&
                          hasWrittenSize + haswritedSizeInCycle < writeData.length;
@@ -747,6 +750,7 @@ public class FileSystem {
         // 修改文件更新时间
         diskInode.setLastUpdateTime(this.manager.getClock().getCurrentTime());
 
+        Page.DATA_POOL.release(page.getData());
         return hasWrittenSize;
     }
 
@@ -810,6 +814,18 @@ public class FileSystem {
             return;
         }
     }
+    /**
+     * 清空所有进程的打开文件句柄缓存
+     */
+    public synchronized void clearOpenFileCaches() {
+        Vector<PCB> allPCBQueue = this.manager.getSchedule().getAllPCBQueue();
+        synchronized (allPCBQueue) {
+            for (int i = 0; i < allPCBQueue.size(); ++i) {
+                allPCBQueue.get(i).clearOpenFileCache();
+            }
+        }
+    }
+
     /**
      * 删除文件/撤销链接
      * @param filePath 相对文件路径
@@ -840,12 +856,14 @@ public class FileSystem {
             String[] pathElements = formatPath.split("/");
             for (int i = 0; i < pathElements.length - 1; i++) {
                 if (pathElements[i].equals("..")) {
-                    parentDir = this.diskInodeMap.get("" + parentDir.getParentDir().getInodeNo());
+                    parentDir = this.diskInodeTable[parentDir.getParentDir().getInodeNo()];
                 } else if (!pathElements[i].equals(".")) {
-                    parentDir = this.diskInodeMap.get("" + parentDir.getDirectoryItemList().get(parentDir.findDirectoryItem(pathElements[i])).getInodeNo());
+                    parentDir = this.diskInodeTable[parentDir.getDirectoryItemList().get(parentDir.findDirectoryItem(pathElements[i])).getInodeNo()];
                 }
             }
             parentDir.removeDir(pathElements[pathElements.length - 1]);
+            // 路径已失效，清空各进程的打开文件句柄缓存
+            this.clearOpenFileCaches();
 
             // 如果链接数 > 1，则还有其他链接的目录项，链接数 -1，然后返回
             if (targetDiskInode.getHardLinkNum() > 1) {
@@ -853,7 +871,7 @@ public class FileSystem {
                 return;
             }
             // 如果链接数 = 1，则没有其他链接的目录项，删除磁盘inode及其存储数据
-            this.diskInodeMap.remove("" + targetDiskInode.getCurrentDir().getInodeNo());
+            this.diskInodeTable[targetDiskInode.getCurrentDir().getInodeNo()] = null;
             targetDiskInode.remove();
         } catch (Exception e) {
             // 检索目录出错
@@ -879,7 +897,7 @@ public class FileSystem {
         systemFileItem.setOffset(whence == 0 ? offset : offset + systemFileItem.getOffset());
 
         // 检查偏移指针是否移动到文件尾
-        DiskInode diskInode = this.diskInodeMap.get("" + systemFileItem.getInode().getInodeNo());
+        DiskInode diskInode = this.diskInodeTable[systemFileItem.getInode().getInodeNo()];
         if (systemFileItem.getOffset() > diskInode.getFileSize()) {
             this.manager.getDashboard().fileSystemCommander.cmd.append("偏移量过大，指针移动到文件尾！\n");
             systemFileItem.setOffset(diskInode.getFileSize());
@@ -978,7 +996,7 @@ public class FileSystem {
                             if (directoryItem.getFileName().equals(".") || directoryItem.getFileName().equals("..")) {
                                 continue;
                             }
-                            DiskInode diskInode = this.diskInodeMap.get("" + directoryItem.getInodeNo());
+                            DiskInode diskInode = this.diskInodeTable[directoryItem.getInodeNo()];
                             // 完整信息格式”：文件或目录 文件权限 用户id 用户组id 文件大小 最近更新时间 硬链接数 文件名
                             String fileInfo = diskInode.getType() == FileType.DIR ? FileType.DIR_MARK : FileType.FILE_MARK;
                             fileInfo += (diskInode.getMode() & Mode.USER_READ) != 0 ? "r" : "-";
@@ -1036,6 +1054,8 @@ public class FileSystem {
                         } else {
                             this.currentDir = diskInode;
                             this.currentDirPath = this.getAbsolutePathByDiskInode(diskInode);
+                            // 相对路径的解析结果改变，清空各进程的打开文件句柄缓存
+                            this.clearOpenFileCaches();
                         }
                     } catch (Exception e) {
                         e.printStackTrace();
@@ -1096,7 +1116,7 @@ public class FileSystem {
                         }
                         if (cmdElements.length > 2 && cmdElements[2].equals("-p")) {
                             // 一并删除空的父目录
-                            DiskInode parentInode = this.diskInodeMap.get("" + diskInode.getParentDir().getInodeNo());
+                            DiskInode parentInode = this.diskInodeTable[diskInode.getParentDir().getInodeNo()];
                             this.unlink(cmdElements[1]);
                             this.unlink(this.getAbsolutePathByDiskInode(parentInode));
                         } else {
@@ -1195,7 +1215,7 @@ public class FileSystem {
                         SystemFileItem systemFileItem = this.isRoot ?
                                 this.getUserFileItemByFd(this.rootOpenFileTable, fd).getFp() :
                                 this.getUserFileItemByFd(this.userOperatePCB.getUserOpenFileTable(), fd).getFp();
-                        DiskInode diskInode = this.diskInodeMap.get("" + systemFileItem.getInode().getInodeNo());
+                        DiskInode diskInode = this.diskInodeTable[systemFileItem.getInode().getInodeNo()];
                         if (diskInode.getType() != FileType.FILE) {
                             this.manager.getDashboard().fileSystemCommander.cmd.append("不可读取目录！\n");
                             this.manager.getDeviceManage().releaseBuffer(bufferNo);
@@ -1234,7 +1254,7 @@ public class FileSystem {
                         SystemFileItem systemFileItem = this.isRoot ?
                                 this.getUserFileItemByFd(this.rootOpenFileTable, fd).getFp() :
                                 this.getUserFileItemByFd(this.userOperatePCB.getUserOpenFileTable(), fd).getFp();
-                        DiskInode diskInode = this.diskInodeMap.get("" + systemFileItem.getInode().getInodeNo());
+                        DiskInode diskInode = this.diskInodeTable[systemFileItem.getInode().getInodeNo()];
                         if (diskInode.getType() != FileType.FILE) {
                             this.manager.getDashboard().fileSystemCommander.cmd.append("不可编辑目录！\n");
                             this.manager.getDeviceManage().releaseBuffer(bufferNo);
@@ -1360,7 +1380,7 @@ public class FileSystem {
             SystemFileItem systemFileItem = this.isRoot ?
                     this.getUserFileItemByFd(this.rootOpenFileTable, fd).getFp() :
                     this.getUserFileItemByFd(this.userOperatePCB.getUserOpenFileTable(), fd).getFp();
-            DiskInode diskInode = this.diskInodeMap.get("" + systemFileItem.getInode().getInodeNo());
+            DiskInode diskInode = this.diskInodeTable[systemFileItem.getInode().getInodeNo()];
             
             int hasWrittenSize = 0;
 
@@ -1404,7 +1424,7 @@ public class FileSystem {
             SystemFileItem systemFileItem = this.isRoot ?
                     this.getUserFileItemByFd(this.rootOpenFileTable, fd).getFp() :
                     this.getUserFileItemByFd(this.userOperatePCB.getUserOpenFileTable(), fd).getFp();
-            DiskInode diskInode = this.diskInodeMap.get("" + systemFileItem.getInode().getInodeNo());
+            DiskInode diskInode = this.diskInodeTable[systemFileItem.getInode().getInodeNo()];
 
             int hasReadSize = 0;
             int readTime = (int) Math.ceil((double) diskInode.getFileSize() / InternalMem.PAGE_SIZE);
@@ -1441,7 +1461,7 @@ public class FileSystem {
             SystemFileItem systemFileItem = this.isRoot ?
                     this.getUserFileItemByFd(this.rootOpenFileTable, fd).getFp() :
                     this.getUserFileItemByFd(this.userOperatePCB.getUserOpenFileTable(), fd).getFp();
-            DiskInode diskInode = this.diskInodeMap.get("" + systemFileItem.getInode().getInodeNo());
+            DiskInode diskInode = this.diskInodeTable[systemFileItem.getInode().getInodeNo()];
 
             int hasWrittenSize = 0;
 
@@ -1485,12 +1505,21 @@ public class FileSystem {
         this.activityInodeList = activityInodeList;
     }
 
-    public HashMap<String, DiskInode> getDiskInodeMap() {
-        return diskInodeMap;
+    /**
+     * 根据 inode 编号获取磁盘 inode
+     * @param inodeNo inode 编号
+     * @return 磁盘 inode，不存在则返回 null
+     */
+    public DiskInode getDiskInode(int inodeNo) {
+        return inodeNo >= 0 && inodeNo < this.diskInodeTable.length ? this.diskInodeTable[inodeNo] : null;
+    }
+
+    public DiskInode[] getDiskInodeTable() {
+        return diskInodeTable;
     }
 
-    public void setDiskInodeMap(HashMap<String, DiskInode> diskInodeMap) {
-        this.diskInodeMap = diskInodeMap;
+    public void setDiskInodeTable(DiskInode[] diskInodeTable) {
+        this.diskInodeTable = diskInodeTable;
     }
 
     public Vector<SystemFileItem> getSystemOpenFileTable() {
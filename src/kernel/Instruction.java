@@ -22,12 +22,22 @@ public class Instruction {
      * 指令附带数据
      */
     private String extra;
+    /**
+     * 系统调用操作数：输入输出的数据页序号，-1 表示无
+     */
+    private int dataPageIndex;
+    /**
+     * 系统调用操作数：文件路径，null 表示无
+     */
+    private String filePath;
 
     public Instruction() {
         this.id = 0;
         this.state = 0;
         this.argument = 0;
         this.extra = "";
+        this.dataPageIndex = -1;
+        this.filePath = null;
     }
 
     public Instruction(int id, int state, int argument, String extra) {
@@ -35,6 +45,29 @@ public class Instruction {
         this.state = state;
         this.argument = argument;
         this.extra = extra;
+        this.dataPageIndex = -1;
+        this.filePath = null;
+    }
+
+    /**
+     * 预解析系统调用的附加数据，执行时不再拆分字符串
+     *
+     * 创建、关闭文件的附加数据为 文件路径
+     * 输入、输出的附加数据为 数据页序号 + 空格 + 文件路径
+     */
+    public void compileOperands() {
+        this.dataPageIndex = -1;
+        this.filePath = null;
+        if (this.state != 0) {
+            return;
+        }
+        if (this.argument == 1 || this.argument == 2) {
+            int separator = this.extra.indexOf(' ');
+            this.dataPageIndex = Integer.parseInt(this.extra.substring(0, separator));
+            this.filePath = this.extra.substring(separator + 1);
+        } else if (this.argument == 0 || this.argument == 3) {
+            this.filePath = this.extra;
+        }
     }
 
     @Override
@@ -73,4 +106,20 @@ public class Instruction {
     public void setExtra(String extra) {
         this.extra = extra;
     }
+
+    public int getDataPageIndex() {
+        return dataPageIndex;
+    }
+
+    public void setDataPageIndex(int dataPageIndex) {
+        this.dataPageIndex = dataPageIndex;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
 }
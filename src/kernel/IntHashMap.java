@@ -0,0 +1,223 @@
+package kernel;
+
+/**
+ * 以 int 为键的散列表
+ *
+ * 采用开放定址（线性探测）法，删除时后移调整探测链，不使用墓碑
+ * 键直接以 int 存储，查找、插入均不产生装箱对象和字符串
+ *
+ * @param <V> 值类型
+ * @author ZJC
+ */
+public class IntHashMap<V> {
+    /**
+     * 最大装载因子
+     */
+    private static final float LOAD_FACTOR = 0.5f;
+    /**
+     * 键数组
+     */
+    private int[] keys;
+    /**
+     * 值数组，null 表示空槽
+     */
+    private Object[] values;
+    /**
+     * 元素个数
+     */
+    private int size;
+
+    public IntHashMap() {
+        this(16);
+    }
+
+    public IntHashMap(int initialCapacity) {
+        int capacity = 4;
+        while (capacity * LOAD_FACTOR < initialCapacity) {
+            capacity <<= 1;
+        }
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * 计算键的初始槽位
+     * @param key 键
+     * @return 槽位
+     */
+    private int indexOf(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (this.keys.length - 1);
+    }
+
+    /**
+     * 查找键所在槽位
+     * @param key 键
+     * @return 槽位，不存在则返回 -1
+     */
+    private int findSlot(int key) {
+        int mask = this.keys.length - 1;
+        for (int i = this.indexOf(key); this.values[i] != null; i = (i + 1) & mask) {
+            if (this.keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获取值
+     * @param key 键
+     * @return 值，不存在则返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = this.findSlot(key);
+        return slot == -1 ? null : (V) this.values[slot];
+    }
+
+    /**
+     * 是否包含键
+     * @param key 键
+     * @return 是否包含
+     */
+    public boolean containsKey(int key) {
+        return this.findSlot(key) != -1;
+    }
+
+    /**
+     * 添加或替换值
+     * @param key 键
+     * @param value 值，不可为 null
+     * @return 原值，不存在则返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("IntHashMap 不支持 null 值");
+        }
+        int mask = this.keys.length - 1;
+        int i = this.indexOf(key);
+        while (this.values[i] != null) {
+            if (this.keys[i] == key) {
+                V oldValue = (V) this.values[i];
+                this.values[i] = value;
+                return oldValue;
+            }
+            i = (i + 1) & mask;
+        }
+        this.keys[i] = key;
+        this.values[i] = value;
+        ++this.size;
+        if (this.size > this.keys.length * LOAD_FACTOR) {
+            this.resize(this.keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * 删除键
+     * @param key 键
+     * @return 被删除的值，不存在则返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = this.findSlot(key);
+        if (slot == -1) {
+            return null;
+        }
+        V oldValue = (V) this.values[slot];
+        this.removeAt(slot);
+        return oldValue;
+    }
+
+    /**
+     * 删除指定槽位的元素，并将后续探测链上的元素前移
+     * @param slot 槽位
+     */
+    public void removeAt(int slot) {
+        int mask = this.keys.length - 1;
+        this.values[slot] = null;
+        --this.size;
+        int hole = slot;
+        for (int i = (slot + 1) & mask; this.values[i] != null; i = (i + 1) & mask) {
+            int home = this.indexOf(this.keys[i]);
+            // 元素的初始槽位不在 (hole, i] 区间内，则可以前移到空槽
+            boolean canMove = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+            if (canMove) {
+                this.keys[hole] = this.keys[i];
+                this.values[hole] = this.values[i];
+                this.values[i] = null;
+                hole = i;
+            }
+        }
+    }
+
+    /**
+     * 扩容
+     * @param capacity 新容量
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldValues[i] != null) {
+                int j = this.indexOf(oldKeys[i]);
+                while (this.values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                this.keys[j] = oldKeys[i];
+                this.values[j] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * 清空
+     */
+    public void clear() {
+        for (int i = 0; i < this.values.length; ++i) {
+            this.values[i] = null;
+        }
+        this.size = 0;
+    }
+
+    /**
+     * 槽位总数，与 getKeyAt、getValueAt 配合遍历
+     * @return 槽位总数
+     */
+    public int capacity() {
+        return this.keys.length;
+    }
+
+    /**
+     * 获取槽位上的键
+     * @param slot 槽位
+     * @return 键，仅当该槽位值非 null 时有效
+     */
+    public int getKeyAt(int slot) {
+        return this.keys[slot];
+    }
+
+    /**
+     * 获取槽位上的值
+     * @param slot 槽位
+     * @return 值，空槽返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public V getValueAt(int slot) {
+        return (V) this.values[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+}
@@ -28,6 +28,10 @@ public class JCB {
      * 所需页面数
      */
     private short needPageNum;
+    /**
+     * 截止时间
+     */
+    private int deadline;
     /**
      * 作业指令集
      */
@@ -38,12 +42,13 @@ public class JCB {
     private int externalMemeryAddress;
 
 
-    public JCB(short id, short priority, short inTime, short instructionNum, short needPageNum) {
+    public JCB(short id, short priority, short inTime, short instructionNum, short needPageNum, int deadline) {
         this.id = id;
         this.priority = priority;
         this.inTime = inTime;
         this.instructionNum = instructionNum;
         this.needPageNum = needPageNum;
+        this.deadline = deadline;
     }
 
     public short getId() {
@@ -101,4 +106,12 @@ public class JCB {
     public void setNeedPageNum(short needPageNum) {
         this.needPageNum = needPageNum;
     }
+
+    public int getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(int deadline) {
+        this.deadline = deadline;
+    }
 }
@@ -1,13 +1,19 @@
 package kernel;
 
+import hardware.CPU;
+import hardware.ClockEvent;
 import hardware.ExternalMem;
 import hardware.InternalMem;
+import os.BootParameter;
+import os.Manager;
 
 import java.io.*;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.Random;
 import java.util.Vector;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * 作业管理
@@ -17,6 +23,23 @@ import java.util.Vector;
  * @author ZJC
  */
 public class JobManage {
+    /**
+     * 作业文件采用的页面大小，单位 B
+     * 作业文件中的访存地址、页数均按该页面大小生成，读取时换算为系统启动时的页面大小
+     */
+    public static final int JOB_FILE_PAGE_SIZE = 512;
+    /**
+     * 作业请求未给出截止时间时，相对截止时间 = 该系数 * 执行全部指令所需的时钟周期数
+     */
+    public static final int DEFAULT_DEADLINE_FACTOR = 3;
+    /**
+     * 估计驻留集时，数据段页面预计同时驻留的比例
+     */
+    public static final double DATA_RESIDENT_RATIO = 0.5;
+    /**
+     * 作业在后备队列中等待超过该时钟周期数后，暂停其他作业补位，优先为其留出内存
+     */
+    public static final int ADMISSION_MAX_WAIT_TIME = 50;
     /**
      * 调度模块
      */
@@ -29,11 +52,55 @@ public class JobManage {
      * 作业请求文件的行数
      */
     private int inputFileLineNum;
+    /**
+     * 已提交到达事件的下一个作业进入时间，-1 表示无
+     */
+    private int nextArrivalTime;
+    /**
+     * 作业准入策略
+     */
+    private AdmissionPolicy admissionPolicy;
+    /**
+     * 准入候选作业列表
+     */
+    private Vector<JCB> admissionCandidates;
+    /**
+     * 作业负载随机数，由系统随机数种子派生
+     */
+    private Random random;
+    /**
+     * 作业请求文件读取器，保持读取位置，每次只读取新增的行
+     */
+    private BufferedReader jobReader;
+    /**
+     * 已读取、尚未到达进入时间的作业，null 表示无
+     */
+    private JCB pendingJcb;
+    /**
+     * 待到达作业的指令集加载任务
+     */
+    private Future<Instruction[]> pendingInstructions;
+    /**
+     * 指令集加载线程，作业请求读入后即在后台解析指令集文件
+     */
+    private ExecutorService instructionLoader;
 
     public JobManage(Schedule schedule) {
         this.schedule = schedule;
         this.totalJobNum = 0;
         this.inputFileLineNum = 0;
+        this.nextArrivalTime = -1;
+        this.admissionPolicy = AdmissionPolicy.create(BootParameter.getString("admissionPolicy", "fifo"));
+        this.admissionCandidates = new Vector<>();
+        this.random = Manager.createRandom(Manager.WORKLOAD_RANDOM_STREAM);
+        this.jobReader = null;
+        this.pendingJcb = null;
+        this.pendingInstructions = null;
+        this.instructionLoader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "InstructionLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         // 初始化作业请求文件（这一步是为了兼容默认存在的8个作业请求）
         File jobsInputFile = new File("./xxxxx-jobs-input.txt");
@@ -79,14 +146,14 @@ public class JobManage {
             BufferedWriter appendJob = new BufferedWriter(new FileWriter(jobsInputFile,true));
             // 随机生成新作业信息
             int jobId = this.inputFileLineNum;
-            int priority = new Random().nextInt(5) + 1;
+            int priority = this.random.nextInt(5) + 1;
             int inTime = this.schedule.getManager().getClock().getCurrentTime();
-            int instructionNum = new Random().nextInt(31) + 30;
+            int instructionNum = this.random.nextInt(31) + 30;
             // 随机分配页面：PCB 1; code 1; stack 1; data 2-10;
             int pcbPageNum = 1;
-            int codeSegmentPageNum = (instructionNum / 64) + 1;
+            int codeSegmentPageNum = (instructionNum / (JOB_FILE_PAGE_SIZE / CodeSegment.INSTRUCTION_SIZE)) + 1;
             int stackSegmentPageNum = 1;
-            int dataSegmentPageNum = new Random().nextInt(9) + 2;
+            int dataSegmentPageNum = this.random.nextInt(9) + 2;
             int needPageNum =  pcbPageNum + codeSegmentPageNum + dataSegmentPageNum + stackSegmentPageNum;
             // 追加新行
             appendJob.newLine();
@@ -135,16 +202,16 @@ public class JobManage {
                  */
                 id = i + 1;
                 // 随机指令类型 1-5，特殊类型的指令需要分别处理，资源类指令后续统一添加
-                state = new Random().nextInt(5) + 1;
+                state = this.random.nextInt(5) + 1;
                 argument = 0;
                 extra = ".";
                 if (state == 2 || state == 3) {
                     // 访存指令,参数设置为访问逻辑地址，仅偶数
-                    argument = new Random().nextInt(dataSegmentPageNum * InternalMem.PAGE_SIZE);
+                    argument = this.random.nextInt(dataSegmentPageNum * JOB_FILE_PAGE_SIZE);
                     if (argument % 2 == 1) {
                         --argument;
                     }
-                    argument += 3 * InternalMem.PAGE_SIZE;
+                    argument += 3 * JOB_FILE_PAGE_SIZE;
 
                 } else if (state == 5) {
                     // 跳转指令，参数设置为下一跳指令序号，即跳过一条指令
@@ -155,10 +222,10 @@ public class JobManage {
 
             // 统一添加系统调用类指令
             // 0 创建文件、1 输入、2 输出、3 关闭文件
-            int createNum = new Random().nextInt(3);
+            int createNum = this.random.nextInt(3);
             int closeNum = createNum;
-            int inputNum = createNum == 0 ? 0 : new Random().nextInt(3);
-            int outputNum = createNum == 0 ? 0 : new Random().nextInt(3);
+            int inputNum = createNum == 0 ? 0 : this.random.nextInt(3);
+            int outputNum = createNum == 0 ? 0 : this.random.nextInt(3);
             // 获取可供替换的指令序号List
             Vector<Integer> systemInstructionIndexList = this.getSystemInstructionIndex(allInstructions, createNum + closeNum + inputNum + outputNum);
             Vector<String> openFileList = new Vector<>();
@@ -177,14 +244,14 @@ public class JobManage {
                 systemInstructionIndexList.remove(0);
                 allInstructions[inputIndex].setState(0);
                 allInstructions[inputIndex].setArgument(1);
-                allInstructions[inputIndex].setExtra(new Random().nextInt(dataSegmentPageNum) + " " + openFileList.get(new Random().nextInt(openFileList.size())));
+                allInstructions[inputIndex].setExtra(this.random.nextInt(dataSegmentPageNum) + " " + openFileList.get(this.random.nextInt(openFileList.size())));
             }
             for (int i = 0; i < outputNum; i++) {
                 int outputIndex = systemInstructionIndexList.get(0).intValue();
                 systemInstructionIndexList.remove(0);
                 allInstructions[outputIndex].setState(0);
                 allInstructions[outputIndex].setArgument(2);
-                allInstructions[outputIndex].setExtra(new Random().nextInt(dataSegmentPageNum) + " " + openFileList.get(new Random().nextInt(openFileList.size())));
+                allInstructions[outputIndex].setExtra(this.random.nextInt(dataSegmentPageNum) + " " + openFileList.get(this.random.nextInt(openFileList.size())));
             }
             for (int i = 0; i < closeNum; i++) {
                 int closeIndex = systemInstructionIndexList.get(0).intValue();
@@ -195,7 +262,7 @@ public class JobManage {
             }
 
             // 统一添加资源类指令
-            int needResourceNum = new Random().nextInt(Deadlock.RESOURCE_TYPE_NUM + 1);
+            int needResourceNum = this.random.nextInt(Deadlock.RESOURCE_TYPE_NUM + 1);
             int[] resouceTypes = new int[Deadlock.RESOURCE_TYPE_NUM];
             this.schedule.getManager().getDashboard().consoleLog("作业 " + jobId + " 共请求资源数 " + needResourceNum);
             // 获取可供替换的指令序号List
@@ -203,11 +270,11 @@ public class JobManage {
             // 随机替换成若干组资源类指令
             while(resourceInstructionIndexList.size() > 0) {
                 // 随机抽取两条作为申请和释放指令
-                int tempIndex = new Random().nextInt(resourceInstructionIndexList.size());
+                int tempIndex = this.random.nextInt(resourceInstructionIndexList.size());
                 int applyIndex = resourceInstructionIndexList.get(tempIndex).intValue();
                 resourceInstructionIndexList.remove(tempIndex);
 
-                tempIndex = new Random().nextInt(resourceInstructionIndexList.size());
+                tempIndex = this.random.nextInt(resourceInstructionIndexList.size());
                 int releaseIndex = resourceInstructionIndexList.get(tempIndex).intValue();
                 resourceInstructionIndexList.remove(tempIndex);
                 // 保证申请在释放之前
@@ -217,10 +284,10 @@ public class JobManage {
                     releaseIndex = temp;
                 }
                 // 选择申请资源的类型
-                int typeIndex = new Random().nextInt(Deadlock.RESOURCE_TYPE_NUM);
+                int typeIndex = this.random.nextInt(Deadlock.RESOURCE_TYPE_NUM);
                 // 如果该资源已经申请，则重新选择
                 while (resouceTypes[typeIndex] != 0) {
-                    typeIndex = new Random().nextInt(Deadlock.RESOURCE_TYPE_NUM);
+                    typeIndex = this.random.nextInt(Deadlock.RESOURCE_TYPE_NUM);
                 }
                 resouceTypes[typeIndex] = 1;
 
@@ -248,57 +315,100 @@ public class JobManage {
 
     /**
      * 系统读取作业，进入后备队列
+     *
+     * 读取器保持文件位置，每次只解析新增的作业请求，读取代价与已提交的作业总数无关
+     * 未到达进入时间的作业暂存到到达时，其指令集已在后台加载
      */
     public synchronized void readJobs() {
-        File jobsInputFile = new File("./xxxxx-jobs-input.txt");
         try {
-            // 读取作业请求文件
-            BufferedReader jobReader = new BufferedReader(new FileReader(jobsInputFile));
-            // 跳过表头和已读取的job
-            for (int i = 0; i < this.totalJobNum + 1; ++i) {
-                jobReader.readLine();
+            if (this.jobReader == null) {
+                // 首次读取时打开作业请求文件，跳过表头，此后保持读取位置
+                this.jobReader = new BufferedReader(new FileReader(new File("./xxxxx-jobs-input.txt")));
+                this.jobReader.readLine();
             }
-            String jobContent;
-            String[] jobInfo;
-            while ((jobContent = jobReader.readLine()) != null) {
-                // 依次读取新增作业，默认作业的进入时间是递增的
-                jobInfo = jobContent.split(",");
-                short jobId = Short.parseShort(jobInfo[0]);
-                short priority = Short.parseShort(jobInfo[1]);
-                short inTime = Short.parseShort(jobInfo[2]);
-                short instructionNum = Short.parseShort(jobInfo[3]);
-                short needPageNum = Short.parseShort(jobInfo[4]);
+            while (true) {
+                if (this.pendingJcb == null) {
+                    // 依次读取新增作业，默认作业的进入时间是递增的
+                    String jobContent = this.jobReader.readLine();
+                    if (jobContent == null) {
+                        break;
+                    }
+                    // 新增作业以换行开头，跳过空行
+                    if (jobContent.trim().isEmpty()) {
+                        continue;
+                    }
+                    this.pendingJcb = this.parseJobRequest(jobContent);
+                }
 
                 // 作业请求进入时间 > 当前时间，则不创建新作业（这一步是为了兼容默认存在的8个作业请求）
+                short inTime = this.pendingJcb.getInTime();
                 if ((int)inTime > this.schedule.getManager().getClock().getCurrentTime()) {
+                    // 提交作业到达事件，到达时立即读取
+                    if (inTime != this.nextArrivalTime) {
+                        this.nextArrivalTime = inTime;
+                        this.schedule.getManager().getClock().postEvent(inTime, ClockEvent.JOB_ARRIVAL, this::readJobs);
+                    }
                     break;
                 }
 
-                // 创建JCB用于存储
-                JCB jcb = new JCB(jobId, priority, inTime, instructionNum, needPageNum);
-                // 读取指令指令集文件
-                Instruction[] instructions = this.readInstructionSet(jobId, instructionNum);
-                jcb.setInstructions(instructions);
+                // 取用后台加载的指令集
+                JCB jcb = this.pendingJcb;
+                jcb.setInstructions(this.pendingInstructions.get());
+                this.pendingJcb = null;
+                this.pendingInstructions = null;
                 // 将作业信息保存到外存
                 this.saveJobToDisk(jcb);
                 // 系统作业数 +1
                 ++this.totalJobNum;
 
-                this.schedule.getManager().getDashboard().consoleLog("读取作业 " + jobId);
+                this.schedule.getManager().getDashboard().consoleLog("读取作业 " + jcb.getId());
             }
-            jobReader.close();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * 解析一行作业请求，并提交指令集的后台加载任务
+     * @param jobContent 作业请求行
+     * @return 作业控制块，指令集在到达时取用
+     */
+    private JCB parseJobRequest(String jobContent) {
+        String[] jobInfo = jobContent.split(",");
+        short jobId = Short.parseShort(jobInfo[0]);
+        short priority = Short.parseShort(jobInfo[1]);
+        short inTime = Short.parseShort(jobInfo[2]);
+        short instructionNum = Short.parseShort(jobInfo[3]);
+        short needPageNum = Short.parseShort(jobInfo[4]);
+        // 可选的第 6 列为相对进入时间的截止时间
+        int relativeDeadline = jobInfo.length > 5 ? Integer.parseInt(jobInfo[5].trim()) :
+                DEFAULT_DEADLINE_FACTOR * ((instructionNum + CPU.INSTRUCTIONS_PER_TICK - 1) / CPU.INSTRUCTIONS_PER_TICK);
+
+        // 按系统页面大小换算所需页数
+        int fileCodePageNum = (instructionNum + JOB_FILE_PAGE_SIZE / CodeSegment.INSTRUCTION_SIZE - 1) / (JOB_FILE_PAGE_SIZE / CodeSegment.INSTRUCTION_SIZE);
+        int fileDataPageNum = needPageNum - 2 - fileCodePageNum;
+        int codePageNum = CodeSegment.getCodePageNum(instructionNum);
+        int dataPageNum = (fileDataPageNum * JOB_FILE_PAGE_SIZE + InternalMem.PAGE_SIZE - 1) / InternalMem.PAGE_SIZE;
+        needPageNum = (short) (2 + codePageNum + dataPageNum);
+
+        // 后台读取指令集文件，作业未到达前即可完成解析
+        this.pendingInstructions = this.instructionLoader.submit(() -> this.readInstructionSet(jobId, instructionNum,
+                (2 + fileCodePageNum) * JOB_FILE_PAGE_SIZE, (2 + codePageNum) * InternalMem.PAGE_SIZE));
+        // 创建JCB用于存储
+        return new JCB(jobId, priority, inTime, instructionNum, needPageNum, inTime + relativeDeadline);
+    }
+
     /**
      * 读取指令集
+     *
+     * 访存指令地址、输入输出指令的数据页号均按系统页面大小换算，系统调用的附加数据预解析为操作数
      * @param jobsId 作业id
      * @param instructionNum 指令数
+     * @param fileDataStartAddress 作业文件中数据段起始逻辑地址
+     * @param dataStartAddress 系统中数据段起始逻辑地址
      * @return 指令集数组
      */
-    public Instruction[] readInstructionSet(int jobsId, int instructionNum) {
+    public Instruction[] readInstructionSet(int jobsId, int instructionNum, int fileDataStartAddress, int dataStartAddress) {
         File instructionFile = new File("./" + jobsId + ".txt");
         try {
             // 读取对应指令集文件
@@ -313,7 +423,18 @@ public class JobManage {
                 int state = Integer.parseInt(instructionInfo[1]);
                 int argument = Integer.parseInt(instructionInfo[2]);
                 String extra = instructionInfo[3];
+                if (state == 2 || state == 3) {
+                    // 访存指令，换算数据段内偏移
+                    argument = dataStartAddress + argument - fileDataStartAddress;
+                } else if (state == 0 && (argument == 1 || argument == 2)) {
+                    // 输入输出指令，换算数据页号
+                    String[] extraInfo = extra.split(" ");
+                    extraInfo[0] = Integer.toString(Integer.parseInt(extraInfo[0]) * JOB_FILE_PAGE_SIZE / InternalMem.PAGE_SIZE);
+                    extra = String.join(" ", extraInfo);
+                }
                 instructions[i] = new Instruction(id, state, argument, extra);
+                // 预解析系统调用操作数
+                instructions[i].compileOperands();
             }
             instructionReader.close();
             return instructions;
@@ -334,7 +455,7 @@ public class JobManage {
         jcb.setExternalMemeryAddress(blockNo * ExternalMem.SECTOR_SIZE);
 
         // 存储JCB信息，每个JCB占一块（一个扇区）
-        Page page = new Page();
+        Page page = new Page(0, 0, 0, 0, 0, Page.DATA_POOL.acquire());
         page.setExternalBlockNo(blockNo);
         page.getData()[0] = (byte)jcb.getId();
         page.getData()[1] = (byte)(jcb.getId() >> 8);
@@ -354,6 +475,8 @@ public class JobManage {
         page.getData()[15] = (byte)(jcb.getNeedPageNum() >> 24);
         // 缓冲区写入外存
         this.schedule.getManager().getDeviceManage().useBuffer(page, BufferHead.WRITE);
+        // 写操作已复制数据快照，可立即归还数据缓冲
+        Page.DATA_POOL.release(page.getData());
 
         // 添加JCB到后备队列
         this.schedule.getReserveQueue().add(jcb);
@@ -361,20 +484,69 @@ public class JobManage {
 
     /**
      * 从后备队列中尝试寻找可行的作业，将其转化为进程
+     *
+     * 按驻留集估计做准入控制：可用页框 = 空闲页框 - 挂起阈值 - 已有进程尚未调入的预计驻留页，
+     * 在放得下的作业中按准入策略逐个选择，直到没有放得下的作业，使内存占用保持在挂起阈值之下，避免中级调度反复挂起、恢复
+     * 存在挂起进程时优先恢复挂起进程，不准入新作业；等待过久的作业放不下时，暂停其他作业补位，为其留出内存
      */
     public synchronized void tryAddProcess() {
-        for (Iterator<JCB> iterator = this.schedule.getReserveQueue().iterator(); iterator.hasNext(); ) {
-            JCB tempJcb = iterator.next();
-            // 并发进程数超出系统上限，则不创建新进程
-            if (this.schedule.getManager().getInMem().getTotalPCBNum() >= Schedule.MAX_CONCURRENT_PROCESS_NUM) {
+        if (this.schedule.getReserveQueue().isEmpty() || !this.schedule.getSuspendQueue().isEmpty()) {
+            return;
+        }
+        int availableFrameNum = this.schedule.getManager().getInMem().getFreeFrameNumOfUserArea() - Schedule.MIN_FRAME_NUM_THRESHOLD;
+        int liveProcessNum = 0;
+        // 进程撤销时不持有调度模块锁，遍历期间锁定队列
+        synchronized (this.schedule.getAllPCBQueue()) {
+            for (PCB pcb : this.schedule.getAllPCBQueue()) {
+                if (pcb.getState() != PCB.FINISH_STATE) {
+                    ++liveProcessNum;
+                    availableFrameNum -= Math.max(0, pcb.getResidentPageEstimate() - pcb.getLRU().size());
+                }
+            }
+        }
+        int currentTime = this.schedule.getManager().getClock().getCurrentTime();
+        while (this.schedule.getManager().getInMem().getTotalPCBNum() < Schedule.MAX_CONCURRENT_PROCESS_NUM) {
+            // 构造放得下的候选作业
+            this.admissionCandidates.clear();
+            for (JCB jcb : this.schedule.getReserveQueue()) {
+                int residentPageNum = estimateResidentPageNum(jcb);
+                // 没有存活进程时，总是可以准入，避免大作业永远无法运行
+                if (residentPageNum <= availableFrameNum || liveProcessNum == 0) {
+                    this.admissionCandidates.add(jcb);
+                } else if (currentTime - jcb.getInTime() > ADMISSION_MAX_WAIT_TIME) {
+                    // 等待过久的作业放不下，则不再让后面的作业补位
+                    break;
+                }
+            }
+            if (this.admissionCandidates.isEmpty()) {
                 break;
             }
+            JCB selectedJcb = this.admissionPolicy.select(this.admissionCandidates);
+            int residentPageNum = estimateResidentPageNum(selectedJcb);
             // 创建新进程
             PCB newPCB = new PCB(this.schedule);
-            newPCB.create(tempJcb);
+            newPCB.setResidentPageEstimate(residentPageNum);
+            newPCB.create(selectedJcb);
+            this.admissionPolicy.onAdmit(selectedJcb);
             // 后备队列中删除该作业
-            iterator.remove();
+            this.schedule.getReserveQueue().remove(selectedJcb);
+            availableFrameNum -= residentPageNum;
+            ++liveProcessNum;
+            this.schedule.getManager().getDashboard().consoleLog("准入作业 " + selectedJcb.getId() +
+                    " 预计驻留页 " + residentPageNum + " 剩余可用页框 " + availableFrameNum);
         }
+        this.admissionCandidates.clear();
+    }
+
+    /**
+     * 估计作业运行时同时驻留内存的页数：代码段、堆栈段全部驻留，数据段按比例驻留，PCB 页位于 PCB 池，不占用户区
+     * @param jcb 作业
+     * @return 预计驻留页数
+     */
+    public static int estimateResidentPageNum(JCB jcb) {
+        int codePageNum = CodeSegment.getCodePageNum(jcb.getInstructionNum());
+        int dataPageNum = jcb.getNeedPageNum() - 2 - codePageNum;
+        return codePageNum + 1 + (int) Math.ceil(dataPageNum * DATA_RESIDENT_RATIO);
     }
 
     /**
@@ -392,7 +564,7 @@ public class JobManage {
         // 构造选中的指令序号ist
         Vector<Integer> needIndexList = new Vector<>();
         while (needIndexList.size() < needLength) {
-            int index = new Random().nextInt(allInstructionIndexList.size());
+            int index = this.random.nextInt(allInstructionIndexList.size());
             // 如果选中的指令是系统调用类指令，则重新选择
             if (allInstructions[index].getState() == 0) {
                 continue;
@@ -421,7 +593,7 @@ public class JobManage {
         // 构造选中的指令序号ist
         Vector<Integer> needIndexList = new Vector<>();
         while (needIndexList.size() < needLength) {
-            int index = new Random().nextInt(allInstructionIndexList.size());
+            int index = this.random.nextInt(allInstructionIndexList.size());
             // 如果选中的指令是资源类指令，则重新选择
             if (allInstructions[index].getState() == 6 ||
                 allInstructions[index].getState() == 7) {
@@ -435,4 +607,8 @@ public class JobManage {
         Collections.sort(needIndexList);
         return needIndexList;
     }
+
+    public AdmissionPolicy getAdmissionPolicy() {
+        return admissionPolicy;
+    }
 }
@@ -0,0 +1,70 @@
+package kernel;
+
+import os.Manager;
+
+import java.util.Random;
+
+/**
+ * 彩票调度策略
+ *
+ * 每个进程按优先级持有票数，优先级 1-5 分别持有 50、40、30、20、10 张，
+ * 每次随机抽取一张票，持有该票的进程运行，时间片固定为系统时间片
+ *
+ * @author ZJC
+ */
+public class LotterySchedulerPolicy implements SchedulerPolicy {
+    /**
+     * 每级优先级对应的票数
+     */
+    public static final int TICKETS_PER_PRIORITY = 10;
+
+    /**
+     * 抽票随机数，由系统随机数种子派生
+     */
+    private Random random;
+
+    public LotterySchedulerPolicy() {
+        this.random = Manager.createRandom(Manager.SCHEDULER_RANDOM_STREAM);
+    }
+
+    /**
+     * 获取进程持有的票数
+     * @param pcb 进程
+     * @return 票数
+     */
+    public static int getTickets(PCB pcb) {
+        return Math.max(1, 6 - pcb.getPriority()) * TICKETS_PER_PRIORITY;
+    }
+
+    @Override
+    public String getName() {
+        return "lottery";
+    }
+
+    @Override
+    public synchronized PCB select(RunQueue[] queues) {
+        int totalTickets = 0;
+        for (RunQueue queue : queues) {
+            for (PCB pcb : queue) {
+                totalTickets += getTickets(pcb);
+            }
+        }
+        int winner = this.random.nextInt(totalTickets);
+        PCB lastPCB = null;
+        for (RunQueue queue : queues) {
+            for (PCB pcb : queue) {
+                winner -= getTickets(pcb);
+                if (winner < 0) {
+                    return pcb;
+                }
+                lastPCB = pcb;
+            }
+        }
+        return lastPCB;
+    }
+
+    @Override
+    public int getTimeSlice(PCB pcb) {
+        return Schedule.SYSTEM_TIME_SLICE;
+    }
+}
@@ -0,0 +1,87 @@
+package kernel;
+
+/**
+ * 多级反馈队列调度策略
+ *
+ * 新进程进入最高级队列；用完时间片的进程降一级，级别越低时间片越长；阻塞让出 CPU 的进程保持原级别
+ * 选择级别最高的进程，同级别按优先级、先到先得
+ * 老化：每隔 BOOST_INTERVAL 个时钟周期，全部进程提升回最高级，避免低级别进程饥饿
+ *
+ * @author ZJC
+ */
+public class MLFQSchedulerPolicy implements SchedulerPolicy {
+    /**
+     * 各级队列的时间片，单位 时钟周期，下标为级别，0 为最高级
+     */
+    public static final int[] LEVEL_TIME_SLICES = new int[]{2, 4, 8};
+    /**
+     * 全体提升的间隔，单位 时钟周期
+     */
+    public static final int BOOST_INTERVAL = 50;
+
+    /**
+     * 调度模块
+     */
+    private Schedule schedule;
+    /**
+     * 上次全体提升的时间
+     */
+    private int lastBoostTime;
+
+    public MLFQSchedulerPolicy(Schedule schedule) {
+        this.schedule = schedule;
+        this.lastBoostTime = schedule.getManager().getClock().getCurrentTime();
+    }
+
+    @Override
+    public String getName() {
+        return "mlfq";
+    }
+
+    @Override
+    public synchronized PCB select(RunQueue[] queues) {
+        this.tryBoost();
+        PCB selectedPCB = null;
+        for (RunQueue queue : queues) {
+            for (PCB pcb : queue) {
+                if (selectedPCB == null || pcb.getQueueLevel() < selectedPCB.getQueueLevel() ||
+                        (pcb.getQueueLevel() == selectedPCB.getQueueLevel() && pcb.getPriority() < selectedPCB.getPriority())) {
+                    selectedPCB = pcb;
+                }
+            }
+        }
+        return selectedPCB;
+    }
+
+    @Override
+    public int getTimeSlice(PCB pcb) {
+        return LEVEL_TIME_SLICES[Math.min(pcb.getQueueLevel(), LEVEL_TIME_SLICES.length - 1)];
+    }
+
+    @Override
+    public void onCreate(PCB pcb) {
+        pcb.setQueueLevel(0);
+    }
+
+    @Override
+    public void onTimeSliceExpired(PCB pcb) {
+        pcb.setQueueLevel(Math.min(pcb.getQueueLevel() + 1, LEVEL_TIME_SLICES.length - 1));
+    }
+
+    /**
+     * 到达提升间隔时，将全部进程提升回最高级
+     */
+    private void tryBoost() {
+        int currentTime = this.schedule.getManager().getClock().getCurrentTime();
+        if (currentTime - this.lastBoostTime < BOOST_INTERVAL) {
+            return;
+        }
+        this.lastBoostTime = currentTime;
+        // 进程撤销时不持有调度模块锁，遍历期间锁定队列
+        synchronized (this.schedule.getAllPCBQueue()) {
+            for (PCB pcb : this.schedule.getAllPCBQueue()) {
+                pcb.setQueueLevel(0);
+            }
+        }
+    }
+}
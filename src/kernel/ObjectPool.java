@@ -0,0 +1,170 @@
+package kernel;
+
+import os.BootParameter;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 对象池，仿照内核 slab 分配器
+ *
+ * 缓存固定数量的空闲对象，获取时优先复用，池空时新建；归还时重置对象状态后放回
+ * 调试模式（启动参数 poolDebug）下记录每个未归还对象的获取位置，用于检测泄漏和重复归还
+ *
+ * @param <T> 池化对象类型
+ * @author ZJC
+ */
+public class ObjectPool<T> {
+    /**
+     * 是否开启调试模式
+     */
+    public static final boolean DEBUG = BootParameter.getBoolean("poolDebug", false);
+    /**
+     * 对象池名称
+     */
+    private String name;
+    /**
+     * 空闲对象栈
+     */
+    private Object[] freeObjects;
+    /**
+     * 空闲对象数
+     */
+    private int freeNum;
+    /**
+     * 新建对象的方法
+     */
+    private Supplier<T> factory;
+    /**
+     * 归还时重置对象的方法，可为 null
+     */
+    private Consumer<T> resetter;
+    /**
+     * 新建对象总数
+     */
+    private long createNum;
+    /**
+     * 获取次数
+     */
+    private long acquireNum;
+    /**
+     * 归还次数
+     */
+    private long releaseNum;
+    /**
+     * 调试模式下，未归还对象及其获取位置
+     */
+    private Map<T, Throwable> outstanding;
+
+    public ObjectPool(String name, int capacity, Supplier<T> factory, Consumer<T> resetter) {
+        this.name = name;
+        this.freeObjects = new Object[capacity];
+        this.freeNum = 0;
+        this.factory = factory;
+        this.resetter = resetter;
+        this.createNum = 0;
+        this.acquireNum = 0;
+        this.releaseNum = 0;
+        this.outstanding = DEBUG ? new IdentityHashMap<>() : null;
+        if (DEBUG) {
+            // 调试模式下，系统退出时检测泄漏
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    System.err.println(ObjectPool.this.toString() + " 未归还 " + ObjectPool.this.checkLeak());
+                }
+            });
+        }
+    }
+
+    /**
+     * 获取对象
+     * @return 空闲对象
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T acquire() {
+        T object;
+        if (this.freeNum > 0) {
+            object = (T) this.freeObjects[--this.freeNum];
+            this.freeObjects[this.freeNum] = null;
+        } else {
+            object = this.factory.get();
+            ++this.createNum;
+        }
+        ++this.acquireNum;
+        if (DEBUG) {
+            this.outstanding.put(object, new Throwable("获取位置"));
+        }
+        return object;
+    }
+
+    /**
+     * 归还对象，池满时直接丢弃
+     * @param object 对象
+     */
+    public synchronized void release(T object) {
+        if (object == null) {
+            return;
+        }
+        if (DEBUG && this.outstanding.remove(object) == null) {
+            new Throwable(this.name + " 归还了不属于对象池或已归还的对象").printStackTrace();
+            return;
+        }
+        ++this.releaseNum;
+        if (this.resetter != null) {
+            this.resetter.accept(object);
+        }
+        if (this.freeNum < this.freeObjects.length) {
+            this.freeObjects[this.freeNum++] = object;
+        }
+    }
+
+    /**
+     * 检测泄漏，输出所有未归还对象的获取位置（仅调试模式有效）
+     * @return 未归还对象数
+     */
+    public synchronized int checkLeak() {
+        if (!DEBUG) {
+            return (int) (this.acquireNum - this.releaseNum);
+        }
+        for (Throwable site : this.outstanding.values()) {
+            System.err.println(this.name + " 对象未归还");
+            site.printStackTrace();
+        }
+        return this.outstanding.size();
+    }
+
+    /**
+     * 输出统计信息
+     * @return 信息字符串
+     */
+    @Override
+    public synchronized String toString() {
+        return this.name + " 新建 " + this.createNum +
+                " 获取 " + this.acquireNum +
+                " 归还 " + this.releaseNum +
+                " 空闲 " + this.freeNum;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCreateNum() {
+        return createNum;
+    }
+
+    public long getAcquireNum() {
+        return acquireNum;
+    }
+
+    public long getReleaseNum() {
+        return releaseNum;
+    }
+
+    public int getFreeNum() {
+        return freeNum;
+    }
+}
@@ -1,14 +1,21 @@
 package kernel;
 
 import file.DirectoryItem;
+import file.DiskInode;
 import file.SystemFileItem;
 import file.UserFileItem;
+import hardware.CPU;
+import hardware.ClockEvent;
+import hardware.CycleCounter;
 import hardware.ExternalMem;
 import hardware.InternalMem;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 进程控制块
@@ -24,6 +31,31 @@ public class PCB {
     public static final short BLOCK_STATE = 2;
     public static final short SUSPEND_STATE = 3;
     public static final short FINISH_STATE = 4;
+    public static final int STATE_NUM = 5;
+    public static final String[] STATE_NAMES = new String[]{"就绪", "运行", "阻塞", "挂起", "完成"};
+    // 阻塞原因常量
+    public static final int BLOCK_FOR_IO = 0;
+    public static final int BLOCK_FOR_PAGE_FAULT = 1;
+    public static final int BLOCK_FOR_RESOURCE = 2;
+    public static final int BLOCK_REASON_NUM = 3;
+    public static final String[] BLOCK_REASON_NAMES = new String[]{"输入输出", "缺页", "资源"};
+    // 运行特征常量
+    public static final int INTERACTIVE_BEHAVIOUR = 0;
+    public static final int BALANCED_BEHAVIOUR = 1;
+    public static final int CPU_BOUND_BEHAVIOUR = 2;
+    public static final String[] BEHAVIOUR_NAMES = new String[]{"交互型", "均衡型", "计算型"};
+    /**
+     * 执行段长度估计的平滑系数，新执行段所占的权重
+     */
+    public static final double BURST_ESTIMATE_WEIGHT = 0.5;
+    /**
+     * 执行段长度估计小于系统时间片的该比例时视为交互型
+     */
+    public static final double INTERACTIVE_BURST_RATIO = 0.5;
+    /**
+     * 执行段长度估计不小于系统时间片的该比例时视为计算型
+     */
+    public static final double CPU_BOUND_BURST_RATIO = 0.75;
 
     /**
      * 调度模块
@@ -52,8 +84,9 @@ public class PCB {
     private short IR;
     /**
      * 进程状态寄存器，有运行、就绪、阻塞、挂起、完成
+     * 状态转换以比较并交换完成，只有转换成功的线程继续执行对应原语，原语因此不需要调度模块锁
      */
-    private short state;
+    private AtomicInteger state;
     /**
      * 进程创建时间
      */
@@ -90,6 +123,10 @@ public class PCB {
      * 是否刚刚出现缺页
      */
     private boolean missPage;
+    /**
+     * 缺页次数
+     */
+    private int missPageNum;
     /**
      * 用于页面置换的LRU算法队列
      */
@@ -118,17 +155,120 @@ public class PCB {
      * 打开文件计数，用以分配 fd
      */
     private int openFileCount;
+    /**
+     * 打开文件句柄缓存，记录路径到用户打开文件表项的映射，关闭或删除文件时失效
+     */
+    private HashMap<String, UserFileItem> openFileCache;
+    /**
+     * CPU 周期统计
+     */
+    private CycleCounter cycleCounter;
+    /**
+     * 作业到达时间，用于计算周转时间
+     */
+    private int arriveTime;
+    /**
+     * 截止时间
+     */
+    private int deadline;
+    /**
+     * 各状态累计的时钟周期数，下标为进程状态
+     */
+    private int[] stateTimes;
+    /**
+     * 进入当前状态的时间
+     */
+    private int stateEnterTime;
+    /**
+     * 各阻塞原因累计的时钟周期数
+     */
+    private int[] blockTimes;
+    /**
+     * 当前阻塞的原因
+     */
+    private int blockReason;
+    /**
+     * 首次进入运行态的时间，-1 表示尚未运行
+     */
+    private int firstRunTime;
+    /**
+     * 执行段长度的指数平滑估计，单位 指令
+     * 执行段指两次主动阻塞或被抢占之间连续执行的指令数，缺页阻塞不结束执行段
+     */
+    private double burstEstimate;
+    /**
+     * 当前执行段开始时已完成的指令数
+     */
+    private long burstStartInstructionNum;
+    /**
+     * 准入时估计的驻留页数
+     */
+    private int residentPageEstimate;
+    /**
+     * 挂起时驻留内存的页面（大页记首页逻辑页号），按最近访问顺序排列，最近访问的在队尾，恢复时据此预取
+     */
+    private Vector<Integer> suspendWorkingSet;
+    /**
+     * 是否正在恢复，恢复期间仍在挂起队列中，等待调入页面读取完成
+     */
+    private volatile boolean resuming;
+    /**
+     * 主动让出 CPU（阻塞）的上下文切换次数
+     */
+    private int voluntarySwitchNum;
+    /**
+     * 时间片用完被抢占的上下文切换次数
+     */
+    private int involuntarySwitchNum;
+    /**
+     * 所在的就绪队列，不在就绪队列中为 null
+     */
+    private RunQueue runQueue;
+    /**
+     * 在就绪队列中的级别
+     */
+    private int runQueueLevel;
+    /**
+     * 就绪队列同级链表中的前一个进程
+     */
+    private PCB runQueuePrev;
+    /**
+     * 就绪队列同级链表中的后一个进程
+     */
+    private PCB runQueueNext;
+    /**
+     * 多级反馈队列中的级别，0 为最高级
+     */
+    private int queueLevel;
+    /**
+     * 公平调度的虚拟时间
+     */
+    private long virtualTime;
 
     public PCB(Schedule schedule) {
         this.schedule           = schedule;
         this.PC                 = 1;
         this.IR                 = 0;
-        this.state              = READY_STATE;
+        this.state              = new AtomicInteger(READY_STATE);
         this.missPage           = false;
+        this.missPageNum        = 0;
         this.LRU                = new Vector<>();
+        this.suspendWorkingSet  = new Vector<>();
+        this.resuming           = false;
         this.suspendResource    = new int[Deadlock.RESOURCE_TYPE_NUM];
         this.userOpenFileTable  = new Vector<>();
+        this.openFileCache      = new HashMap<>();
         this.openFileCount      = 0;
+        this.cycleCounter       = new CycleCounter();
+        this.stateTimes         = new int[STATE_NUM];
+        this.blockTimes         = new int[BLOCK_REASON_NUM];
+        this.firstRunTime       = -1;
+        this.burstEstimate      = Schedule.SYSTEM_TIME_SLICE * CPU.INSTRUCTIONS_PER_TICK * (INTERACTIVE_BURST_RATIO + CPU_BOUND_BURST_RATIO) / 2;
+        this.burstStartInstructionNum = 0;
+        this.voluntarySwitchNum = 0;
+        this.involuntarySwitchNum = 0;
+        this.queueLevel         = 0;
+        this.virtualTime        = 0;
     }
 
     /**
@@ -140,34 +280,41 @@ public class PCB {
         this.priority               = jcb.getPriority();
         this.instructionNum         = jcb.getInstructionNum();
         this.inTime                 = (short)this.schedule.getManager().getClock().getCurrentTime();
+        this.stateEnterTime         = this.inTime;
         this.turnTime               = jcb.getInTime();
         this.runTime                = 0;
         this.allocatePageFrameNum   = jcb.getNeedPageNum();
+        this.arriveTime             = jcb.getInTime();
+        this.deadline               = jcb.getDeadline();
 
         // 第0页 PCB    指令不能访问
-        // 第1页 代码段 长度  1页
-        // 第2页 堆栈段 长度  1页
-        // 第3页 数据段 长度1-2页
-        this.codeSegment            = new CodeSegment(jcb.getInstructionNum(), jcb.getInstructions(), 1,1);
-        this.stackSegment           = new StackSegment(2, 1);
-        this.dataSegment            = new DataSegment(new byte[InternalMem.PAGE_SIZE * (jcb.getNeedPageNum() - 3)], 3,jcb.getNeedPageNum() - 3);
+        // 第1页 代码段 长度由指令数决定，512B 页面时 1页
+        // 其后 堆栈段 长度  1页
+        // 其后 数据段 长度为剩余页数，启用大页时前部按大页组织
+        int codePageNum             = CodeSegment.getCodePageNum(jcb.getInstructionNum());
+        int dataPageNum             = jcb.getNeedPageNum() - 2 - codePageNum;
+        int largePageNum            = InternalMem.LARGE_PAGE_ENABLE ? dataPageNum / InternalMem.LARGE_PAGE_FRAME_NUM : 0;
+        this.codeSegment            = new CodeSegment(jcb.getInstructionNum(), jcb.getInstructions(), 1, codePageNum);
+        this.stackSegment           = new StackSegment(1 + codePageNum, 1);
+        this.dataSegment            = new DataSegment(new byte[InternalMem.PAGE_SIZE * dataPageNum], 2 + codePageNum, dataPageNum, largePageNum);
 
         synchronized (this.schedule) {
-            this.schedule.getManager().getCpu().switchToKernelState();
+            this.schedule.getManager().getCpuOf(this).switchToKernelState();
             // 在外存交换区添加物理块，并在主存页表区添加对应的页表项
             // 1.添加PCB信息页（块）
             this.addPCBPage();
             // 2.添加代码段页（块）
-            this.addCodePage();
+            this.addCodePages();
             // 3.添加堆栈段页（块）
             this.addStackPage();
             // 4.添加数据段页（块）
             this.addDataPages();
 
             // 将进程加入就绪队列
+            this.schedule.getPolicy().onCreate(this);
             this.schedule.getReadyQueue().add(this);
-            this.schedule.getAllPCBQueue().add(this);
-            this.schedule.getManager().getCpu().switchToUserState();
+            this.schedule.registerPCB(this);
+            this.schedule.getManager().getCpuOf(this).switchToUserState();
             this.schedule.getManager().getDashboard().consoleInfo("进程 " + this.id + " 创建");
         }
     }
@@ -176,34 +323,40 @@ public class PCB {
      * 进程撤销原语
      */
     public void cancel() {
-        synchronized (this.schedule) {
-            this.schedule.getManager().getCpu().switchToKernelState();
-            // 设置必要的收尾信息
-            this.state = FINISH_STATE;
-            this.endTime = (short) this.schedule.getManager().getClock().getCurrentTime();
-            this.turnTime += this.schedule.getManager().getClock().getCurrentTime();
-            this.runTime = (short)(this.endTime - this.inTime);
-            // 关闭全部打开文件及目录
-            int[] fdList = new int[this.userOpenFileTable.size()];
-            for (int i = 0; i < this.userOpenFileTable.size(); i++) {
-                fdList[i] = this.userOpenFileTable.get(i).getFd();
+        // 运行态或阻塞态 -> 完成态，已撤销则直接返回
+        short currentState;
+        do {
+            currentState = this.getState();
+            if (currentState == FINISH_STATE) {
+                return;
             }
-            synchronized (this.schedule.getManager().getFileSystem()) {
-                this.schedule.getManager().getFileSystem().setUserOperatePCB(this);
-                for (int i = 0; i < fdList.length; i++) {
-                    this.schedule.getManager().getFileSystem().close(fdList[i]);
-                }
+        } while (!this.compareAndSetState(currentState, FINISH_STATE));
+        this.schedule.getManager().getCpuOf(this).switchToKernelState();
+        // 设置必要的收尾信息
+        this.endTime = (short) this.schedule.getManager().getClock().getCurrentTime();
+        this.turnTime += this.schedule.getManager().getClock().getCurrentTime();
+        this.runTime = (short)(this.endTime - this.inTime);
+        // 关闭全部打开文件及目录
+        int[] fdList = new int[this.userOpenFileTable.size()];
+        for (int i = 0; i < this.userOpenFileTable.size(); i++) {
+            fdList[i] = this.userOpenFileTable.get(i).getFd();
+        }
+        synchronized (this.schedule.getManager().getFileSystem()) {
+            this.schedule.getManager().getFileSystem().setUserOperatePCB(this);
+            for (int i = 0; i < fdList.length; i++) {
+                this.schedule.getManager().getFileSystem().close(fdList[i]);
             }
-
-            // 回收页表项及相应内存页框、外存块
-            this.removeAllPages();
-            // 将进程加入完成队列
-            this.schedule.getFinishQueue().add(this);
-            this.schedule.getManager().getInMem().decreasePCB();
-            this.schedule.getLRU().remove(this);
-            this.schedule.getManager().getCpu().switchToUserState();
-            this.schedule.getManager().getDashboard().consoleSuccess("进程 " + this.id + " 撤销");
         }
+
+        // 回收页表项及相应内存页框、外存块
+        this.removeAllPages();
+        this.schedule.getManager().getDashboard().consoleLog("进程 " + this.id + " 缺页次数 " + this.missPageNum);
+        this.schedule.getManager().getInMem().decreasePCB();
+        this.schedule.getLRU().remove(this);
+        // 生成摘要加入完成队列，PCB 移出进程表
+        this.schedule.retirePCB(this);
+        this.schedule.getManager().getCpuOf(this).switchToUserState();
+        this.schedule.getManager().getDashboard().consoleSuccess("进程 " + this.id + " 撤销");
     }
 
     /**
@@ -211,9 +364,11 @@ public class PCB {
      * @param selectedBlockQueue 指定阻塞队列
      */
     public void wakeUp(Vector<PCB> selectedBlockQueue) {
-        synchronized (this.schedule) {
-            this.schedule.getManager().getCpu().switchToKernelState();
-            selectedBlockQueue.remove(this);
+        // 移出阻塞队列与状态转换涉及多个队列，在队列迁移锁内完成
+        synchronized (this.schedule.getQueueMoveLock()) {
+            if (!selectedBlockQueue.remove(this)) {
+                return;
+            }
             // 对于资源阻塞队列，需要额外判断
             if (Arrays.asList(this.schedule.getResourceBlockQueues()).contains(selectedBlockQueue)) {
                 for (int i = 0; i < this.schedule.getResourceBlockQueues().length; ++i) {
@@ -223,11 +378,14 @@ public class PCB {
                     }
                 }
             }
-            this.state = READY_STATE;
-            this.schedule.getReadyQueue().add(this);
-            this.schedule.getManager().getCpu().switchToUserState();
-            this.schedule.getManager().getDashboard().consoleInfo("进程 " + this.id + " 唤醒");
+            // 阻塞态或挂起态 -> 就绪态
+            if (!this.compareAndSetState(BLOCK_STATE, READY_STATE) && !this.compareAndSetState(SUSPEND_STATE, READY_STATE)) {
+                return;
+            }
         }
+        // 进入唤醒队列，由调度线程移入就绪队列
+        this.schedule.addWakeUpPCB(this);
+        this.schedule.getManager().getDashboard().consoleInfo("进程 " + this.id + " 唤醒");
     }
 
     /**
@@ -235,32 +393,58 @@ public class PCB {
      * @param selectedBlockQueue 指定阻塞队列
      */
     public void block(Vector<PCB> selectedBlockQueue) {
-        synchronized (this.schedule) {
-            this.schedule.getManager().getCpu().switchToKernelState();
-            // 保护CPU现场
-            this.schedule.getManager().getCpu().protectSpot();
-            // 进入阻塞队列
-            this.state = BLOCK_STATE;
-            this.inBlockQueueTime = this.schedule.getManager().getClock().getCurrentTime();
+        // 阻塞的总是本核心正在运行的进程，只有进入阻塞队列需要队列迁移锁
+        CPU cpu = this.schedule.getManager().getCpuOf(this);
+        cpu.switchToKernelState();
+        // 保护CPU现场
+        cpu.protectSpot();
+        this.recordSwitch(true, !this.missPage);
+        // 进入阻塞队列
+        if (this.missPage) {
+            this.blockReason = BLOCK_FOR_PAGE_FAULT;
+        } else if (Arrays.asList(this.schedule.getResourceBlockQueues()).contains(selectedBlockQueue)) {
+            this.blockReason = BLOCK_FOR_RESOURCE;
+        } else {
+            this.blockReason = BLOCK_FOR_IO;
+        }
+        this.inBlockQueueTime = this.schedule.getManager().getClock().getCurrentTime();
+        synchronized (this.schedule.getQueueMoveLock()) {
+            // 运行态 -> 阻塞态
+            if (!this.compareAndSetState(RUNNING_STATE, BLOCK_STATE)) {
+                throw new IllegalStateException("进程 " + this.id + " 处于" + STATE_NAMES[this.getState()] + "状态，无法阻塞");
+            }
             selectedBlockQueue.add(this);
-            this.schedule.getManager().getCpu().switchToUserState();
-            this.schedule.getManager().getDashboard().consoleInfo("进程 " + this.id + " 阻塞");
         }
+        cpu.switchToUserState();
+        this.schedule.getManager().getDashboard().consoleInfo("进程 " + this.id + " 阻塞");
     }
 
     /**
-     * 进程挂起原语
-     * @param selectedQueue 指定队列
+     * 进程挂起原语，挂起的进程从所在的就绪队列中移出
      */
-    public void suspend(Vector<PCB> selectedQueue) {
+    public void suspend() {
         synchronized(this.schedule) {
-            this.schedule.getManager().getCpu().switchToKernelState();
+            // 就绪态 -> 挂起态，移出就绪队列需要调度模块锁
+            if (!this.compareAndSetState(READY_STATE, SUSPEND_STATE)) {
+                return;
+            }
+            if (this.runQueue != null) {
+                this.runQueue.remove(this);
+            }
+            this.schedule.getManager().getCpuOf(this).switchToKernelState();
+            // 先写回快表中的脏位，保证页表项修改位准确
+            this.schedule.getManager().writeBackTLBDirty(this);
             // 调出所占内存页框
+            boolean[] released = new boolean[this.allocatePageFrameNum];
+            int writePageNum = 0;
             for (int i = 1; i < this.allocatePageFrameNum; ++i) {
                 // 获取页表项数据
                 int pageItemAddress = this.pageTableBaseAddress + i * InternalMem.PAGE_TABLE_ITEM_SIZE;
-                this.schedule.getManager().getAddressLine().setAddress((short) pageItemAddress);
-                Page page = this.schedule.getManager().getInMem().readPageItem(this.schedule.getManager().getAddressLine());
+                Page page = this.schedule.getManager().getInMem().readPageItem(pageItemAddress);
+                // 大页存根页表项由首页表项统一处理
+                if (page.getLargeFlag() == 1 && page.getLogicPageNo() != i) {
+                    continue;
+                }
                 // 如果该页已经调入，则删除对应内存页框
                 if (page.getCallFlag() == 1) {
                     // 该页被修改，则写回该页
@@ -268,44 +452,226 @@ public class PCB {
                         this.schedule.getManager().getInMem().readPage(page);
                         this.schedule.getManager().getDeviceManage().useBuffer(page, BufferHead.WRITE);
                         page.setModifyFlag(0);
+                        writePageNum += page.getFrameNum();
                     }
                     page.setCallFlag(0);
+                    released[i] = true;
                     // 释放对应页框
-                    this.schedule.getManager().getInMem().releaseUserArea(page.getInternalFrameNo() - InternalMem.USER_AREA_START_PAGE_NO);
+                    this.schedule.getManager().getInMem().releaseUserAreaRun(page.getInternalFrameNo() - InternalMem.USER_AREA_START_PAGE_NO, page.getFrameNum());
+                    this.schedule.getManager().removeTLB(this, page.getLogicPageNo());
+                    this.codeSegment.invalidateDecodedPage(page.getLogicPageNo());
                     // 修改对应页表项
-                    this.schedule.getManager().getAddressLine().setAddress((short) pageItemAddress);
-                    this.schedule.getManager().getInMem().writePageItem(this.schedule.getManager().getAddressLine(), page);
+                    this.schedule.getManager().getInMem().writePageItem(pageItemAddress, page);
                     this.schedule.getManager().getDashboard().consoleInfo("调出进程 " + this.id + " 逻辑页 "  + page.getLogicPageNo() + " 所占内存页框");
                 }
 
             }
+            // 记录挂起时的工作集，未进入页面 LRU 队列的驻留页视为最久未访问
+            this.suspendWorkingSet.clear();
+            for (int i = 1; i < released.length; ++i) {
+                if (released[i] && !this.LRU.contains(i)) {
+                    this.suspendWorkingSet.add(i);
+                }
+            }
+            for (Integer logicPageNo : this.LRU) {
+                if (logicPageNo < released.length && released[logicPageNo]) {
+                    this.suspendWorkingSet.add(logicPageNo);
+                }
+            }
+            this.LRU.clear();
+            this.schedule.recordSuspend(writePageNum);
             // 释放已占用的资源
             for (int i = 0; i < this.suspendResource.length; i++) {
                 if (this.schedule.getManager().getDeadlock().searchAllocation(this.id, i) != -1) {
-                    this.schedule.getManager().getDeadlock().releaseResource(this, i);
+                    // 释放并尝试重分配给阻塞队列队首进程
+                    this.schedule.getManager().getDeadlock().returnResource(this, i);
                     ++this.suspendResource[i];
                 }
-                // 尝试重分配资源
-                if (this.schedule.getResourceBlockQueues()[i].size() > 0) {
-                    int reallocateResult = this.schedule.getManager().getDeadlock().
-                            tryReallocateResource(this.schedule.getResourceBlockQueues()[i].get(0), i);
-                    // 如果返回唤醒标志，则唤醒阻塞队列队首进程
-                    if (reallocateResult == -1) {
-                        this.schedule.getResourceBlockQueues()[i].get(0).
-                                wakeUp(this.schedule.getResourceBlockQueues()[i]);
-                    }
-                }
             }
             // 进入挂起队列
-            this.state = SUSPEND_STATE;
-            this.schedule.getSuspendQueue().add(this);
-            selectedQueue.remove(this);
+            synchronized (this.schedule.getQueueMoveLock()) {
+                this.schedule.getSuspendQueue().add(this);
+            }
             this.schedule.getLRU().remove(this);
-            this.schedule.getManager().getCpu().switchToUserState();
+            this.schedule.getManager().getCpuOf(this).switchToUserState();
             this.schedule.getManager().getDashboard().consoleInfo("进程 " + this.id + " 挂起");
         }
     }
 
+    /**
+     * 进程挂起恢复
+     *
+     * 下一条指令所在的代码页必须调入；开启恢复预取时，再按最近访问顺序从挂起时的工作集中选取页面，直至用完页框预算
+     * 全部页面统一发起外存读取后即返回，不在调度模块锁内等待；全部读取完成后提交恢复完成事件，由时钟线程调入页面并唤醒进程
+     * 恢复期间进程仍在挂起队列中，中级调度不再选择
+     * @param frameBudget 可用于调入的页框数，至少调入下一条指令所在的代码页
+     */
+    public void resume(int frameBudget) {
+        synchronized (this.schedule) {
+            InternalMem inMem = this.schedule.getManager().getInMem();
+            // 挑选调入页面，下一条指令所在的代码页最先
+            int codePageNo = this.codeSegment.getLogicPageNoOfInstruction(Math.min(this.PC, this.instructionNum));
+            Vector<Page> pages = new Vector<>();
+            Page codePage = inMem.readHeadPageItem(this.pageTableBaseAddress, codePageNo);
+            pages.add(codePage);
+            int usedFrameNum = codePage.getFrameNum();
+            if (Schedule.RESUME_PREFETCH) {
+                for (int i = this.suspendWorkingSet.size() - 1; i >= 0; --i) {
+                    int logicPageNo = this.suspendWorkingSet.get(i);
+                    Page page = inMem.readHeadPageItem(this.pageTableBaseAddress, logicPageNo);
+                    if (page.getLogicPageNo() == codePage.getLogicPageNo() || page.getCallFlag() == 1 ||
+                            usedFrameNum + page.getFrameNum() > frameBudget) {
+                        continue;
+                    }
+                    pages.add(page);
+                    usedFrameNum += page.getFrameNum();
+                }
+            }
+            this.suspendWorkingSet.clear();
+            // 申请页框，无法获得连续页框的大页放弃预取
+            Vector<Page> loadPages = new Vector<>();
+            Vector<Integer> frameIndexes = new Vector<>();
+            for (Page page : pages) {
+                int frameIndex = inMem.allocateUserAreaRun(page.getFrameNum());
+                if (frameIndex == -1) {
+                    continue;
+                }
+                loadPages.add(page);
+                frameIndexes.add(frameIndex);
+            }
+            // 统一发起外存读取，全部完成后提交恢复完成事件，时钟在此之前不推进
+            this.resuming = true;
+            int startTime = this.schedule.getManager().getClock().getCurrentTime();
+            this.schedule.getManager().getClock().beginWork();
+            CompletableFuture<?>[] readFinishes = new CompletableFuture<?>[loadPages.size()];
+            for (int i = 0; i < loadPages.size(); ++i) {
+                readFinishes[i] = this.schedule.getManager().getDeviceManage().useBuffer(loadPages.get(i), BufferHead.READ);
+            }
+            CompletableFuture.allOf(readFinishes).whenComplete((result, e) -> {
+                if (e != null) {
+                    e.printStackTrace();
+                }
+                // 恢复需要 1 个时钟周期
+                this.schedule.getManager().getClock().postEvent(startTime + 1, ClockEvent.RESUME_FINISH,
+                        () -> this.finishResume(loadPages, frameIndexes));
+                this.schedule.getManager().getClock().endWork();
+            });
+        }
+    }
+
+    /**
+     * 恢复完成事件处理，将已读入的页面写入分配的页框并修改页表项，然后唤醒进程
+     * @param loadPages 调入的页面
+     * @param frameIndexes 各页面分配的起始用户区索引
+     */
+    private void finishResume(Vector<Page> loadPages, Vector<Integer> frameIndexes) {
+        InternalMem inMem = this.schedule.getManager().getInMem();
+        int readPageNum = 0;
+        int loadPageNum = 0;
+        for (int i = loadPages.size() - 1; i >= 0; --i) {
+            Page page = loadPages.get(i);
+            if (page.getData() == null) {
+                // 读取失败，归还页框，运行时再缺页调入
+                inMem.releaseUserAreaRun(frameIndexes.get(i), page.getFrameNum());
+                continue;
+            }
+            // 更新页表项
+            page.setInternalFrameNo(frameIndexes.get(i) + InternalMem.USER_AREA_START_PAGE_NO);
+            page.setCallFlag(1);
+            inMem.writePage(page);
+            inMem.writePageItem(this.pageTableBaseAddress + page.getLogicPageNo() * InternalMem.PAGE_TABLE_ITEM_SIZE, page);
+            // 预取页按挂起前的访问顺序重建页面 LRU 队列，代码页最后加入
+            this.accessPage(page.getLogicPageNo());
+            readPageNum += page.getFrameNum();
+            ++loadPageNum;
+            // 刷新GUI
+            this.schedule.getManager().getDashboard().consoleInfo("进程 " + this.id +
+                    " 逻辑页号：" + page.getLogicPageNo() +
+                    " 分配主存框号：" + page.getInternalFrameNo());
+        }
+        this.schedule.recordResume(readPageNum);
+        this.schedule.getManager().getDashboard().consoleInfo("进程 " + this.id + " 恢复调入 " + loadPageNum + " 个页面");
+        this.resuming = false;
+        this.wakeUp(this.schedule.getSuspendQueue());
+    }
+
+    /**
+     * 获取驻留内存的页框数，大页按所占页框数计
+     * @return 页框数
+     */
+    public int getResidentFrameNum() {
+        int residentFrameNum = 0;
+        for (Integer logicPageNo : this.LRU) {
+            Page page = this.schedule.getManager().getInMem().readHeadPageItem(this.pageTableBaseAddress, logicPageNo);
+            if (page.getCallFlag() == 1) {
+                residentFrameNum += page.getFrameNum();
+            }
+        }
+        return residentFrameNum;
+    }
+
+    /**
+     * 获取驻留内存且被修改过的页数，即挂起时需写回外存的页数
+     * 运行中进程快表内的修改位尚未写回页表，只统计页表项中的修改位
+     * @return 页数，大页按所占页框数计
+     */
+    public int getDirtyPageNum() {
+        int dirtyPageNum = 0;
+        for (Integer logicPageNo : this.LRU) {
+            Page page = this.schedule.getManager().getInMem().readHeadPageItem(this.pageTableBaseAddress, logicPageNo);
+            if (page.getCallFlag() == 1 && page.getModifyFlag() == 1) {
+                dirtyPageNum += page.getFrameNum();
+            }
+        }
+        return dirtyPageNum;
+    }
+
+    /**
+     * 记录一次上下文切换，执行段结束时按本段长度更新执行段长度估计
+     * @param voluntary 是否主动让出 CPU（阻塞），否则为时间片用完被抢占
+     * @param burstEnd 是否结束当前执行段，缺页阻塞后恢复运行仍属同一执行段
+     */
+    public void recordSwitch(boolean voluntary, boolean burstEnd) {
+        if (voluntary) {
+            ++this.voluntarySwitchNum;
+        } else {
+            ++this.involuntarySwitchNum;
+        }
+        if (burstEnd) {
+            long instructionNum = this.cycleCounter.getInstructionNum();
+            this.burstEstimate = BURST_ESTIMATE_WEIGHT * (instructionNum - this.burstStartInstructionNum) +
+                    (1 - BURST_ESTIMATE_WEIGHT) * this.burstEstimate;
+            this.burstStartInstructionNum = instructionNum;
+        }
+        this.schedule.recordContextSwitch(voluntary);
+    }
+
+    /**
+     * 按执行段长度估计判断运行特征，频繁系统调用阻塞的进程执行段短，为交互型；总是用完时间片的进程为计算型
+     * @return 运行特征
+     */
+    public int getBehaviour() {
+        double baseBurst = Schedule.SYSTEM_TIME_SLICE * CPU.INSTRUCTIONS_PER_TICK;
+        if (this.burstEstimate < baseBurst * INTERACTIVE_BURST_RATIO) {
+            return INTERACTIVE_BEHAVIOUR;
+        }
+        if (this.burstEstimate >= baseBurst * CPU_BOUND_BURST_RATIO) {
+            return CPU_BOUND_BEHAVIOUR;
+        }
+        return BALANCED_BEHAVIOUR;
+    }
+
+    /**
+     * 获取调度使用的优先级，启用自适应时间片时交互型进程提升一级
+     * @return 优先级
+     */
+    public int getSchedulePriority() {
+        if (Schedule.ADAPTIVE_TIME_SLICE && this.getBehaviour() == INTERACTIVE_BEHAVIOUR) {
+            return Math.max(1, this.priority - 1);
+        }
+        return this.priority;
+    }
+
     /**
      * 是否存在挂起资源
      * @return 是否存在
@@ -324,6 +690,8 @@ public class PCB {
      * @param logicPageNo 逻辑页号
      */
     public void accessPage(int logicPageNo) {
+        // 大页统一以首页逻辑页号记录
+        logicPageNo = this.getHeadLogicPageNo(logicPageNo);
         for (int i = 0; i < this.LRU.size(); ++i) {
             // 遍历查找，是否之前访问过该页，则重新排列
             if (this.LRU.get(i).intValue() == logicPageNo) {
@@ -332,7 +700,18 @@ public class PCB {
             }
         }
         // 最新访问页放在队尾
-        this.LRU.add(new Integer(logicPageNo));
+        // 逻辑页号较小，装箱使用 Integer 缓存，不新建对象
+        this.LRU.add(Integer.valueOf(logicPageNo));
+    }
+
+    /**
+     * 获取逻辑页所属页面的首页逻辑页号，普通页即为自身
+     * @param logicPageNo 逻辑页号
+     * @return 首页逻辑页号
+     */
+    public int getHeadLogicPageNo(int logicPageNo) {
+        Page page = this.schedule.getManager().getInMem().readHeadPageItem(this.pageTableBaseAddress, logicPageNo);
+        return page.getLargeFlag() == 1 ? page.getLogicPageNo() : logicPageNo;
     }
 
     /**
@@ -376,6 +755,52 @@ public class PCB {
         this.schedule.getManager().getDeviceManage().useBuffer(page, BufferHead.WRITE);
     }
 
+    /**
+     * 添加PCB的一个大页到交换区，大页占用连续的外存块
+     * @param page 页信息
+     * @return 是否添加成功，交换区无足够连续块时返回 false
+     */
+    public boolean addLargeBlockToSwapArea(Page page) {
+        int index = this.schedule.getManager().getExMem().allocateSwapAreaBlocks(page.getFrameNum());
+        if (index == -1) {
+            return false;
+        }
+        page.setExternalBlockNo(ExternalMem.SWAP_AREA_START_BLOCK_NO + index);
+        this.schedule.getManager().getDeviceManage().useBuffer(page, BufferHead.WRITE);
+        return true;
+    }
+
+    /**
+     * 添加大页的存根页表项，逻辑页号字段记录首页逻辑页号
+     * @param page 大页首页信息
+     */
+    public void addLargePageStubItems(Page page) {
+        for (int i = 1; i < page.getFrameNum(); ++i) {
+            Page stub = new Page();
+            stub.setLogicPageNo(page.getLogicPageNo());
+            stub.setInternalFrameNo(-1);
+            stub.setExternalBlockNo(page.getExternalBlockNo() + i);
+            stub.setLargeFlag(1);
+            this.schedule.getManager().getInMem().writePageItem(this.pageTableBaseAddress + (page.getLogicPageNo() + i) * InternalMem.PAGE_TABLE_ITEM_SIZE, stub);
+        }
+    }
+
+    /**
+     * 将大页拆分为普通页表项，用于大页无法获得连续空间时降级
+     * @param page 大页首页信息，外存块已连续分配
+     */
+    public void splitLargePageItems(Page page) {
+        int frameNum = page.getFrameNum();
+        for (int i = 0; i < frameNum; ++i) {
+            Page basePage = new Page();
+            basePage.setLogicPageNo(page.getLogicPageNo() + i);
+            basePage.setInternalFrameNo(-1);
+            basePage.setExternalBlockNo(page.getExternalBlockNo() + i);
+            this.schedule.getManager().getInMem().writePageItem(this.pageTableBaseAddress + basePage.getLogicPageNo() * InternalMem.PAGE_TABLE_ITEM_SIZE, basePage);
+        }
+        this.schedule.getManager().getDashboard().consoleInfo("进程 " + this.id + " 逻辑页 " + page.getLogicPageNo() + " 大页拆分为普通页");
+    }
+
     /**
      * 添加PCB的一个页表项到内存页表
      * @param page 页信息
@@ -383,8 +808,10 @@ public class PCB {
     public void addPageItemToPageTable(Page page) {
         // 如果该页逻辑页号为 0，则获取内存页表中空闲页表项的索引，并设置内存页表基址
         if(page.getLogicPageNo() == 0) {
-            int index = this.schedule.getManager().getInMem().allocatePageTable();
-            this.pageTableBaseAddress = InternalMem.PAGE_TABLE_START_PAGE_NO * InternalMem.PAGE_SIZE + index * 16 * InternalMem.PAGE_TABLE_ITEM_SIZE;
+            // 页表项较多时占用连续多个页表区域
+            int areaNum = (this.allocatePageFrameNum + InternalMem.PAGE_TABLE_ITEM_NUM - 1) / InternalMem.PAGE_TABLE_ITEM_NUM;
+            int index = this.schedule.getManager().getInMem().allocatePageTable(areaNum);
+            this.pageTableBaseAddress = InternalMem.PAGE_TABLE_START_PAGE_NO * InternalMem.PAGE_SIZE + index * InternalMem.PAGE_TABLE_AREA_SIZE;
         }
         int pageItemAddress = this.pageTableBaseAddress + page.getLogicPageNo() * InternalMem.PAGE_TABLE_ITEM_SIZE;
         // 设置两个Flag
@@ -394,15 +821,15 @@ public class PCB {
         page.setModifyFlag(0);
 
         // 将页表项写入主存页表
-        this.schedule.getManager().getAddressLine().setAddress((short) pageItemAddress);
-        this.schedule.getManager().getInMem().writePageItem(this.schedule.getManager().getAddressLine(), page);
+        this.schedule.getManager().getInMem().writePageItem(pageItemAddress, page);
         this.schedule.getManager().getDashboard().consoleLog("进程" + this.getId() + " 分配页表项 -> " +
                 "页表项地址：" + pageItemAddress +
                 " 逻辑页号：" + page.getLogicPageNo() +
                 " 主存框号：" + page.getInternalFrameNo() +
                 " 外存块号：" + page.getExternalBlockNo() +
                 " 装入位：" + page.getCallFlag() +
-                " 修改位：" + page.getModifyFlag());
+                " 修改位：" + page.getModifyFlag() +
+                " 大页位：" + page.getLargeFlag());
     }
 
     /**
@@ -417,10 +844,12 @@ public class PCB {
     /**
      * 添加代码段页到系统中
      */
-    public void addCodePage() {
-        Page page = this.codeSegment.initCodePage();
-        this.addBlockToSwapArea(page);
-        this.addPageItemToPageTable(page);
+    public void addCodePages() {
+        Page[] pages = this.codeSegment.initCodePages();
+        for (int i = 0; i < pages.length; ++i) {
+            this.addBlockToSwapArea(pages[i]);
+            this.addPageItemToPageTable(pages[i]);
+        }
     }
 
     /**
@@ -438,6 +867,24 @@ public class PCB {
     public void addDataPages() {
         Page[] pages = this.dataSegment.initDataPages();
         for (int i =0; i < pages.length; ++i) {
+            if (pages[i].getLargeFlag() == 1) {
+                if (this.addLargeBlockToSwapArea(pages[i])) {
+                    this.addPageItemToPageTable(pages[i]);
+                    this.addLargePageStubItems(pages[i]);
+                    continue;
+                }
+                // 交换区无足够连续块，则大页退化为普通页
+                byte[] largeData = pages[i].getData();
+                for (int j = 0; j < InternalMem.LARGE_PAGE_FRAME_NUM; ++j) {
+                    Page page = new Page();
+                    page.setLogicPageNo(pages[i].getLogicPageNo() + j);
+                    page.setInternalFrameNo(-1);
+                    page.setData(Arrays.copyOfRange(largeData, j * InternalMem.PAGE_SIZE, (j + 1) * InternalMem.PAGE_SIZE));
+                    this.addBlockToSwapArea(page);
+                    this.addPageItemToPageTable(page);
+                }
+                continue;
+            }
             this.addBlockToSwapArea(pages[i]);
             this.addPageItemToPageTable(pages[i]);
         }
@@ -450,18 +897,21 @@ public class PCB {
         // 遍历每一个页表项，进行操作
         for (int i = 0; i < this.allocatePageFrameNum; ++i) {
             // 获取页表项数据
-            this.schedule.getManager().getAddressLine().setAddress((short)(this.pageTableBaseAddress + i * InternalMem.PAGE_TABLE_ITEM_SIZE));
-            Page page = this.schedule.getManager().getInMem().readPageItem(this.schedule.getManager().getAddressLine());
+            Page page = this.schedule.getManager().getInMem().readPageItem(this.pageTableBaseAddress + i * InternalMem.PAGE_TABLE_ITEM_SIZE);
+            // 大页存根页表项由首页表项统一处理
+            if (page.getLargeFlag() == 1 && page.getLogicPageNo() != i) {
+                continue;
+            }
             // 如果该页已经调入，则删除对应页框
             if (page.getCallFlag() == 1) {
                 if (i == 0) {
                     this.schedule.getManager().getInMem().releasePool(page.getInternalFrameNo() - InternalMem.PCB_POOL_START_PAGE_NO);
                 } else {
-                    this.schedule.getManager().getInMem().releaseUserArea(page.getInternalFrameNo() - InternalMem.USER_AREA_START_PAGE_NO);
+                    this.schedule.getManager().getInMem().releaseUserAreaRun(page.getInternalFrameNo() - InternalMem.USER_AREA_START_PAGE_NO, page.getFrameNum());
                 }
             }
             // 删除对应外存块
-            this.schedule.getManager().getExMem().releaseSwapAreaBlock(page.getExternalBlockNo() - ExternalMem.SWAP_AREA_START_BLOCK_NO);
+            this.schedule.getManager().getExMem().releaseSwapAreaBlocks(page.getExternalBlockNo() - ExternalMem.SWAP_AREA_START_BLOCK_NO, page.getFrameNum());
             // 删除页表项
             this.schedule.getManager().getDashboard().consoleLog("释放进程 " + this.id +
                     " 逻辑页 "  + page.getLogicPageNo() +
@@ -469,7 +919,7 @@ public class PCB {
                     " 外存块号 " + page.getExternalBlockNo());
         }
         // 释放该进程页表区
-        this.schedule.getManager().getInMem().releasePageTable(this.pageTableBaseAddress / 64);
+        this.schedule.getManager().getInMem().releasePageTable(this.pageTableBaseAddress / InternalMem.PAGE_TABLE_AREA_SIZE);
     }
 
     /**
@@ -482,10 +932,12 @@ public class PCB {
         return this.openFileCount++;
     }
     /**
-     * 添加用户打开文件表表项
+     * 删除用户打开文件表表项
      * @param fd 文件描述符
      */
     public synchronized void removeOpenFileItem(int fd) {
+        // 对应的句柄缓存失效
+        this.openFileCache.values().removeIf(userFileItem -> userFileItem.getFd() == fd);
         Iterator<UserFileItem> iterator = this.userOpenFileTable.iterator();
         while (iterator.hasNext()) {
             if (iterator.next().getFd() == fd) {
@@ -495,6 +947,60 @@ public class PCB {
         }
     }
 
+    /**
+     * 根据路径查找已打开文件的用户打开文件表项
+     *
+     * 首次查找时解析路径并遍历用户打开文件表，结果存入句柄缓存，之后直接命中
+     * 解析路径时不持有PCB锁，避免与文件系统锁的加锁顺序相反
+     * @param filePath 文件路径
+     * @return 用户打开文件表项，文件不存在或未打开则返回 null
+     */
+    public UserFileItem getOpenFileItemByPath(String filePath) {
+        synchronized (this) {
+            UserFileItem cachedItem = this.openFileCache.get(filePath);
+            if (cachedItem != null) {
+                return cachedItem;
+            }
+        }
+        FileSystem fileSystem = this.schedule.getManager().getFileSystem();
+        try {
+            DiskInode targetInode = fileSystem.getDiskInodeByPath(filePath);
+            if (targetInode == null) {
+                return null;
+            }
+            for (int i = 0; i < this.userOpenFileTable.size(); ++i) {
+                UserFileItem userFileItem = this.userOpenFileTable.get(i);
+                if (fileSystem.getDiskInode(userFileItem.getFp().getInode().getInodeNo()) == targetInode) {
+                    synchronized (this) {
+                        // 解析期间该表项可能已被关闭
+                        if (this.userOpenFileTable.contains(userFileItem)) {
+                            this.openFileCache.put(filePath, userFileItem);
+                        }
+                    }
+                    return userFileItem;
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * 清空打开文件句柄缓存，适用于 文件被删除或目录结构改变时
+     */
+    public synchronized void clearOpenFileCache() {
+        this.openFileCache.clear();
+    }
+
+    public int getMissPageNum() {
+        return missPageNum;
+    }
+
+    public void setMissPageNum(int missPageNum) {
+        this.missPageNum = missPageNum;
+    }
+
     public Schedule getSchedule() {
         return schedule;
     }
@@ -544,11 +1050,47 @@ public class PCB {
     }
 
     public short getState() {
-        return state;
+        return (short) state.get();
     }
 
+    /**
+     * 切换进程状态，累计原状态的停留时间
+     * @param state 新状态
+     */
     public void setState(short state) {
-        this.state = state;
+        this.recordStateTime((short) this.state.getAndSet(state), state);
+    }
+
+    /**
+     * 进程处于预期状态时切换到新状态，累计原状态的停留时间
+     * @param expectedState 预期状态
+     * @param state 新状态
+     * @return 是否切换成功
+     */
+    public boolean compareAndSetState(short expectedState, short state) {
+        if (!this.state.compareAndSet(expectedState, state)) {
+            return false;
+        }
+        this.recordStateTime(expectedState, state);
+        return true;
+    }
+
+    /**
+     * 累计原状态的停留时间，由完成状态转换的线程调用
+     * @param oldState 原状态
+     * @param state 新状态
+     */
+    private void recordStateTime(short oldState, short state) {
+        int currentTime = this.schedule.getManager().getClock().getCurrentTime();
+        int duration = currentTime - this.stateEnterTime;
+        this.stateTimes[oldState] += duration;
+        if (oldState == BLOCK_STATE) {
+            this.blockTimes[this.blockReason] += duration;
+        }
+        if (state == RUNNING_STATE && this.firstRunTime == -1) {
+            this.firstRunTime = currentTime;
+        }
+        this.stateEnterTime = currentTime;
     }
 
     public short getInTime() {
@@ -678,4 +1220,177 @@ public class PCB {
     public void setOpenFileCount(int openFileCount) {
         this.openFileCount = openFileCount;
     }
+
+    public CycleCounter getCycleCounter() {
+        return cycleCounter;
+    }
+
+    public int getArriveTime() {
+        return arriveTime;
+    }
+
+    public int getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * 获取在某状态累计的时钟周期数，包括当前状态已停留的时间
+     * @param state 进程状态
+     * @return 时钟周期数
+     */
+    public int getStateTime(int state) {
+        int stateTime = this.stateTimes[state];
+        if (state == this.getState() && state != FINISH_STATE) {
+            stateTime += this.schedule.getManager().getClock().getCurrentTime() - this.stateEnterTime;
+        }
+        return stateTime;
+    }
+
+    /**
+     * 获取因某原因阻塞累计的时钟周期数，包括当前阻塞已停留的时间
+     * @param reason 阻塞原因
+     * @return 时钟周期数
+     */
+    public int getBlockTime(int reason) {
+        int blockTime = this.blockTimes[reason];
+        if (this.getState() == BLOCK_STATE && reason == this.blockReason) {
+            blockTime += this.schedule.getManager().getClock().getCurrentTime() - this.stateEnterTime;
+        }
+        return blockTime;
+    }
+
+    /**
+     * 获取在就绪队列中等待的时钟周期数
+     * @return 时钟周期数
+     */
+    public int getWaitTime() {
+        return this.getStateTime(READY_STATE);
+    }
+
+    /**
+     * 获取响应时间，即作业进入到首次运行的时钟周期数
+     * @return 时钟周期数，尚未运行返回 -1
+     */
+    public int getResponseTime() {
+        return this.firstRunTime == -1 ? -1 : this.firstRunTime - this.arriveTime;
+    }
+
+    /**
+     * 输出各状态的停留时间
+     * @return 信息字符串
+     */
+    public String getStateTimeInfo() {
+        int[] currentStateTimes = new int[STATE_NUM];
+        for (int i = 0; i < STATE_NUM; ++i) {
+            currentStateTimes[i] = this.getStateTime(i);
+        }
+        int[] currentBlockTimes = new int[BLOCK_REASON_NUM];
+        for (int i = 0; i < BLOCK_REASON_NUM; ++i) {
+            currentBlockTimes[i] = this.getBlockTime(i);
+        }
+        return getStateTimeInfo(currentStateTimes, currentBlockTimes);
+    }
+
+    /**
+     * 输出各状态的停留时间
+     * @param stateTimes 各状态累计的时钟周期数
+     * @param blockTimes 各阻塞原因累计的时钟周期数
+     * @return 信息字符串
+     */
+    public static String getStateTimeInfo(int[] stateTimes, int[] blockTimes) {
+        StringBuilder info = new StringBuilder();
+        for (int i = READY_STATE; i <= SUSPEND_STATE; ++i) {
+            if (i > READY_STATE) {
+                info.append(" ");
+            }
+            info.append(STATE_NAMES[i]).append(" ").append(stateTimes[i]);
+            if (i == BLOCK_STATE) {
+                info.append("(");
+                for (int j = 0; j < BLOCK_REASON_NUM; ++j) {
+                    if (j > 0) {
+                        info.append(" ");
+                    }
+                    info.append(BLOCK_REASON_NAMES[j]).append(" ").append(blockTimes[j]);
+                }
+                info.append(")");
+            }
+        }
+        return info.toString();
+    }
+
+    public int getQueueLevel() {
+        return queueLevel;
+    }
+
+    public void setQueueLevel(int queueLevel) {
+        this.queueLevel = queueLevel;
+    }
+
+    public long getVirtualTime() {
+        return virtualTime;
+    }
+
+    public void setVirtualTime(long virtualTime) {
+        this.virtualTime = virtualTime;
+    }
+
+    public RunQueue getRunQueue() {
+        return runQueue;
+    }
+
+    public void setRunQueue(RunQueue runQueue) {
+        this.runQueue = runQueue;
+    }
+
+    public int getRunQueueLevel() {
+        return runQueueLevel;
+    }
+
+    public void setRunQueueLevel(int runQueueLevel) {
+        this.runQueueLevel = runQueueLevel;
+    }
+
+    public PCB getRunQueuePrev() {
+        return runQueuePrev;
+    }
+
+    public void setRunQueuePrev(PCB runQueuePrev) {
+        this.runQueuePrev = runQueuePrev;
+    }
+
+    public PCB getRunQueueNext() {
+        return runQueueNext;
+    }
+
+    public void setRunQueueNext(PCB runQueueNext) {
+        this.runQueueNext = runQueueNext;
+    }
+
+    public double getBurstEstimate() {
+        return burstEstimate;
+    }
+
+    public int getVoluntarySwitchNum() {
+        return voluntarySwitchNum;
+    }
+
+    public int getInvoluntarySwitchNum() {
+        return involuntarySwitchNum;
+    }
+
+    public int getResidentPageEstimate() {
+        return residentPageEstimate;
+    }
+
+    public void setResidentPageEstimate(int residentPageEstimate) {
+        this.residentPageEstimate = residentPageEstimate;
+    }
+
+    public Vector<Integer> getSuspendWorkingSet() {
+        return suspendWorkingSet;
+    }
+
+    public boolean isResuming() {
+        return resuming;
+    }
 }
@@ -2,6 +2,8 @@ package kernel;
 
 import hardware.InternalMem;
 
+import java.util.Arrays;
+
 /**
  * 页块封装类
  *
@@ -11,6 +13,11 @@ import hardware.InternalMem;
  * @author ZJC
  */
 public class Page {
+    /**
+     * 页数据缓冲池，供临时使用的整页数据缓冲，归还时清零
+     */
+    public static final ObjectPool<byte[]> DATA_POOL = new ObjectPool<>("页数据缓冲池", 64,
+            () -> new byte[InternalMem.PAGE_SIZE], data -> Arrays.fill(data, (byte) 0));
     /**
      * 逻辑页号
      */
@@ -31,6 +38,10 @@ public class Page {
      * 修改标志位，0未修改，1已修改
      */
     private int modifyFlag;
+    /**
+     * 大页标志位，0普通页，1大页（连续占用多个页框、外存块）
+     */
+    private int largeFlag;
     /**
      * 存储该页的数据，与内存页框数据保持一致
      */
@@ -43,6 +54,7 @@ public class Page {
         this.externalBlockNo = 0;
         this.callFlag = 0;
         this.modifyFlag = 0;
+        this.largeFlag = 0;
         this.data = new byte[InternalMem.PAGE_SIZE];
     }
 
@@ -52,9 +64,18 @@ public class Page {
         this.externalBlockNo = externalBlockNo;
         this.callFlag = callFlag;
         this.modifyFlag = modifyFlag;
+        this.largeFlag = 0;
         this.data = data;
     }
 
+    /**
+     * 获取该页占用的页框数（外存块数）
+     * @return 页框数
+     */
+    public int getFrameNum() {
+        return this.largeFlag == 1 ? InternalMem.LARGE_PAGE_FRAME_NUM : 1;
+    }
+
     public int getLogicPageNo() {
         return logicPageNo;
     }
@@ -95,6 +116,14 @@ public class Page {
         this.modifyFlag = modifyFlag;
     }
 
+    public int getLargeFlag() {
+        return largeFlag;
+    }
+
+    public void setLargeFlag(int largeFlag) {
+        this.largeFlag = largeFlag;
+    }
+
     public synchronized byte[] getData() {
         return data;
     }
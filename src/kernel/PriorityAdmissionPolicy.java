@@ -0,0 +1,28 @@
+package kernel;
+
+import java.util.Vector;
+
+/**
+ * 优先级准入策略
+ *
+ * 选择优先级数值最小的作业，同优先级先来先服务
+ *
+ * @author ZJC
+ */
+public class PriorityAdmissionPolicy implements AdmissionPolicy {
+    @Override
+    public String getName() {
+        return "priority";
+    }
+
+    @Override
+    public JCB select(Vector<JCB> candidates) {
+        JCB selectedJcb = candidates.get(0);
+        for (JCB jcb : candidates) {
+            if (jcb.getPriority() < selectedJcb.getPriority()) {
+                selectedJcb = jcb;
+            }
+        }
+        return selectedJcb;
+    }
+}
@@ -0,0 +1,32 @@
+package kernel;
+
+/**
+ * 静态优先级调度策略
+ *
+ * 选择优先级数值最小的进程，同优先级时先到先得，时间片固定为系统时间片
+ * 直接取各就绪队列位图中最高级别的队首，选择代价与就绪进程数无关
+ *
+ * @author ZJC
+ */
+public class PrioritySchedulerPolicy implements SchedulerPolicy {
+    @Override
+    public String getName() {
+        return "priority";
+    }
+
+    @Override
+    public PCB select(RunQueue[] queues) {
+        RunQueue selectedQueue = queues[0];
+        for (int i = 1; i < queues.length; ++i) {
+            if (queues[i].getFirstLevel() < selectedQueue.getFirstLevel()) {
+                selectedQueue = queues[i];
+            }
+        }
+        return selectedQueue.getFirst();
+    }
+
+    @Override
+    public int getTimeSlice(PCB pcb) {
+        return Schedule.SYSTEM_TIME_SLICE;
+    }
+}
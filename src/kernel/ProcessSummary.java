@@ -0,0 +1,192 @@
+package kernel;
+
+import hardware.CycleCounter;
+
+/**
+ * 已完成进程的摘要
+ *
+ * 进程撤销时由 PCB 生成，只保留性能统计和界面展示所需的信息
+ * 完成队列保存摘要而不是 PCB，使打开文件表、代码段、数据段等随 PCB 一并回收，长时间运行时内存不随完成进程数增长
+ *
+ * @author ZJC
+ */
+public class ProcessSummary {
+    /**
+     * 进程 ID
+     */
+    private short id;
+    /**
+     * 进程优先级
+     */
+    private short priority;
+    /**
+     * 进程指令数
+     */
+    private short instructionNum;
+    /**
+     * 分配的页数
+     */
+    private short allocatePageFrameNum;
+    /**
+     * 作业进入后备队列的时间
+     */
+    private int arriveTime;
+    /**
+     * 进程创建时间
+     */
+    private short inTime;
+    /**
+     * 进程结束时间
+     */
+    private short endTime;
+    /**
+     * 进程运行时间
+     */
+    private short runTime;
+    /**
+     * 进程周转时间
+     */
+    private short turnTime;
+    /**
+     * 截止时间
+     */
+    private int deadline;
+    /**
+     * 响应时间，未运行过为 -1
+     */
+    private int responseTime;
+    /**
+     * 缺页次数
+     */
+    private int missPageNum;
+    /**
+     * 各状态累计的时钟周期数
+     */
+    private int[] stateTimes;
+    /**
+     * 各阻塞原因累计的时钟周期数
+     */
+    private int[] blockTimes;
+    /**
+     * 主动让出 CPU 的上下文切换次数
+     */
+    private int voluntarySwitchNum;
+    /**
+     * 时间片用完被抢占的上下文切换次数
+     */
+    private int involuntarySwitchNum;
+    /**
+     * 周期计数器
+     */
+    private CycleCounter cycleCounter;
+
+    public ProcessSummary(PCB pcb) {
+        this.id                     = pcb.getId();
+        this.priority               = pcb.getPriority();
+        this.instructionNum         = pcb.getInstructionNum();
+        this.allocatePageFrameNum   = pcb.getAllocatePageFrameNum();
+        this.arriveTime             = pcb.getArriveTime();
+        this.inTime                 = pcb.getInTime();
+        this.endTime                = pcb.getEndTime();
+        this.runTime                = pcb.getRunTime();
+        this.turnTime               = pcb.getTurnTime();
+        this.deadline               = pcb.getDeadline();
+        this.responseTime           = pcb.getResponseTime();
+        this.missPageNum            = pcb.getMissPageNum();
+        this.stateTimes             = new int[PCB.STATE_NUM];
+        for (int i = 0; i < PCB.STATE_NUM; ++i) {
+            this.stateTimes[i] = pcb.getStateTime(i);
+        }
+        this.blockTimes             = new int[PCB.BLOCK_REASON_NUM];
+        for (int i = 0; i < PCB.BLOCK_REASON_NUM; ++i) {
+            this.blockTimes[i] = pcb.getBlockTime(i);
+        }
+        this.voluntarySwitchNum     = pcb.getVoluntarySwitchNum();
+        this.involuntarySwitchNum   = pcb.getInvoluntarySwitchNum();
+        this.cycleCounter           = pcb.getCycleCounter();
+    }
+
+    /**
+     * 获取就绪等待时间
+     * @return 时钟周期数
+     */
+    public int getWaitTime() {
+        return this.stateTimes[PCB.READY_STATE];
+    }
+
+    /**
+     * 输出各状态的停留时间
+     * @return 信息字符串
+     */
+    public String getStateTimeInfo() {
+        return PCB.getStateTimeInfo(this.stateTimes, this.blockTimes);
+    }
+
+    public int getStateTime(int state) {
+        return stateTimes[state];
+    }
+
+    public int getBlockTime(int reason) {
+        return blockTimes[reason];
+    }
+
+    public short getId() {
+        return id;
+    }
+
+    public short getPriority() {
+        return priority;
+    }
+
+    public short getInstructionNum() {
+        return instructionNum;
+    }
+
+    public short getAllocatePageFrameNum() {
+        return allocatePageFrameNum;
+    }
+
+    public int getArriveTime() {
+        return arriveTime;
+    }
+
+    public short getInTime() {
+        return inTime;
+    }
+
+    public short getEndTime() {
+        return endTime;
+    }
+
+    public short getRunTime() {
+        return runTime;
+    }
+
+    public short getTurnTime() {
+        return turnTime;
+    }
+
+    public int getDeadline() {
+        return deadline;
+    }
+
+    public int getResponseTime() {
+        return responseTime;
+    }
+
+    public int getMissPageNum() {
+        return missPageNum;
+    }
+
+    public int getVoluntarySwitchNum() {
+        return voluntarySwitchNum;
+    }
+
+    public int getInvoluntarySwitchNum() {
+        return involuntarySwitchNum;
+    }
+
+    public CycleCounter getCycleCounter() {
+        return cycleCounter;
+    }
+}
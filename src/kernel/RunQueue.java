@@ -0,0 +1,240 @@
+package kernel;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.Vector;
+
+/**
+ * 就绪队列
+ *
+ * 按级别组织为多个先进先出链表，另用位图记录非空的级别，入队、出队、按 PCB 删除、取最高级别队首均为 O(1)
+ * 0 级存放刚刚发生缺页中断的进程，其余级别为进程的调度优先级，数字越小越优先
+ * 链表为侵入式，前后指针与所在队列保存在 PCB 中，一个进程同时只能位于一个就绪队列
+ * 另按虚拟时间维护一棵平衡树并累计权重，供公平调度策略 O(log n) 选择进程、O(1) 获取就绪总权重，入队、出队相应为 O(log n)
+ * 修改均在调度模块锁内进行，本身的锁只保证界面读取快照时的一致性
+ *
+ * @author ZJC
+ */
+public class RunQueue implements Iterable<PCB> {
+    /**
+     * 级别数，受位图位数限制
+     */
+    public static final int LEVEL_NUM = Integer.SIZE;
+    /**
+     * 缺页进程所在的级别
+     */
+    public static final int MISS_PAGE_LEVEL = 0;
+    /**
+     * 虚拟时间顺序，虚拟时间相同时按进程 ID
+     */
+    public static final Comparator<PCB> VIRTUAL_TIME_ORDER = Comparator.comparingLong(PCB::getVirtualTime).thenComparingInt(PCB::getId);
+
+    /**
+     * 各级别链表的队首
+     */
+    private PCB[] heads;
+    /**
+     * 各级别链表的队尾
+     */
+    private PCB[] tails;
+    /**
+     * 非空级别位图，第 i 位为 1 表示第 i 级非空
+     */
+    private int bitmap;
+    /**
+     * 进程数
+     */
+    private int size;
+    /**
+     * 按虚拟时间排序的进程，进程在队列中时虚拟时间不变，只在运行时更新
+     */
+    private TreeSet<PCB> virtualTimeTree;
+    /**
+     * 队列中进程的完全公平调度权重之和
+     */
+    private long totalWeight;
+
+    public RunQueue() {
+        this.heads = new PCB[LEVEL_NUM];
+        this.tails = new PCB[LEVEL_NUM];
+        this.bitmap = 0;
+        this.size = 0;
+        this.virtualTimeTree = new TreeSet<>(VIRTUAL_TIME_ORDER);
+        this.totalWeight = 0;
+    }
+
+    /**
+     * 获取进程入队的级别
+     * @param pcb 进程
+     * @return 级别
+     */
+    public static int getLevel(PCB pcb) {
+        if (pcb.isMissPage()) {
+            return MISS_PAGE_LEVEL;
+        }
+        return Math.max(1, Math.min(pcb.getSchedulePriority(), LEVEL_NUM - 1));
+    }
+
+    /**
+     * 进程加入所在级别的队尾
+     * @param pcb 进程
+     */
+    public synchronized void add(PCB pcb) {
+        if (pcb.getRunQueue() != null) {
+            throw new IllegalStateException("进程 " + pcb.getId() + " 已在就绪队列中");
+        }
+        int level = getLevel(pcb);
+        pcb.setRunQueue(this);
+        pcb.setRunQueueLevel(level);
+        pcb.setRunQueuePrev(this.tails[level]);
+        pcb.setRunQueueNext(null);
+        if (this.tails[level] == null) {
+            this.heads[level] = pcb;
+            this.bitmap |= 1 << level;
+        } else {
+            this.tails[level].setRunQueueNext(pcb);
+        }
+        this.tails[level] = pcb;
+        ++this.size;
+        this.virtualTimeTree.add(pcb);
+        this.totalWeight += CFSSchedulerPolicy.getPriorityWeight(pcb.getPriority());
+    }
+
+    /**
+     * 从队列中删除进程
+     * @param pcb 进程
+     * @return 进程是否在本队列中
+     */
+    public synchronized boolean remove(PCB pcb) {
+        if (pcb.getRunQueue() != this) {
+            return false;
+        }
+        int level = pcb.getRunQueueLevel();
+        PCB prev = pcb.getRunQueuePrev();
+        PCB next = pcb.getRunQueueNext();
+        if (prev == null) {
+            this.heads[level] = next;
+        } else {
+            prev.setRunQueueNext(next);
+        }
+        if (next == null) {
+            this.tails[level] = prev;
+        } else {
+            next.setRunQueuePrev(prev);
+        }
+        if (this.heads[level] == null) {
+            this.bitmap &= ~(1 << level);
+        }
+        pcb.setRunQueue(null);
+        pcb.setRunQueuePrev(null);
+        pcb.setRunQueueNext(null);
+        --this.size;
+        this.virtualTimeTree.remove(pcb);
+        this.totalWeight -= CFSSchedulerPolicy.getPriorityWeight(pcb.getPriority());
+        return true;
+    }
+
+    /**
+     * 判断进程是否在本队列中
+     * @param pcb 进程
+     * @return 是否在队列中
+     */
+    public boolean contains(PCB pcb) {
+        return pcb.getRunQueue() == this;
+    }
+
+    /**
+     * 获取最高级别的队首进程
+     * @return 进程，队列为空返回 null
+     */
+    public synchronized PCB getFirst() {
+        return this.bitmap == 0 ? null : this.heads[Integer.numberOfTrailingZeros(this.bitmap)];
+    }
+
+    /**
+     * 获取最低级别的队尾进程
+     * @return 进程，队列为空返回 null
+     */
+    public synchronized PCB getLast() {
+        return this.bitmap == 0 ? null : this.tails[Integer.SIZE - 1 - Integer.numberOfLeadingZeros(this.bitmap)];
+    }
+
+    /**
+     * 获取最早进入队列的缺页进程
+     * @return 进程，不存在返回 null
+     */
+    public synchronized PCB getFirstMissPage() {
+        return this.heads[MISS_PAGE_LEVEL];
+    }
+
+    /**
+     * 获取最高的非空级别
+     * @return 级别，队列为空返回 LEVEL_NUM
+     */
+    public synchronized int getFirstLevel() {
+        return this.bitmap == 0 ? LEVEL_NUM : Integer.numberOfTrailingZeros(this.bitmap);
+    }
+
+    /**
+     * 获取虚拟时间最小的进程
+     * @return 进程，队列为空返回 null
+     */
+    public synchronized PCB getFirstByVirtualTime() {
+        return this.virtualTimeTree.isEmpty() ? null : this.virtualTimeTree.first();
+    }
+
+    public synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * 将全部进程按级别、入队顺序追加到列表
+     * @param list 列表
+     */
+    public synchronized void copyTo(Vector<PCB> list) {
+        for (PCB pcb : this) {
+            list.add(pcb);
+        }
+    }
+
+    /**
+     * 按级别、入队顺序遍历，遍历期间不能修改队列，只能在调度模块锁内使用
+     * @return 迭代器
+     */
+    @Override
+    public Iterator<PCB> iterator() {
+        return new Iterator<PCB>() {
+            private PCB nextPCB = RunQueue.this.heads[Integer.numberOfTrailingZeros(RunQueue.this.bitmap | Integer.MIN_VALUE)];
+
+            @Override
+            public boolean hasNext() {
+                return this.nextPCB != null;
+            }
+
+            @Override
+            public PCB next() {
+                if (this.nextPCB == null) {
+                    throw new NoSuchElementException();
+                }
+                PCB pcb = this.nextPCB;
+                this.nextPCB = pcb.getRunQueueNext();
+                if (this.nextPCB == null) {
+                    // 跳到下一个非空级别
+                    int remainBitmap = RunQueue.this.bitmap & (-2 << pcb.getRunQueueLevel());
+                    this.nextPCB = remainBitmap == 0 ? null : RunQueue.this.heads[Integer.numberOfTrailingZeros(remainBitmap)];
+                }
+                return pcb;
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package kernel;
+
+import java.util.Vector;
+
+/**
+ * 短作业优先准入策略
+ *
+ * 选择指令数最少的作业，同指令数先来先服务
+ *
+ * @author ZJC
+ */
+public class SJFAdmissionPolicy implements AdmissionPolicy {
+    @Override
+    public String getName() {
+        return "sjf";
+    }
+
+    @Override
+    public JCB select(Vector<JCB> candidates) {
+        JCB selectedJcb = candidates.get(0);
+        for (JCB jcb : candidates) {
+            if (jcb.getInstructionNum() < selectedJcb.getInstructionNum()) {
+                selectedJcb = jcb;
+            }
+        }
+        return selectedJcb;
+    }
+}
@@ -1,11 +1,21 @@
 package kernel;
 
 import hardware.CPU;
+import hardware.CycleCounter;
 import hardware.InternalMem;
 import interrupt.InterruptVector;
+import os.BootParameter;
 import os.Manager;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
 import java.util.Vector;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 调度模块
@@ -16,9 +26,13 @@ import java.util.Vector;
  */
 public class Schedule extends Thread{
     /**
-     * 系统时间片长度 4
+     * 系统时间片长度 4 个时钟周期，即 4 * CPU.INSTRUCTIONS_PER_TICK 条指令
      */
     public static final int SYSTEM_TIME_SLICE = 4;
+    /**
+     * 自适应时间片，按进程近期的执行段长度调整调度策略给出的时间片
+     */
+    public static final boolean ADAPTIVE_TIME_SLICE = BootParameter.getBoolean("adaptiveTimeSlice", true);
     /**
      * 最大并发进程数，等于PCB池容量，当前设置为 14
      */
@@ -31,6 +45,26 @@ public class Schedule extends Thread{
      * 页框数最大阈值，当前用户区空闲页框数大于该阈值，则需恢复挂起进程
      */
     public static final int MAX_FRAME_NUM_THRESHOLD = 12;
+    /**
+     * 挂起代价评估中，每个可缓解内存紧张的驻留页框的收益权重
+     */
+    public static final int SUSPEND_FRAME_WEIGHT = 4;
+    /**
+     * 挂起代价评估中，每个需写回外存的脏页的代价权重
+     */
+    public static final int SUSPEND_DIRTY_PAGE_WEIGHT = 2;
+    /**
+     * 挂起代价评估中，优先级数值的权重，数值越大（优先级越低）越倾向挂起
+     */
+    public static final int SUSPEND_PRIORITY_WEIGHT = 1;
+    /**
+     * 恢复挂起进程时，批量预取挂起前驻留的页面
+     */
+    public static final boolean RESUME_PREFETCH = BootParameter.getBoolean("resumePrefetch", true);
+    /**
+     * 线程锁竞争统计
+     */
+    private static final ThreadMXBean CONTENTION_MONITOR = ManagementFactory.getThreadMXBean();
     /**
      * 系统管理器，用以获取系统资源
      */
@@ -40,13 +74,30 @@ public class Schedule extends Thread{
      */
     private JobManage jobManage;
     /**
-     * 全体PCB队列
+     * 全体存活PCB队列，进程撤销时移出
      */
     private Vector<PCB> allPCBQueue;
+    /**
+     * 进程表，按进程 ID 索引存活的进程
+     */
+    private IntHashMap<PCB> pidTable;
+    /**
+     * 已完成进程摘要表，按进程 ID 索引，与进程表共用进程表的锁
+     */
+    private IntHashMap<ProcessSummary> finishSummaryTable;
     /**
      * 就绪队列
      */
-    private Vector<PCB> readyQueue;
+    private RunQueue readyQueue;
+    /**
+     * 唤醒队列，唤醒原语不获取调度模块锁，被唤醒的进程先进入本队列，由调度线程在锁内移入就绪队列
+     */
+    private ConcurrentLinkedQueue<PCB> wakeUpQueue;
+    /**
+     * 队列迁移锁，进程在阻塞、资源阻塞、挂起队列之间迁移时持有，保证判断所在队列与状态转换的原子性
+     * 持有期间不获取调度模块锁
+     */
+    private Object queueMoveLock;
     /**
      * 阻塞队列
      */
@@ -60,9 +111,9 @@ public class Schedule extends Thread{
      */
     private Vector<PCB> suspendQueue;
     /**
-     * 完成队列
+     * 完成队列，保存已完成进程的摘要
      */
-    private Vector<PCB> finishQueue;
+    private Vector<ProcessSummary> finishQueue;
     /**
      * 外存 后备队列
      */
@@ -71,16 +122,121 @@ public class Schedule extends Thread{
      * 用于中级调度的LRU算法队列
      */
     private Vector<PCB> LRU;
-
+    /**
+     * 调度次数
+     */
+    private long dispatchNum;
+    /**
+     * 时钟中断到开始调度的总延迟，单位 ns
+     */
+    private long totalDispatchLatency;
+    /**
+     * 时钟中断到开始调度的最大延迟，单位 ns
+     */
+    private long maxDispatchLatency;
+    /**
+     * 各核心的就绪队列，多核时时间片用完的进程放回原核心的就绪队列，新建、唤醒的进程进入全局就绪队列
+     */
+    private RunQueue[] coreReadyQueues;
+    /**
+     * 全部就绪队列，全局就绪队列在前
+     */
+    private RunQueue[] allReadyQueues;
+    /**
+     * 各核心低级调度的候选就绪队列，本核心就绪队列在前
+     */
+    private RunQueue[][] coreCandidateQueues;
+    /**
+     * 从各核心窃取进程时的候选就绪队列，即该核心的就绪队列
+     */
+    private RunQueue[][] coreStealQueues;
+    /**
+     * 核心线程，0 号核心由调度线程执行
+     */
+    private Thread[] coreThreads;
+    /**
+     * 各核心开始本时钟周期工作的同步屏障
+     */
+    private CyclicBarrier coreStartBarrier;
+    /**
+     * 各核心完成本时钟周期工作的同步屏障
+     */
+    private CyclicBarrier coreFinishBarrier;
+    /**
+     * 工作窃取次数
+     */
+    private long stealNum;
+    /**
+     * 主动让出 CPU 的上下文切换次数
+     */
+    private AtomicLong voluntarySwitchNum;
+    /**
+     * 时间片用完被抢占的上下文切换次数
+     */
+    private AtomicLong involuntarySwitchNum;
+    /**
+     * 挂起进程次数
+     */
+    private AtomicLong suspendNum;
+    /**
+     * 挂起时写回外存的页数
+     */
+    private AtomicLong suspendWritePageNum;
+    /**
+     * 恢复挂起进程次数
+     */
+    private AtomicLong resumeNum;
+    /**
+     * 恢复时从外存读入的页数
+     */
+    private AtomicLong resumeReadPageNum;
+    /**
+     * 上次输出调度性能报告时的完成进程数
+     */
+    private int reportedFinishNum;
+    /**
+     * 已完成进程的周转时间之和
+     */
+    private AtomicLong totalTurnTime;
+    /**
+     * 已完成进程的就绪等待时间之和
+     */
+    private AtomicLong totalWaitTime;
+    /**
+     * 已完成进程的响应时间之和
+     */
+    private AtomicLong totalResponseTime;
+    /**
+     * 进程调度策略
+     */
+    private volatile SchedulerPolicy policy;
 
     public Schedule(Manager manager) {
         super("Schedule");
         this.manager                = manager;
         this.jobManage              = new JobManage(this);
         this.LRU                    = new Vector<>();
+        this.dispatchNum            = 0;
+        this.totalDispatchLatency   = 0;
+        this.maxDispatchLatency     = 0;
+        this.stealNum               = 0;
+        this.reportedFinishNum      = 0;
+        this.voluntarySwitchNum     = new AtomicLong();
+        this.involuntarySwitchNum   = new AtomicLong();
+        this.suspendNum             = new AtomicLong();
+        this.suspendWritePageNum    = new AtomicLong();
+        this.resumeNum              = new AtomicLong();
+        this.resumeReadPageNum      = new AtomicLong();
+        this.totalTurnTime          = new AtomicLong();
+        this.totalWaitTime          = new AtomicLong();
+        this.totalResponseTime      = new AtomicLong();
 
         this.allPCBQueue            = new Vector<>();
-        this.readyQueue             = new Vector<>();
+        this.pidTable               = new IntHashMap<>(MAX_CONCURRENT_PROCESS_NUM);
+        this.finishSummaryTable     = new IntHashMap<>();
+        this.readyQueue             = new RunQueue();
+        this.wakeUpQueue            = new ConcurrentLinkedQueue<>();
+        this.queueMoveLock          = new Object();
         this.suspendQueue           = new Vector<>();
         this.finishQueue            = new Vector<>();
         this.reserveQueue           = new Vector<>();
@@ -89,15 +245,55 @@ public class Schedule extends Thread{
         for (int i = 0; i < this.resourceBlockQueues.length; ++i) {
             this.resourceBlockQueues[i] = new Vector<>();
         }
+        int coreNum                 = this.manager.getCpus().length;
+        this.coreReadyQueues        = new RunQueue[coreNum];
+        this.coreCandidateQueues    = new RunQueue[coreNum][];
+        this.coreStealQueues        = new RunQueue[coreNum][];
+        for (int i = 0; i < coreNum; ++i) {
+            this.coreReadyQueues[i] = new RunQueue();
+            this.coreStealQueues[i] = new RunQueue[]{this.coreReadyQueues[i]};
+            this.coreCandidateQueues[i] = coreNum == 1 ? new RunQueue[]{this.readyQueue} : new RunQueue[]{this.coreReadyQueues[i], this.readyQueue};
+        }
+        if (coreNum == 1) {
+            this.allReadyQueues     = new RunQueue[]{this.readyQueue};
+        } else {
+            this.allReadyQueues     = new RunQueue[coreNum + 1];
+            this.allReadyQueues[0]  = this.readyQueue;
+            System.arraycopy(this.coreReadyQueues, 0, this.allReadyQueues, 1, coreNum);
+        }
+        this.coreThreads            = new Thread[coreNum];
+        this.coreStartBarrier       = new CyclicBarrier(coreNum);
+        this.coreFinishBarrier      = new CyclicBarrier(coreNum);
+        this.policy                 = SchedulerPolicy.create(BootParameter.getString("schedulerPolicy", "priority"), this);
+        if (CONTENTION_MONITOR.isThreadContentionMonitoringSupported()) {
+            CONTENTION_MONITOR.setThreadContentionMonitoringEnabled(true);
+        }
 
-        this.manager.getDashboard().consoleSuccess("调度模块初始化完成");
+        this.manager.getDashboard().consoleSuccess("调度模块初始化完成，调度策略 " + this.policy.getName());
     }
 
     @Override
     public void run() {
+        CPU[] cpus = this.manager.getCpus();
+        // 多核时，0 号核心由调度线程执行，其余核心各由一个核心线程并行执行；确定性仿真模式下全部核心在调度线程中依次执行
+        for (int i = 1; i < cpus.length && !Manager.DETERMINISTIC; ++i) {
+            CPU cpu = cpus[i];
+            this.coreThreads[i] = new Thread("Core-" + i) {
+                @Override
+                public void run() {
+                    Schedule.this.runCoreLoop(cpu);
+                }
+            };
+            this.coreThreads[i].setDaemon(true);
+            this.coreThreads[i].start();
+        }
         while (true) {
-            // 等待可调度时机
-            while (!this.manager.getCpu().isCanSchedule()) { }
+            // 等待可调度时机，由时钟中断唤醒
+            try {
+                this.recordDispatchLatency(cpus[0].awaitSchedule());
+            } catch (InterruptedException e) {
+                return;
+            }
             // 每5个时钟中断读取一次新作业请求
             if (this.manager.getClock().getCurrentTime() % 5 == 0) {
                 this.getJobManage().readJobs();
@@ -106,81 +302,167 @@ public class Schedule extends Thread{
             this.highLevelSchdule();
             // 中级调度
             this.middleLevelSchdule();
-            // 低级调度
-            this.lowLevelSchdule();
+            // 各核心进行低级调度并执行指令
+            if (cpus.length == 1) {
+                this.runCore(cpus[0]);
+            } else if (Manager.DETERMINISTIC) {
+                for (CPU cpu : cpus) {
+                    this.runCore(cpu);
+                }
+            } else {
+                try {
+                    this.coreStartBarrier.await();
+                    this.runCore(cpus[0]);
+                    this.coreFinishBarrier.await();
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    return;
+                }
+            }
+            // 确定性仿真模式下，本周期提交的中断请求在核心执行结束后依次处理
+            if (Manager.DETERMINISTIC) {
+                this.manager.getInterruptController().handlePendingRequests();
+            }
+
+            // 全部作业运行完毕，则输出本轮的调度性能报告
+            this.tryReportMetrics();
 
-            // 关闭三级调度
-            this.manager.getCpu().closeSchedule();
             // 刷新GUI
+            this.manager.getDashboard().refreshQueues();
+            // 本时钟周期调度完成
+            this.manager.getClock().finishTick();
+        }
+    }
+
+    /**
+     * 核心线程循环，每个时钟周期与调度线程同步一次
+     * @param cpu 核心
+     */
+    private void runCoreLoop(CPU cpu) {
+        while (true) {
+            try {
+                this.coreStartBarrier.await();
+                this.runCore(cpu);
+                this.coreFinishBarrier.await();
+            } catch (InterruptedException | BrokenBarrierException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 一个核心在一个时钟周期内的工作：低级调度，并执行一批指令
+     * @param cpu 核心
+     */
+    private void runCore(CPU cpu) {
+        // 低级调度
+        this.lowLevelSchdule(cpu);
+
+        // 关闭三级调度
+        cpu.closeSchedule();
+        // 刷新GUI，界面只显示 0 号核心
+        boolean showGUI = cpu.getCoreId() == 0;
+        if (showGUI) {
             this.manager.getDashboard().refreshRunningProcess();
+        }
 
-            // 判断是否存在运行态进程
-            if (this.manager.getCpu().getRunningPCB() == null) {
-                // 不存在，则CPU空闲
-                this.manager.getDashboard().consoleLog("CPU空闲中...");
-            } else {
-                 // 更新优先级
-                this.accessPCB(this.manager.getCpu().getRunningPCB());
-                // 如果存在因挂起而释放的占用资源，则优先申请资源
-                if (this.manager.getCpu().getRunningPCB().hasSuspendResource()) {
-                    for (int i = 0; i < this.manager.getCpu().getRunningPCB().getSuspendResource().length; ++i) {
-                        if (this.manager.getCpu().getRunningPCB().getSuspendResource()[i] != 0) {
-                            --this.manager.getCpu().getRunningPCB().getSuspendResource()[i];
-                            this.manager.getCpu().interrupt(InterruptVector.APPLY_RESOURCE_INTERRUPT, i);
-                        }
-                        // 因为申请资源失败而被阻塞
-                        if (this.manager.getCpu().getRunningPCB() == null) {
-                            // 刷新GUI
-                            this.manager.getDashboard().refreshRunningProcess();
-                            break;
-                        }
-                    }
+        // 判断是否存在运行态进程
+        if (cpu.getRunningPCB() == null) {
+            // 不存在，则CPU空闲
+            this.manager.getDashboard().consoleLog("CPU" + cpu.getCoreId() + "空闲中...");
+            return;
+        }
+        cpu.addBusyTick();
+        // 更新优先级
+        this.accessPCB(cpu.getRunningPCB());
+        // 如果存在因挂起而释放的占用资源，则优先申请资源
+        if (cpu.getRunningPCB().hasSuspendResource()) {
+            for (int i = 0; i < cpu.getRunningPCB().getSuspendResource().length; ++i) {
+                if (cpu.getRunningPCB().getSuspendResource()[i] != 0) {
+                    --cpu.getRunningPCB().getSuspendResource()[i];
+                    cpu.interrupt(InterruptVector.APPLY_RESOURCE_INTERRUPT, i);
                 }
-                // 刷新GUI
-                this.manager.getDashboard().refreshCPU();
-                this.manager.getDashboard().refreshRunningProcess();
-                this.manager.getDashboard().refreshPageTable();
-                this.manager.getDashboard().refreshTLB();
-
-                // 存在，则执行当前指令
-                this.manager.getCpu().execute();
-                // 判断当前指令执行后，进程是否还在运行态（否则已经发生阻塞）
-                if (this.manager.getCpu().getRunningPCB() != null) {
-                    // 判断进程是否运行完毕
-                    if (this.manager.getCpu().getPC() > this.manager.getCpu().getRunningPCB().getInstructionNum()) {
-                        // 进程运行完毕
-                        // CPU切换内核态
-                        this.getManager().getCpu().switchToKernelState();
-                        // 撤销当前进程
-                        this.manager.getCpu().getRunningPCB().cancel();
-                        this.manager.getCpu().setRunningPCB(null);
-                        this.manager.getCpu().setTimeSlice(0);
-                        // CPU切换用户态
-                        this.getManager().getCpu().switchToUserState();
-                    } else {
-                        // 进程未运行完毕
-                        // 如果时间片用完，则当前进程 运行态 -> 就绪态
-                        if (this.manager.getCpu().getTimeSlice() == 0) {
-                            // CPU切换内核态
-                            this.getManager().getCpu().switchToKernelState();
-                            // 当前PCB 运行态 -> 就绪态
-                            synchronized (this) {
-                                this.readyQueue.add(this.manager.getCpu().getRunningPCB());
-                            }
-                            // 保护CPU现场
-                            this.manager.getCpu().getRunningPCB().setState(PCB.READY_STATE);
-                            this.manager.getCpu().protectSpot();
-                            // CPU切换用户态
-                            this.getManager().getCpu().switchToUserState();
-                            this.manager.getDashboard().consoleLog("时间片轮转调度");
-                        }
+                // 因为申请资源失败而被阻塞
+                if (cpu.getRunningPCB() == null) {
+                    // 刷新GUI
+                    if (showGUI) {
+                        this.manager.getDashboard().refreshRunningProcess();
                     }
+                    break;
                 }
             }
+        }
+        // 刷新GUI
+        if (showGUI) {
+            this.manager.getDashboard().refreshCPU();
+            this.manager.getDashboard().refreshRunningProcess();
+            this.manager.getDashboard().refreshPageTable();
+            this.manager.getDashboard().refreshTLB();
+        }
 
-            // 刷新GUI
-            this.manager.getDashboard().refreshQueues();
+        // 存在，则连续执行一批指令，每条指令执行后检查进程是否阻塞、运行完毕或时间片用完
+        PCB batchPCB = cpu.getRunningPCB();
+        if (batchPCB == null) {
+            return;
+        }
+        // 调度策略按周期记账，此时进程只由本核心持有，不在任何队列中；
+        // 执行期间进程可能用完时间片回到就绪队列，或阻塞后被唤醒，此后由其他核心在调度模块锁内读取
+        this.policy.onTick(batchPCB);
+        int executedNum = 0;
+        while (executedNum < CPU.INSTRUCTIONS_PER_TICK) {
+            ++executedNum;
+            if (!this.executeInstruction(cpu)) {
+                break;
+            }
         }
+        if (!CPU.TRACE_INSTRUCTION) {
+            this.manager.getDashboard().consoleLog("CPU" + cpu.getCoreId() + " 进程 " + batchPCB.getId() + " 本周期执行 " + executedNum + " 条指令");
+        }
+    }
+
+    /**
+     * 核心执行一条指令，并处理指令执行后的进程状态
+     * @param cpu 核心
+     * @return 进程是否仍在运行，可以继续执行下一条指令
+     */
+    private boolean executeInstruction(CPU cpu) {
+        cpu.execute();
+        // 判断当前指令执行后，进程是否还在运行态（否则已经发生阻塞）
+        if (cpu.getRunningPCB() == null) {
+            return false;
+        }
+        // 判断进程是否运行完毕
+        if (cpu.getPC() > cpu.getRunningPCB().getInstructionNum()) {
+            // 进程运行完毕
+            // CPU切换内核态
+            cpu.switchToKernelState();
+            // 撤销当前进程
+            cpu.getRunningPCB().cancel();
+            cpu.setRunningPCB(null);
+            cpu.setTimeSlice(0);
+            // CPU切换用户态
+            cpu.switchToUserState();
+            return false;
+        }
+        // 进程未运行完毕
+        // 如果时间片用完，则当前进程 运行态 -> 就绪态
+        if (cpu.getTimeSlice() == 0) {
+            // CPU切换内核态
+            cpu.switchToKernelState();
+            // 当前PCB 运行态 -> 就绪态，保护CPU现场后放回本核心就绪队列，入队后即可被其他核心窃取
+            synchronized (this) {
+                PCB expiredPCB = cpu.getRunningPCB();
+                expiredPCB.recordSwitch(false, true);
+                this.policy.onTimeSliceExpired(expiredPCB);
+                expiredPCB.setState(PCB.READY_STATE);
+                cpu.protectSpot();
+                this.getLocalReadyQueue(cpu).add(expiredPCB);
+            }
+            // CPU切换用户态
+            cpu.switchToUserState();
+            this.manager.getDashboard().consoleLog("时间片轮转调度");
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -194,6 +476,7 @@ public class Schedule extends Thread{
      * 中级调度
      */
     public synchronized void middleLevelSchdule() {
+        this.drainWakeUpQueue();
         int currentFreeFrameNum = this.manager.getInMem().getFreeFrameNumOfUserArea();
         if (currentFreeFrameNum < MIN_FRAME_NUM_THRESHOLD) {
             if (this.LRU.size() == 0) {
@@ -202,93 +485,520 @@ public class Schedule extends Thread{
             this.manager.getDashboard().consoleError("当前内存空闲页框数 " + currentFreeFrameNum +
                     " 小于内存紧张阈值 " + MIN_FRAME_NUM_THRESHOLD +
                     " 尝试挂起进程");
-            // 挂起进程
-            if (this.readyQueue.contains(this.LRU.get(0))) {
-                this.LRU.get(0).suspend(this.readyQueue);
-            } else {
-                this.readyQueue.get(0).suspend(this.readyQueue);
+            this.manager.getDashboard().consoleLog(this.manager.getInMem().getUserAreaAllocator().toString());
+            // 按代价选择挂起的就绪进程
+            PCB victim = this.selectSuspendVictim(MIN_FRAME_NUM_THRESHOLD - currentFreeFrameNum);
+            if (victim == null) {
+                this.manager.getDashboard().consoleError("没有可释放页框的就绪进程，放弃挂起");
+                return;
             }
+            victim.suspend();
 
         } else if (currentFreeFrameNum > MAX_FRAME_NUM_THRESHOLD) {
-            if (this.suspendQueue.size() == 0) {
+            // 恢复挂起队列中首个不在恢复中的进程，调入后空闲页框数不低于内存紧张阈值，避免立即再次挂起
+            PCB resumePCB = null;
+            synchronized (this.queueMoveLock) {
+                for (PCB pcb : this.suspendQueue) {
+                    if (!pcb.isResuming()) {
+                        resumePCB = pcb;
+                        break;
+                    }
+                }
+            }
+            if (resumePCB == null) {
                 return;
             }
             this.manager.getDashboard().consoleSuccess("当前内存空闲页框数 " + currentFreeFrameNum +
                     " 大于内存充裕阈值 " + MAX_FRAME_NUM_THRESHOLD +
                     " 尝试调入进程");
-            // 恢复挂起队列首个进程
-            PCB resumePCB = this.suspendQueue.get(0);
             this.manager.getDashboard().consoleInfo("进程 " + resumePCB.getId() + " 挂起恢复");
-            // 将代码段优先放入内存用户区
-            resumePCB.wakeUp(this.suspendQueue);
-            int pageItemAddress = resumePCB.getPageTableBaseAddress() + 1 * InternalMem.PAGE_TABLE_ITEM_SIZE;
-            this.manager.getAddressLine().setAddress((short) pageItemAddress);
-            Page page = this.manager.getInMem().readPageItem(this.manager.getAddressLine());
-
-            // 使用缓冲区获取外存资源
-            this.manager.getDeviceManage().useBuffer(page, BufferHead.READ);
-            while (page.getData() == null) { }
-            // 更新页表项，并申请新页框
-            int frameIndex = this.manager.getInMem().allocateUserArea();
-            page.setInternalFrameNo(frameIndex + InternalMem.USER_AREA_START_PAGE_NO);
-            page.setCallFlag(1);
-
-            this.manager.getInMem().writePage(page);
-            this.manager.getAddressLine().setAddress((short) pageItemAddress);
-            this.manager.getInMem().writePageItem(this.manager.getAddressLine(), page);
+            resumePCB.resume(currentFreeFrameNum - MIN_FRAME_NUM_THRESHOLD);
+        }
+    }
 
-            // 刷新GUI
-            this.manager.getDashboard().consoleInfo("进程 " + resumePCB.getId() +
-                    " 逻辑页号：" + page.getLogicPageNo() +
-                    " 分配主存框号：" + page.getInternalFrameNo());
+    /**
+     * 选择挂起代价最低的就绪进程
+     *
+     * 收益为可缓解内存紧张的驻留页框数，超过缺口的部分不计；代价为挂起时需写回的脏页数；优先级越低越倾向挂起
+     * 得分相同时选择最久未运行的进程；不驻留任何页框的进程挂起后无法缓解内存紧张，不作为候选
+     * @param neededFrameNum 距内存紧张阈值的页框缺口
+     * @return 进程，没有候选进程时返回 null
+     */
+    private PCB selectSuspendVictim(int neededFrameNum) {
+        PCB victim = null;
+        int victimScore = 0;
+        int victimRecency = 0;
+        for (RunQueue queue : this.allReadyQueues) {
+            for (PCB pcb : queue) {
+                int residentFrameNum = pcb.getResidentFrameNum();
+                if (residentFrameNum == 0) {
+                    continue;
+                }
+                int score = Math.min(residentFrameNum, neededFrameNum) * SUSPEND_FRAME_WEIGHT -
+                        pcb.getDirtyPageNum() * SUSPEND_DIRTY_PAGE_WEIGHT +
+                        pcb.getPriority() * SUSPEND_PRIORITY_WEIGHT;
+                // 未运行过的进程不在 LRU 队列中，视为最久未运行
+                int recency = this.LRU.indexOf(pcb);
+                if (victim == null || score > victimScore || (score == victimScore && recency < victimRecency)) {
+                    victim = pcb;
+                    victimScore = score;
+                    victimRecency = recency;
+                }
+            }
+        }
+        if (victim != null) {
+            this.manager.getDashboard().consoleInfo("选择挂起进程 " + victim.getId() + " 代价得分 " + victimScore);
         }
+        return victim;
+    }
+
+    /**
+     * 被唤醒的进程进入唤醒队列，可在任意线程中不持有调度模块锁调用
+     * @param pcb 进程
+     */
+    public void addWakeUpPCB(PCB pcb) {
+        this.wakeUpQueue.add(pcb);
     }
 
     /**
-     * 低级调度
+     * 将唤醒队列中的进程移入全局就绪队列，只在调度模块锁内调用
      */
-    public synchronized void lowLevelSchdule() {
-        // 就绪队列为空，或已有进程处于运行态，则低级调度结束
-        if (this.readyQueue.size() == 0 || this.manager.getCpu().getRunningPCB() != null) {
+    private void drainWakeUpQueue() {
+        PCB pcb;
+        while ((pcb = this.wakeUpQueue.poll()) != null) {
+            // 移入前已被撤销或再次挂起的进程不再就绪
+            if (pcb.getState() == PCB.READY_STATE && pcb.getRunQueue() == null) {
+                this.readyQueue.add(pcb);
+            }
+        }
+    }
+
+    /**
+     * 记录一次进程挂起
+     * @param writePageNum 写回外存的页数
+     */
+    public void recordSuspend(int writePageNum) {
+        this.suspendNum.incrementAndGet();
+        this.suspendWritePageNum.addAndGet(writePageNum);
+    }
+
+    /**
+     * 记录一次挂起进程恢复
+     * @param readPageNum 从外存读入的页数
+     */
+    public void recordResume(int readPageNum) {
+        this.resumeNum.incrementAndGet();
+        this.resumeReadPageNum.addAndGet(readPageNum);
+    }
+
+    /**
+     * 低级调度，为指定核心选择进入运行态的进程
+     * 刚刚发生缺页中断的进程最优先，否则由调度策略在本核心就绪队列和全局就绪队列中选择
+     * 两者都为空时，由调度策略在就绪进程最多的其他核心队列中窃取一个进程
+     * @param cpu 核心
+     */
+    public synchronized void lowLevelSchdule(CPU cpu) {
+        // 已有进程处于运行态，则低级调度结束
+        if (cpu.getRunningPCB() != null) {
             return;
         }
-        // 搜索优先级最高的PCB
-        int indexOfMaxPriority = 0;
-        for (int i = 0; i < this.readyQueue.size(); ++i) {
-            // 如果某进程刚刚进行缺页中断，则优先调度该进程
-            if (this.readyQueue.get(i).isMissPage()) {
-                this.readyQueue.get(i).setMissPage(false);
-                indexOfMaxPriority = i;
-                this.manager.getDashboard().consoleLog("检测到某进程刚刚发生缺页中断，优先调度");
-                break;
+        this.drainWakeUpQueue();
+        RunQueue[] candidateQueues = this.coreCandidateQueues[cpu.getCoreId()];
+        boolean empty = true;
+        for (RunQueue queue : candidateQueues) {
+            empty &= queue.isEmpty();
+        }
+        if (empty) {
+            // 本核心与全局就绪队列都为空，则从其他核心窃取
+            int victimCoreId = -1;
+            for (int i = 0; i < this.coreReadyQueues.length; ++i) {
+                if (this.coreReadyQueues[i].size() > 0 && (victimCoreId == -1 || this.coreReadyQueues[i].size() > this.coreReadyQueues[victimCoreId].size())) {
+                    victimCoreId = i;
+                }
             }
-            // 判定优先级
-            if (this.readyQueue.get(i).getPriority() < this.readyQueue.get(indexOfMaxPriority).getPriority()) {
-                indexOfMaxPriority = i;
+            if (victimCoreId == -1) {
+                return;
             }
+            candidateQueues = this.coreStealQueues[victimCoreId];
+            ++this.stealNum;
+        }
+        PCB selectedPCB = null;
+        for (RunQueue queue : candidateQueues) {
+            if (queue.getFirstMissPage() != null) {
+                selectedPCB = queue.getFirstMissPage();
+                break;
+            }
+        }
+        if (selectedPCB == null) {
+            selectedPCB = this.policy.select(candidateQueues);
         }
-        this.manager.getDashboard().consoleLog("低级调度 -> 进程 " + this.readyQueue.get(indexOfMaxPriority).getId() + " 进入运行态");
+        if (empty) {
+            this.manager.getDashboard().consoleLog("CPU" + cpu.getCoreId() + " 窃取进程 " + selectedPCB.getId());
+        }
+        // 如果某进程刚刚进行缺页中断，则优先调度该进程
+        if (selectedPCB.isMissPage()) {
+            selectedPCB.setMissPage(false);
+            this.manager.getDashboard().consoleLog("检测到某进程刚刚发生缺页中断，优先调度");
+        }
+        this.manager.getDashboard().consoleLog("低级调度 -> CPU" + cpu.getCoreId() + " 进程 " + selectedPCB.getId() + " 进入运行态");
         // CPU切换内核态
-        this.getManager().getCpu().switchToKernelState();
+        cpu.switchToKernelState();
         // 恢复CPU现场
-        this.readyQueue.get(indexOfMaxPriority).setState(PCB.RUNNING_STATE);
-        this.getManager().getCpu().recoverSpot(this.readyQueue.get(indexOfMaxPriority));
+        selectedPCB.setState(PCB.RUNNING_STATE);
+        cpu.recoverSpot(selectedPCB);
         // 指定PCB 就绪态 -> 运行态
-        this.readyQueue.remove(indexOfMaxPriority);
+        selectedPCB.getRunQueue().remove(selectedPCB);
         // CPU切换用户态
-        this.getManager().getCpu().switchToUserState();
+        cpu.switchToUserState();
     }
 
-    public synchronized void accessPCB(PCB pcb) {
-        for (int i = 0; i < this.LRU.size(); ++i) {
-            // 遍历查找，是否之前访问过该进程，则重新排列
-            if (this.LRU.get(i) == pcb) {
-                this.LRU.remove(i);
-                break;
+    /**
+     * 登记新建的进程
+     * @param pcb 进程
+     */
+    public void registerPCB(PCB pcb) {
+        synchronized (this.pidTable) {
+            this.pidTable.put(pcb.getId(), pcb);
+        }
+        this.allPCBQueue.add(pcb);
+    }
+
+    /**
+     * 撤销的进程生成摘要加入完成队列，并移出进程表，此后不再持有该 PCB
+     * @param pcb 已撤销的进程
+     */
+    public void retirePCB(PCB pcb) {
+        ProcessSummary summary = new ProcessSummary(pcb);
+        synchronized (this.pidTable) {
+            this.pidTable.remove(pcb.getId());
+            this.finishSummaryTable.put(pcb.getId(), summary);
+        }
+        this.allPCBQueue.remove(pcb);
+        this.finishQueue.add(summary);
+        this.recordFinish(summary);
+    }
+
+    /**
+     * 按进程 ID 查找存活的进程
+     * @param id 进程 ID
+     * @return 进程，不存在或已撤销返回 null
+     */
+    public PCB getPCB(int id) {
+        synchronized (this.pidTable) {
+            return this.pidTable.get(id);
+        }
+    }
+
+    /**
+     * 按进程 ID 查找已完成进程的摘要
+     * @param id 进程 ID
+     * @return 摘要，不存在返回 null
+     */
+    public ProcessSummary getFinishSummary(int id) {
+        synchronized (this.pidTable) {
+            return this.finishSummaryTable.get(id);
+        }
+    }
+
+    /**
+     * 记录一个完成的进程，累计周转、等待、响应时间
+     * 周转时间为作业进入到进程结束，等待时间为在就绪队列中的时间，响应时间为作业进入到首次运行
+     * @param summary 完成进程的摘要
+     */
+    public void recordFinish(ProcessSummary summary) {
+        this.totalTurnTime.addAndGet(summary.getEndTime() - summary.getArriveTime());
+        this.totalWaitTime.addAndGet(summary.getWaitTime());
+        this.totalResponseTime.addAndGet(Math.max(0, summary.getResponseTime()));
+    }
+
+    /**
+     * 获取进程本次运行的时间片
+     * 启用自适应时间片时，交互型进程缩短为调度策略时间片的 3/4，计算型进程延长为 2 倍，减少计算型进程的上下文切换
+     * 交互型的缩短幅度保证误判的计算型进程能用满时间片，从而重新被识别
+     * @param pcb 进程
+     * @return 时间片，单位 时钟周期
+     */
+    public int getTimeSlice(PCB pcb) {
+        int timeSlice = this.policy.getTimeSlice(pcb);
+        if (!ADAPTIVE_TIME_SLICE) {
+            return timeSlice;
+        }
+        switch (pcb.getBehaviour()) {
+            case PCB.INTERACTIVE_BEHAVIOUR:
+                return Math.max(1, timeSlice * 3 / 4);
+            case PCB.CPU_BOUND_BEHAVIOUR:
+                return timeSlice * 2;
+            default:
+                return timeSlice;
+        }
+    }
+
+    /**
+     * 记录一次上下文切换
+     * @param voluntary 是否主动让出 CPU
+     */
+    public void recordContextSwitch(boolean voluntary) {
+        if (voluntary) {
+            this.voluntarySwitchNum.incrementAndGet();
+        } else {
+            this.involuntarySwitchNum.incrementAndGet();
+        }
+    }
+
+    /**
+     * 系统空闲且有新完成的进程时，输出调度性能报告
+     */
+    private synchronized void tryReportMetrics() {
+        if (this.finishQueue.size() == this.reportedFinishNum || !this.isIdle()) {
+            return;
+        }
+        this.reportedFinishNum = this.finishQueue.size();
+        this.manager.getDashboard().consoleSuccess("全部作业运行完毕\n" + this.getMetricsReport());
+    }
+
+    /**
+     * 输出实时的调度指标摘要，用于界面显示
+     * 界面刷新时持有界面锁，因此不获取调度模块锁，各累计值允许读到相邻周期的数据
+     * @return 信息字符串
+     */
+    public String getMetricsSummary() {
+        int finishNum = this.finishQueue.size();
+        int currentTime = Math.max(1, this.manager.getClock().getCurrentTime());
+        long busyTickNum = 0;
+        for (CPU cpu : this.manager.getCpus()) {
+            busyTickNum += cpu.getBusyTickNum();
+        }
+        return "完成 " + finishNum +
+                " CPU利用率 " + String.format("%.1f%%", busyTickNum * 100.0 / currentTime / this.manager.getCpus().length) +
+                " 吞吐量 " + String.format("%.2f", finishNum * 100.0 / currentTime) + "/百周期" +
+                " 平均周转 " + String.format("%.1f", finishNum == 0 ? 0 : (double) this.totalTurnTime.get() / finishNum) +
+                " 平均等待 " + String.format("%.1f", finishNum == 0 ? 0 : (double) this.totalWaitTime.get() / finishNum) +
+                " 平均响应 " + String.format("%.1f", finishNum == 0 ? 0 : (double) this.totalResponseTime.get() / finishNum) +
+                " 切换 " + (this.voluntarySwitchNum.get() + this.involuntarySwitchNum.get());
+    }
+
+    /**
+     * 输出调度性能报告，用于比较调度策略和内存配置
+     * 包括吞吐量、各核心利用率，已完成进程周转、等待、响应时间的分布，各状态的平均停留时间，以及错过截止时间的进程数
+     * @return 信息字符串
+     */
+    public synchronized String getMetricsReport() {
+        int finishNum = this.finishQueue.size();
+        int currentTime = Math.max(1, this.manager.getClock().getCurrentTime());
+        int[] turnTimes = new int[finishNum];
+        int[] waitTimes = new int[finishNum];
+        int[] responseTimes = new int[finishNum];
+        long[] totalStateTimes = new long[PCB.STATE_NUM];
+        long[] totalBlockTimes = new long[PCB.BLOCK_REASON_NUM];
+        int missDeadlineNum = 0;
+        for (int i = 0; i < finishNum; ++i) {
+            ProcessSummary summary = this.finishQueue.get(i);
+            turnTimes[i] = summary.getEndTime() - summary.getArriveTime();
+            waitTimes[i] = summary.getWaitTime();
+            responseTimes[i] = Math.max(0, summary.getResponseTime());
+            for (int j = 0; j < PCB.STATE_NUM; ++j) {
+                totalStateTimes[j] += summary.getStateTime(j);
+            }
+            for (int j = 0; j < PCB.BLOCK_REASON_NUM; ++j) {
+                totalBlockTimes[j] += summary.getBlockTime(j);
+            }
+            if (summary.getEndTime() > summary.getDeadline()) {
+                ++missDeadlineNum;
             }
         }
-        // 最新访问进程放在队尾
-        this.LRU.add(pcb);
+        StringBuilder report = new StringBuilder();
+        report.append("调度策略 ").append(this.policy.getName())
+                .append(" 完成进程 ").append(finishNum)
+                .append(" 吞吐量 ").append(String.format("%.2f", finishNum * 100.0 / currentTime)).append("/百周期")
+                .append(" 错过截止时间 ").append(missDeadlineNum).append("\n");
+        report.append("上下文切换 主动 ").append(this.voluntarySwitchNum.get())
+                .append(" 抢占 ").append(this.involuntarySwitchNum.get())
+                .append(" 自适应时间片 ").append(ADAPTIVE_TIME_SLICE ? "开启" : "关闭").append("\n");
+        report.append("中级调度 挂起 ").append(this.suspendNum.get())
+                .append(" 写回页 ").append(this.suspendWritePageNum.get())
+                .append(" 恢复 ").append(this.resumeNum.get())
+                .append(" 读入页 ").append(this.resumeReadPageNum.get())
+                .append(" 恢复预取 ").append(RESUME_PREFETCH ? "开启" : "关闭").append("\n");
+        report.append("CPU利用率");
+        for (CPU cpu : this.manager.getCpus()) {
+            report.append(" CPU").append(cpu.getCoreId()).append(" ")
+                    .append(String.format("%.1f%%", cpu.getBusyTickNum() * 100.0 / currentTime));
+        }
+        report.append("\n");
+        report.append("周转时间 ").append(getDistribution(turnTimes)).append("\n");
+        report.append("等待时间 ").append(getDistribution(waitTimes)).append("\n");
+        report.append("响应时间 ").append(getDistribution(responseTimes)).append("\n");
+        report.append("平均状态时间");
+        for (int i = PCB.READY_STATE; i <= PCB.SUSPEND_STATE; ++i) {
+            report.append(" ").append(PCB.STATE_NAMES[i]).append(" ")
+                    .append(String.format("%.1f", finishNum == 0 ? 0 : (double) totalStateTimes[i] / finishNum));
+            if (i == PCB.BLOCK_STATE) {
+                report.append("(");
+                for (int j = 0; j < PCB.BLOCK_REASON_NUM; ++j) {
+                    if (j > 0) {
+                        report.append(" ");
+                    }
+                    report.append(PCB.BLOCK_REASON_NAMES[j]).append(" ")
+                            .append(String.format("%.1f", finishNum == 0 ? 0 : (double) totalBlockTimes[j] / finishNum));
+                }
+                report.append(")");
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * 输出一组时间的平均值、中位数、P90、P99 与最大值，百分位按最近秩法计算
+     * @param values 时间
+     * @return 信息字符串
+     */
+    private static String getDistribution(int[] values) {
+        if (values.length == 0) {
+            return "无";
+        }
+        Arrays.sort(values);
+        long sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return "平均 " + String.format("%.1f", (double) sum / values.length) +
+                " P50 " + values[(int) Math.ceil(values.length * 0.5) - 1] +
+                " P90 " + values[(int) Math.ceil(values.length * 0.9) - 1] +
+                " P99 " + values[(int) Math.ceil(values.length * 0.99) - 1] +
+                " 最大 " + values[values.length - 1];
+    }
+
+    /**
+     * 获取核心的就绪队列，时间片用完的进程放回该队列；单核时即为全局就绪队列
+     * @param cpu 核心
+     * @return 就绪队列
+     */
+    public RunQueue getLocalReadyQueue(CPU cpu) {
+        return this.coreReadyQueues.length == 1 ? this.readyQueue : this.coreReadyQueues[cpu.getCoreId()];
+    }
+
+    /**
+     * 获取全部就绪队列，全局就绪队列在前
+     * @return 就绪队列数组，不可修改
+     */
+    public RunQueue[] getAllReadyQueues() {
+        return this.allReadyQueues;
+    }
+
+    /**
+     * 获取全部就绪进程的快照
+     * @return 就绪进程列表
+     */
+    public Vector<PCB> getAllReadyPCBs() {
+        Vector<PCB> readyPCBs = new Vector<>();
+        for (RunQueue queue : this.allReadyQueues) {
+            queue.copyTo(readyPCBs);
+        }
+        readyPCBs.addAll(this.wakeUpQueue);
+        return readyPCBs;
+    }
+
+    /**
+     * 获取全部就绪进程数
+     * @return 就绪进程数
+     */
+    public int getReadyPCBNum() {
+        int readyPCBNum = this.wakeUpQueue.size();
+        for (RunQueue queue : this.allReadyQueues) {
+            readyPCBNum += queue.size();
+        }
+        return readyPCBNum;
+    }
+
+    /**
+     * 记录一次时钟中断到调度线程开始调度的延迟
+     * @param latency 延迟，单位 ns
+     */
+    public synchronized void recordDispatchLatency(long latency) {
+        ++this.dispatchNum;
+        this.totalDispatchLatency += latency;
+        this.maxDispatchLatency = Math.max(this.maxDispatchLatency, latency);
+    }
+
+    /**
+     * 输出调度延迟统计
+     * @return 信息字符串
+     */
+    public synchronized String getDispatchLatencyInfo() {
+        return "调度次数 " + this.dispatchNum +
+                " 平均调度延迟 " + String.format("%.3f", this.dispatchNum == 0 ? 0 : this.totalDispatchLatency / 1e6 / this.dispatchNum) + "ms" +
+                " 最大调度延迟 " + String.format("%.3f", this.maxDispatchLatency / 1e6) + "ms";
+    }
+
+    /**
+     * 判断系统是否空闲，即没有运行、就绪、挂起的进程，也没有等待创建进程的作业
+     * @return 是否空闲
+     */
+    public synchronized boolean isIdle() {
+        for (CPU cpu : this.manager.getCpus()) {
+            if (cpu.getRunningPCB() != null) {
+                return false;
+            }
+        }
+        return this.getReadyPCBNum() == 0 &&
+                this.suspendQueue.isEmpty() &&
+                this.reserveQueue.isEmpty();
+    }
+
+    /**
+     * 输出多核运行统计，包括各核心指令吞吐与 CPI、系统周期分布、数据缓存命中情况、工作窃取次数，以及各核心线程在共享内核结构上的锁竞争
+     * 锁竞争由线程进入同步块时的阻塞次数、阻塞时间统计，不包括等待时钟和周期同步的时间
+     * @return 信息字符串
+     */
+    public String getCoreInfo() {
+        CPU[] cpus = this.manager.getCpus();
+        int currentTime = Math.max(1, this.manager.getClock().getCurrentTime());
+        long totalInstructionNum = 0;
+        StringBuilder info = new StringBuilder();
+        for (int i = 0; i < cpus.length; ++i) {
+            long instructionNum = cpus[i].getExecutedInstructionNum();
+            totalInstructionNum += instructionNum;
+            info.append("CPU").append(i).append(" 执行指令 ").append(instructionNum)
+                    .append(" CPI ").append(String.format("%.2f", cpus[i].getCycleCounter().getCPI()));
+            Thread coreThread = i == 0 ? this : this.coreThreads[i];
+            ThreadInfo threadInfo = coreThread == null ? null : CONTENTION_MONITOR.getThreadInfo(coreThread.getId());
+            if (threadInfo != null) {
+                info.append(" 锁竞争次数 ").append(threadInfo.getBlockedCount());
+                if (threadInfo.getBlockedTime() >= 0) {
+                    info.append(" 锁等待时间 ").append(threadInfo.getBlockedTime()).append("ms");
+                }
+            }
+            info.append("\n");
+        }
+        CycleCounter systemCycleCounter = new CycleCounter();
+        for (int i = 0; i < cpus.length; ++i) {
+            systemCycleCounter.merge(cpus[i].getCycleCounter());
+        }
+        info.append("系统 ").append(systemCycleCounter).append("\n");
+        for (int i = 0; i < cpus.length; ++i) {
+            if (cpus[i].getDataCache() != null) {
+                info.append(cpus[i].getDataCache()).append("\n");
+            }
+        }
+        if (this.manager.getL2Cache() != null) {
+            info.append(this.manager.getL2Cache()).append("\n");
+        }
+        synchronized (this) {
+            info.append("核心数 ").append(cpus.length)
+                    .append(" 指令吞吐 ").append(String.format("%.3f", (double) totalInstructionNum / currentTime)).append(" 条/周期")
+                    .append(" 工作窃取 ").append(this.stealNum).append(" 次");
+        }
+        return info.toString();
+    }
+
+    public void accessPCB(PCB pcb) {
+        // 队列自身的锁保证移出、加入的原子性，撤销进程时的并发移出不需要调度模块锁
+        synchronized (this.LRU) {
+            // 之前访问过该进程，则重新排列
+            this.LRU.remove(pcb);
+            // 最新访问进程放在队尾
+            this.LRU.add(pcb);
+        }
     }
 
     public Manager getManager() {
@@ -315,12 +1025,12 @@ public class Schedule extends Thread{
         this.allPCBQueue = allPCBQueue;
     }
 
-    public Vector<PCB> getReadyQueue() {
+    public RunQueue getReadyQueue() {
         return readyQueue;
     }
 
-    public void setReadyQueue(Vector<PCB> readyQueue) {
-        this.readyQueue = readyQueue;
+    public Object getQueueMoveLock() {
+        return queueMoveLock;
     }
 
     public Vector<PCB> getBlockQueue() {
@@ -339,11 +1049,11 @@ public class Schedule extends Thread{
         this.suspendQueue = suspendQueue;
     }
 
-    public Vector<PCB> getFinishQueue() {
+    public Vector<ProcessSummary> getFinishQueue() {
         return finishQueue;
     }
 
-    public void setFinishQueue(Vector<PCB> finishQueue) {
+    public void setFinishQueue(Vector<ProcessSummary> finishQueue) {
         this.finishQueue = finishQueue;
     }
 
@@ -370,4 +1080,37 @@ public class Schedule extends Thread{
     public void setLRU(Vector<PCB> LRU) {
         this.LRU = LRU;
     }
+
+    public synchronized long getDispatchNum() {
+        return dispatchNum;
+    }
+
+    public synchronized long getTotalDispatchLatency() {
+        return totalDispatchLatency;
+    }
+
+    public synchronized long getMaxDispatchLatency() {
+        return maxDispatchLatency;
+    }
+
+    public RunQueue[] getCoreReadyQueues() {
+        return coreReadyQueues;
+    }
+
+    public synchronized long getStealNum() {
+        return stealNum;
+    }
+
+    public SchedulerPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 切换调度策略，已有进程保留各自的调度信息，新策略从下一次低级调度开始生效
+     * @param policy 调度策略
+     */
+    public synchronized void setPolicy(SchedulerPolicy policy) {
+        this.policy = policy;
+        this.manager.getDashboard().consoleInfo("切换调度策略 " + policy.getName());
+    }
 }
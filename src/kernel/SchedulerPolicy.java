@@ -0,0 +1,81 @@
+package kernel;
+
+/**
+ * 进程调度策略
+ *
+ * 低级调度从候选就绪进程中选择进入运行态的进程，并决定其时间片长度
+ * 刚刚发生缺页中断的进程仍由低级调度优先选择，不经过调度策略
+ * 策略由启动参数 schedulerPolicy 指定，运行中也可在界面切换
+ *
+ * @author ZJC
+ */
+public interface SchedulerPolicy {
+    /**
+     * 可选的调度策略名称
+     */
+    String[] POLICY_NAMES = new String[]{"priority", "mlfq", "cfs", "lottery", "stride", "edf"};
+
+    /**
+     * 按名称创建调度策略
+     * @param name 策略名称
+     * @param schedule 调度模块
+     * @return 调度策略，未知名称时返回优先级调度
+     */
+    static SchedulerPolicy create(String name, Schedule schedule) {
+        switch (name) {
+            case "mlfq":
+                return new MLFQSchedulerPolicy(schedule);
+            case "cfs":
+                return new CFSSchedulerPolicy(schedule);
+            case "lottery":
+                return new LotterySchedulerPolicy();
+            case "stride":
+                return new StrideSchedulerPolicy();
+            case "edf":
+                return new EDFSchedulerPolicy();
+            case "priority":
+                return new PrioritySchedulerPolicy();
+            default:
+                System.err.println("未知的调度策略 " + name + "，使用优先级调度");
+                return new PrioritySchedulerPolicy();
+        }
+    }
+
+    /**
+     * 获取策略名称
+     * @return 策略名称
+     */
+    String getName();
+
+    /**
+     * 从候选就绪队列中选择进入运行态的进程，不将其移出队列
+     * @param queues 候选就绪队列，本核心就绪队列在前，至少一个非空
+     * @return 所选进程
+     */
+    PCB select(RunQueue[] queues);
+
+    /**
+     * 获取进程本次运行的时间片
+     * @param pcb 进程
+     * @return 时间片，单位 时钟周期
+     */
+    int getTimeSlice(PCB pcb);
+
+    /**
+     * 进程创建时初始化调度信息
+     * @param pcb 进程
+     */
+    default void onCreate(PCB pcb) { }
+
+    /**
+     * 进程运行了一个时钟周期
+     * @param pcb 进程
+     */
+    default void onTick(PCB pcb) { }
+
+    /**
+     * 进程用完时间片，回到就绪队列
+     * @param pcb 进程
+     */
+    default void onTimeSliceExpired(PCB pcb) { }
+}
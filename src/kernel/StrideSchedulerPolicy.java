@@ -0,0 +1,32 @@
+package kernel;
+
+/**
+ * 步长调度策略
+ *
+ * 彩票调度的确定性版本，票数与彩票调度相同，步长 = VIRTUAL_TIME_SCALE / 票数，
+ * 每次选择行程（虚拟时间）最小的进程，时间片固定为系统时间片
+ *
+ * @author ZJC
+ */
+public class StrideSchedulerPolicy extends FairSchedulerPolicy {
+    @Override
+    public String getName() {
+        return "stride";
+    }
+
+    @Override
+    public int getWeight(PCB pcb) {
+        return LotterySchedulerPolicy.getTickets(pcb);
+    }
+
+    @Override
+    public long getSleepCredit() {
+        // 唤醒进程不保留领先的行程
+        return 0;
+    }
+
+    @Override
+    public int getTimeSlice(PCB pcb) {
+        return Schedule.SYSTEM_TIME_SLICE;
+    }
+}
@@ -0,0 +1,100 @@
+package os;
+
+/**
+ * 启动参数
+ *
+ * 系统启动时读取的可配置参数，来源为 JVM 系统属性 -Dos.参数名=值
+ * 或主程序参数 参数名=值（由 {@link Main} 转换为系统属性）
+ *
+ * 启动参数只在各模块类加载时读取一次，运行期间不可修改
+ *
+ * @author ZJC
+ */
+public class BootParameter {
+    /**
+     * 系统属性前缀
+     */
+    public static final String PREFIX = "os.";
+
+    /**
+     * 解析主程序参数，格式为 参数名=值
+     * @param args 主程序参数
+     */
+    public static void parse(String[] args) {
+        for (int i = 0; i < args.length; ++i) {
+            int index = args[i].indexOf('=');
+            if (index <= 0) {
+                continue;
+            }
+            String name = args[i].substring(0, index).trim();
+            // 兼容 --参数名=值 的写法
+            while (name.startsWith("-")) {
+                name = name.substring(1);
+            }
+            System.setProperty(PREFIX + name, args[i].substring(index + 1).trim());
+        }
+    }
+
+    /**
+     * 读取整数参数
+     * @param name 参数名
+     * @param defaultValue 默认值
+     * @return 参数值
+     */
+    public static int getInt(String name, int defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("启动参数 " + name + " 格式错误：" + value + "，使用默认值 " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 读取长整数参数
+     * @param name 参数名
+     * @param defaultValue 默认值
+     * @return 参数值
+     */
+    public static long getLong(String name, long defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("启动参数 " + name + " 格式错误：" + value + "，使用默认值 " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 读取布尔参数
+     * @param name 参数名
+     * @param defaultValue 默认值
+     * @return 参数值
+     */
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value.trim().equalsIgnoreCase("true") || value.trim().equals("1");
+    }
+
+    /**
+     * 读取字符串参数
+     * @param name 参数名
+     * @param defaultValue 默认值
+     * @return 参数值
+     */
+    public static String getString(String name, String defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        return value == null ? defaultValue : value.trim();
+    }
+}
@@ -12,6 +12,8 @@ import java.util.Arrays;
  */
 public class Main {
     public static void main(String[] args) {
+        // 读取启动参数，必须在各模块加载前完成
+        BootParameter.parse(args);
         // 创建系统管理器
         Manager manager = new Manager();
         // 系统启动完毕，开始运行
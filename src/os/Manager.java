@@ -2,14 +2,17 @@ package os;
 
 import gui.Dashboard;
 import hardware.*;
+import interrupt.InterruptController;
 import kernel.Deadlock;
 import kernel.DeviceManage;
 import kernel.FileSystem;
+import kernel.PCB;
 import kernel.Schedule;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
+import java.util.Random;
 
 /**
  * 管理器
@@ -24,21 +27,39 @@ public class Manager {
      */
     private Clock clock;
     /**
-     * CPU 中央处理器
+     * CPU 核心数
      */
-    private CPU cpu;
+    public static final int CORE_NUM = Math.max(1, BootParameter.getInt("coreNum", 1));
     /**
-     * MMU 内存管理单元
+     * 随机数种子，未指定时启动时随机选取并输出，以该种子和相同的启动参数可复现一次运行
      */
-    private MMU mmu;
+    public static final long RANDOM_SEED = BootParameter.getLong("randomSeed", new Random().nextLong());
     /**
-     * 数据线
+     * 确定性仿真模式
+     * 各核心在调度线程中依次执行，中断处理例程在每个时钟周期的核心执行结束后由调度线程按优先级、提交顺序处理，缓冲区传输同步完成
+     * 同一种子和启动参数下每次运行的调度过程与结果完全一致
      */
-    private DataLine dataLine;
+    public static final boolean DETERMINISTIC = BootParameter.getBoolean("deterministic", false);
+    /**
+     * 随机数流编号：作业负载生成
+     */
+    public static final int WORKLOAD_RANDOM_STREAM = 1;
+    /**
+     * 随机数流编号：调度策略
+     */
+    public static final int SCHEDULER_RANDOM_STREAM = 2;
+    /**
+     * CPU 中央处理器，每个核心一个，各自拥有 MMU 内存管理单元
+     */
+    private CPU[] cpus;
     /**
-     * 地址线
+     * 各核心共享的 L2 数据缓存，未启用时为 null
      */
-    private AddressLine addressLine;
+    private DataCache l2Cache;
+    /**
+     * 数据线
+     */
+    private DataLine dataLine;
     /**
      * 内存
      */
@@ -63,6 +84,10 @@ public class Manager {
      * 死锁处理模块
      */
     private Deadlock deadlock;
+    /**
+     * 中断控制器
+     */
+    private InterruptController interruptController;
     /**
      * 图像化界面
      */
@@ -86,12 +111,17 @@ public class Manager {
         this.dashboard      = new Dashboard(this);
         // 问候语
         this.dashboard.consoleLog("仿真Linux系统启动中...");
+        this.dashboard.consoleLog("随机数种子 " + RANDOM_SEED + (DETERMINISTIC ? "，确定性仿真模式" : ""));
 
         this.clock          = new Clock(this);
-        this.cpu            = new CPU(this);
-        this.mmu            = new MMU(this);
+        this.l2Cache        = DataCache.LEVEL_NUM < 2 ? null : new DataCache("L2",
+                DataCache.L2_SIZE, DataCache.L2_LINE_SIZE, DataCache.L2_WAYS, DataCache.L2_HIT_CYCLES, null);
+        this.cpus           = new CPU[CORE_NUM];
+        for (int i = 0; i < CORE_NUM; ++i) {
+            this.cpus[i]    = new CPU(this, i);
+        }
+        this.interruptController = new InterruptController(this);
         this.dataLine       = new DataLine();
-        this.addressLine    = new AddressLine();
         this.inMem          = new InternalMem(this);
         this.deviceManage   = new DeviceManage(this);
         this.exMem          = new ExternalMem(this);
@@ -105,6 +135,15 @@ public class Manager {
         this.dashboard.consoleSuccess("\n系统启动完毕，可以开始运行");
     }
 
+    /**
+     * 创建随机数流，各流由种子和流编号派生、相互独立，修改一处的随机数使用不会影响其它流
+     * @param stream 流编号
+     * @return 随机数生成器
+     */
+    public static Random createRandom(int stream) {
+        return new Random(RANDOM_SEED ^ (stream * 0x9E3779B97F4A7C15L));
+    }
+
     /**
      * 开始运行
      */
@@ -113,8 +152,8 @@ public class Manager {
         this.schedule.start();
         // 时钟线程启动
         this.clock.start();
-        // 死锁线程启动
-        this.deadlock.start();
+        // 死锁检测以周期性时钟事件进行，不受运行速度和空闲跳过周期的影响
+        this.deadlock.postDetectEvent(0);
     }
 
     public Clock getClock() {
@@ -125,36 +164,99 @@ public class Manager {
         this.clock = clock;
     }
 
+    public InterruptController getInterruptController() {
+        return interruptController;
+    }
+
+    public void setInterruptController(InterruptController interruptController) {
+        this.interruptController = interruptController;
+    }
+
+    /**
+     * 获取 0 号核心，图形化界面只显示该核心
+     * @return 0 号核心
+     */
     public CPU getCpu() {
-        return cpu;
+        return cpus[0];
+    }
+
+    /**
+     * 获取正在运行指定进程的核心
+     * @param pcb 进程
+     * @return 运行该进程的核心，进程未在运行时返回 0 号核心
+     */
+    public CPU getCpuOf(PCB pcb) {
+        for (int i = 0; i < this.cpus.length; ++i) {
+            if (this.cpus[i].getRunningPCB() == pcb) {
+                return this.cpus[i];
+            }
+        }
+        return this.cpus[0];
     }
 
-    public void setCpu(CPU cpu) {
-        this.cpu = cpu;
+    /**
+     * 删除指定进程某逻辑页的快表项，只有正在运行该进程的核心缓存其页表项
+     * @param pcb 进程
+     * @param logicPageNo 逻辑页号
+     */
+    public void removeTLB(PCB pcb, int logicPageNo) {
+        for (int i = 0; i < this.cpus.length; ++i) {
+            if (this.cpus[i].getRunningPCB() == pcb) {
+                this.cpus[i].getMmu().removeTLB(logicPageNo);
+            }
+        }
     }
 
-    public MMU getMmu() {
-        return mmu;
+    /**
+     * 将正在运行指定进程的核心的快表脏位写回页表，检查页表项修改位之前调用
+     * @param pcb 进程
+     */
+    public void writeBackTLBDirty(PCB pcb) {
+        for (int i = 0; i < this.cpus.length; ++i) {
+            if (this.cpus[i].getRunningPCB() == pcb) {
+                this.cpus[i].getMmu().writeBackDirty();
+            }
+        }
     }
 
-    public void setMmu(MMU mmu) {
-        this.mmu = mmu;
+    /**
+     * 使各级数据缓存中一段物理地址的缓存行失效
+     * @param address 起始物理地址
+     * @param length 长度，单位 B
+     */
+    public void invalidateDataCaches(int address, int length) {
+        for (int i = 0; i < this.cpus.length; ++i) {
+            if (this.cpus[i].getDataCache() != null) {
+                this.cpus[i].getDataCache().invalidate(address, length);
+            }
+        }
+        if (this.l2Cache != null) {
+            this.l2Cache.invalidate(address, length);
+        }
     }
 
-    public DataLine getDataLine() {
-        return dataLine;
+    public DataCache getL2Cache() {
+        return l2Cache;
     }
 
-    public void setDataLine(DataLine dataLine) {
-        this.dataLine = dataLine;
+    public CPU[] getCpus() {
+        return cpus;
+    }
+
+    public void setCpus(CPU[] cpus) {
+        this.cpus = cpus;
     }
 
-    public AddressLine getAddressLine() {
-        return addressLine;
+    public MMU getMmu() {
+        return cpus[0].getMmu();
     }
 
-    public void setAddressLine(AddressLine addressLine) {
-        this.addressLine = addressLine;
+    public DataLine getDataLine() {
+        return dataLine;
+    }
+
+    public void setDataLine(DataLine dataLine) {
+        this.dataLine = dataLine;
     }
 
     public InternalMem getInMem() {